@@ -0,0 +1,12 @@
+#!/bin/sh
+# Clones the primary on first start, then runs as a hot standby.
+# -R writes standby.signal and primary_conninfo, so restarts keep replicating.
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup -h db -D "$PGDATA" -X stream -R -c fast; do
+    echo "Waiting for primary..."
+    sleep 2
+  done
+  chmod 700 "$PGDATA"
+fi
+exec postgres -c hot_standby=on
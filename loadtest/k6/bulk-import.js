@@ -0,0 +1,66 @@
+// Bulk import: upload a generated CSV as a background job and time it to completion.
+// The session must belong to a premium user (UPDATE users SET premium = true ...).
+// Env: SESSION_COOKIE (required), IMPORT_ROWS (default 20000), ITERATIONS (default 3).
+import http from 'k6/http';
+import { check, fail, sleep } from 'k6';
+import { Trend } from 'k6/metrics';
+import { BASE_URL, SUMMARY_TREND_STATS, requireSession, sessionHeaders, summaryFor } from './lib/common.js';
+
+const ROWS = parseInt(__ENV.IMPORT_ROWS || '20000', 10);
+
+const jobDuration = new Trend('import_job_duration', true);
+const rowsPerSecond = new Trend('import_rows_per_second');
+
+export const options = {
+    summaryTrendStats: SUMMARY_TREND_STATS,
+    // One active import per user, so iterations run back to back
+    scenarios: {
+        imports: {
+            executor: 'shared-iterations',
+            vus: 1,
+            iterations: parseInt(__ENV.ITERATIONS || '3', 10),
+            maxDuration: '30m',
+        },
+    },
+    thresholds: {
+        import_rows_per_second: [`avg>${__ENV.MIN_ROWS_PER_SECOND || 500}`],
+        checks: ['rate==1'],
+    },
+};
+
+export function setup() {
+    requireSession('bulk-import.js');
+}
+
+export default function () {
+    const lines = ['url,customCode,expirationDays'];
+    for (let i = 0; i < ROWS; i++) {
+        lines.push(`https://www.example.com/import/${__ITER}/${i}?src=loadtest,,${i % 10 === 0 ? 30 : ''}`);
+    }
+
+    const started = Date.now();
+    const res = http.post(`${BASE_URL}/api/import-jobs`, {
+        file: http.file(lines.join('\n'), `loadtest-${__ITER}.csv`, 'text/csv'),
+    }, { headers: sessionHeaders(), tags: { name: 'POST /api/import-jobs' } });
+
+    if (!check(res, { 'job accepted': (r) => r.status === 202 })) {
+        fail(`import rejected: ${res.status} ${res.body}`);
+    }
+
+    const id = res.json('id');
+    let status = res.json('status');
+    while (status === 'QUEUED' || status === 'RUNNING') {
+        sleep(1);
+        status = http.get(`${BASE_URL}/api/import-jobs/${id}`, {
+            headers: sessionHeaders(),
+            tags: { name: 'GET /api/import-jobs/{id}' },
+        }).json('status');
+    }
+
+    const elapsed = Date.now() - started;
+    check(status, { 'job completed': (s) => s === 'COMPLETED' });
+    jobDuration.add(elapsed);
+    rowsPerSecond.add(ROWS / (elapsed / 1000));
+}
+
+export const handleSummary = summaryFor('bulk-import');
@@ -0,0 +1,46 @@
+// Dashboard browsing for one logged-in user: dashboard page, then analytics for a few links.
+// Seed with SEED_OWNER_EMAIL=<your login email> so the hottest SEED_OWNED links are yours.
+// Env: SESSION_COOKIE (required), VUS (default 20), DURATION (default 2m), SEED_OWNED (default 500).
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import {
+    BASE_URL, SUMMARY_TREND_STATS, codeForRank, requireSession, sessionHeaders, summaryFor
+} from './lib/common.js';
+
+const OWNED = parseInt(__ENV.SEED_OWNED || '500', 10);
+
+export const options = {
+    summaryTrendStats: SUMMARY_TREND_STATS,
+    vus: parseInt(__ENV.VUS || '20', 10),
+    duration: __ENV.DURATION || '2m',
+    thresholds: {
+        'http_req_duration{name:GET /dashboard}': [`p(95)<${__ENV.DASHBOARD_P95_MS || 500}`],
+        'http_req_duration{name:GET /api/analytics/{code}}': [`p(95)<${__ENV.ANALYTICS_P95_MS || 300}`],
+        checks: ['rate>0.99'],
+    },
+};
+
+export function setup() {
+    requireSession('dashboard.js');
+}
+
+export default function () {
+    const page = http.get(`${BASE_URL}/dashboard`, {
+        redirects: 0,
+        headers: sessionHeaders(),
+        tags: { name: 'GET /dashboard' },
+    });
+    check(page, { 'dashboard 200': (r) => r.status === 200 });
+
+    for (let i = 0; i < 3; i++) {
+        const code = codeForRank(1 + Math.floor(Math.random() * OWNED));
+        const res = http.get(`${BASE_URL}/api/analytics/${code}?days=30`, {
+            headers: sessionHeaders(),
+            tags: { name: 'GET /api/analytics/{code}' },
+        });
+        check(res, { 'analytics 200': (r) => r.status === 200 });
+        sleep(1);
+    }
+}
+
+export const handleSummary = summaryFor('dashboard');
@@ -0,0 +1,50 @@
+// Shared helpers for the load-test scenarios.
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.2/index.js';
+
+export const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+export const LINKS = parseInt(__ENV.SEED_LINKS || '1000000', 10);
+export const ZIPF_S = parseFloat(__ENV.SEED_ZIPF_S || '1.1');
+export const SESSION_COOKIE = __ENV.SESSION_COOKIE || '';
+
+export const SUMMARY_TREND_STATS = ['avg', 'p(50)', 'p(90)', 'p(95)', 'p(99)', 'max'];
+
+// Same inverse-CDF Zipf(s) as seed.sql, so hot codes here are hot in the DB
+export function zipfRank() {
+    const u = Math.random();
+    const r = Math.floor(Math.pow((Math.pow(LINKS, 1 - ZIPF_S) - 1) * u + 1, 1 / (1 - ZIPF_S)));
+    return Math.min(Math.max(r, 1), LINKS);
+}
+
+export function codeForRank(rank) {
+    return 'lt' + String(rank).padStart(8, '0');
+}
+
+export function zipfCode() {
+    return codeForRank(zipfRank());
+}
+
+// The rate limiter keys anonymous clients by X-Forwarded-For - spread them out like real traffic
+export function clientHeaders(extra) {
+    const ip = `198.51.${Math.floor(Math.random() * 256)}.${Math.floor(Math.random() * 256)}`;
+    return Object.assign({ 'X-Forwarded-For': ip, 'User-Agent': 'quicklink-loadtest/k6' }, extra || {});
+}
+
+export function sessionHeaders(extra) {
+    return Object.assign({ Cookie: `JSESSIONID=${SESSION_COOKIE}` }, extra || {});
+}
+
+export function requireSession(scenario) {
+    if (!SESSION_COOKIE) {
+        throw new Error(`${scenario} needs SESSION_COOKIE (the JSESSIONID of a logged-in browser session)`);
+    }
+}
+
+// Console summary plus a JSON file per scenario (and RESULTS_LABEL, if set) for comparing runs
+export function summaryFor(name) {
+    const file = __ENV.RESULTS_LABEL ? `${name}-${__ENV.RESULTS_LABEL}` : name;
+    return function (data) {
+        const out = { stdout: textSummary(data, { indent: ' ', enableColors: true }) };
+        out[`${__ENV.RESULTS_DIR || 'results'}/${file}.json`] = JSON.stringify(data, null, 2);
+        return out;
+    };
+}
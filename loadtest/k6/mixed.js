@@ -0,0 +1,59 @@
+// Mixed traffic: steady redirects plus anonymous shortens, as on a normal day.
+// Env: REDIRECT_RATE (default 500/s), SHORTEN_RATE (default 20/s), DURATION (default 3m).
+import http from 'k6/http';
+import { check } from 'k6';
+import { BASE_URL, SUMMARY_TREND_STATS, clientHeaders, summaryFor, zipfCode } from './lib/common.js';
+
+const DURATION = __ENV.DURATION || '3m';
+
+export const options = {
+    summaryTrendStats: SUMMARY_TREND_STATS,
+    scenarios: {
+        redirects: {
+            executor: 'constant-arrival-rate',
+            exec: 'redirect',
+            rate: parseInt(__ENV.REDIRECT_RATE || '500', 10),
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 100,
+            maxVUs: 1000,
+        },
+        shortens: {
+            executor: 'constant-arrival-rate',
+            exec: 'shorten',
+            rate: parseInt(__ENV.SHORTEN_RATE || '20', 10),
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 20,
+            maxVUs: 200,
+        },
+    },
+    thresholds: {
+        'http_req_duration{scenario:redirects}': [`p(95)<${__ENV.REDIRECT_P95_MS || 50}`],
+        'http_req_duration{scenario:shortens}': [`p(95)<${__ENV.SHORTEN_P95_MS || 250}`],
+        'checks{scenario:shortens}': ['rate>0.99'],
+    },
+};
+
+export function redirect() {
+    const res = http.get(`${BASE_URL}/api/${zipfCode()}`, {
+        redirects: 0,
+        headers: clientHeaders(),
+        tags: { name: 'GET /api/{code}' },
+    });
+    check(res, { 'redirected': (r) => [301, 302, 307, 308, 410].includes(r.status) });
+}
+
+export function shorten() {
+    const body = JSON.stringify({
+        url: `https://www.example.com/new/${__VU}/${__ITER}?ref=loadtest`,
+        expirationDays: Math.random() < 0.2 ? 30 : null,
+    });
+    const res = http.post(`${BASE_URL}/api/shorten`, body, {
+        headers: clientHeaders({ 'Content-Type': 'application/json' }),
+        tags: { name: 'POST /api/shorten' },
+    });
+    check(res, { 'shortened': (r) => r.status === 200 });
+}
+
+export const handleSummary = summaryFor('mixed');
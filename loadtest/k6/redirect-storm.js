@@ -0,0 +1,40 @@
+// Redirect storm: GET /api/{code} at a fixed arrival rate, codes drawn with Zipf popularity.
+// Env: RATE (req/s, default 2000), DURATION (default 2m), P95_MS / P99_MS thresholds.
+import http from 'k6/http';
+import { check } from 'k6';
+import { BASE_URL, SUMMARY_TREND_STATS, clientHeaders, summaryFor, zipfCode } from './lib/common.js';
+
+const RATE = parseInt(__ENV.RATE || '2000', 10);
+
+export const options = {
+    summaryTrendStats: SUMMARY_TREND_STATS,
+    scenarios: {
+        redirects: {
+            executor: 'ramping-arrival-rate',
+            startRate: Math.ceil(RATE / 10),
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            stages: [
+                { target: RATE, duration: '30s' },
+                { target: RATE, duration: __ENV.DURATION || '2m' },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: [`p(95)<${__ENV.P95_MS || 50}`, `p(99)<${__ENV.P99_MS || 150}`],
+    },
+};
+
+export default function () {
+    const res = http.get(`${BASE_URL}/api/${zipfCode()}`, {
+        redirects: 0,
+        headers: clientHeaders(),
+        tags: { name: 'GET /api/{code}' },
+    });
+    // 410 is expected for the seeded links that expire
+    check(res, { 'redirected': (r) => [301, 302, 307, 308, 410].includes(r.status) });
+}
+
+export const handleSummary = summaryFor('redirect-storm');
@@ -0,0 +1,22 @@
+#!/bin/sh
+# Runs seed.sql against the compose database once the app has applied its migrations.
+set -e
+
+echo "Waiting for Flyway to create the schema..."
+i=0
+until [ "$(psql -tAc "SELECT to_regclass('public.click_analytics') IS NOT NULL")" = "t" ]; do
+    i=$((i + 1))
+    if [ "$i" -gt 120 ]; then
+        echo "Schema not found after 120s - is the app running?" >&2
+        exit 1
+    fi
+    sleep 1
+done
+
+exec psql -v ON_ERROR_STOP=1 \
+    -v links="${SEED_LINKS:-1000000}" \
+    -v clicks="${SEED_CLICKS:-5000000}" \
+    -v zipf_s="${SEED_ZIPF_S:-1.1}" \
+    -v owned="${SEED_OWNED:-500}" \
+    ${SEED_OWNER_EMAIL:+-v owner_email="$SEED_OWNER_EMAIL"} \
+    -f /seed/seed.sql
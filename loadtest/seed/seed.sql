@@ -0,0 +1,110 @@
+-- Load-test data set: users, shortened_url and click_analytics rows with
+-- Zipfian link popularity (a few links get most of the clicks, like production).
+--
+-- psql variables (all optional):
+--   links        number of shortened_url rows          (default 1000000)
+--   clicks       number of click_analytics rows        (default 5000000)
+--   zipf_s       Zipf exponent, must not be 1          (default 1.1)
+--   owner_email  existing user who gets the hottest `owned` links, so the
+--                dashboard scenario has something to browse
+--   owned        links assigned to owner_email         (default 500)
+--
+-- Codes are 'lt' + 8 digits, ranked by popularity: lt00000001 is the hottest.
+-- The k6 scripts derive codes with the same Zipf formula, no lookup needed.
+-- Safe to re-run: exits early if the data set is already there.
+
+\if :{?links} \else \set links 1000000 \endif
+\if :{?clicks} \else \set clicks 5000000 \endif
+\if :{?zipf_s} \else \set zipf_s 1.1 \endif
+\if :{?owned} \else \set owned 500 \endif
+
+SELECT EXISTS (SELECT 1 FROM shortened_url WHERE code = 'lt00000001') AS seeded \gset
+\if :seeded
+    \echo 'Load-test data already present - nothing to do.'
+    \quit
+\endif
+
+SET synchronous_commit = off;
+\timing on
+
+\echo 'Seeding users...'
+INSERT INTO users (email, name, created_at, premium)
+SELECT 'loadtest-' || g || '@example.com', 'Load Test ' || g, now() - (random() * interval '365 days'), g % 10 = 0
+FROM generate_series(1, greatest(:links / 1000, 1)) AS g;
+
+SELECT min(id) AS first_user, count(*) AS user_count FROM users WHERE email LIKE 'loadtest-%@example.com' \gset
+
+\echo 'Seeding shortened_url...'
+-- 80% of links belong to a seeded user, the rest are anonymous
+INSERT INTO shortened_url (long_url, short_url, code, date_created, expires_at, click_count, user_id)
+SELECT 'https://www.example.com/landing/' || g || '?utm_source=loadtest',
+       'http://localhost:8080/api/lt' || lpad(g::text, 8, '0'),
+       'lt' || lpad(g::text, 8, '0'),
+       now() - (random() * interval '365 days'),
+       CASE WHEN g % 20 = 0 THEN now() + interval '30 days' END,
+       0,
+       CASE WHEN g % 5 <> 0 THEN :first_user + g % :user_count END
+FROM generate_series(1, :links) AS g;
+
+\if :{?owner_email}
+UPDATE shortened_url
+SET user_id = (SELECT id FROM users WHERE email = :'owner_email')
+WHERE code BETWEEN 'lt00000001' AND 'lt' || lpad(:owned::text, 8, '0')
+  AND EXISTS (SELECT 1 FROM users WHERE email = :'owner_email');
+\endif
+
+\echo 'Seeding click dimensions...'
+-- pick = position used below for the matching device / browser / OS codes
+CREATE TEMP TABLE lt_agents (pick INT, user_agent TEXT, browser_version TEXT, os_version TEXT);
+INSERT INTO lt_agents VALUES
+    (1, 'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36', '120.0', '10'),
+    (2, 'Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1', '17.1', '17.1'),
+    (3, 'Mozilla/5.0 (Macintosh; Intel Mac OS X 14_1) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Safari/605.1.15', '17.1', '14.1'),
+    (4, 'Mozilla/5.0 (Linux; Android 14) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36', '120.0', '14'),
+    (5, 'Mozilla/5.0 (X11; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0', '121.0', NULL);
+INSERT INTO user_agents (user_agent, browser_version, os_version)
+SELECT user_agent, browser_version, os_version FROM lt_agents
+ON CONFLICT (user_agent) DO NOTHING;
+INSERT INTO referer_hosts (host) VALUES ('www.google.com'), ('t.co'), ('www.facebook.com')
+ON CONFLICT (host) DO NOTHING;
+INSERT INTO countries (name) VALUES ('United States'), ('Germany'), ('Romania'), ('United Kingdom'), ('India'), ('Brazil')
+ON CONFLICT (name) DO NOTHING;
+
+\echo 'Seeding click_analytics (Zipf s = ' :zipf_s ')...'
+-- Inverse-CDF sampling of a continuous Zipf(s) over [1, links].
+-- Device / browser / OS codes follow ClickCodes.java and match the user agent picked for the row.
+WITH base AS (SELECT min(id) - 1 AS offset_id FROM shortened_url WHERE code LIKE 'lt%'),
+     ua AS (SELECT array_agg(u.id ORDER BY a.pick) AS ids FROM lt_agents a JOIN user_agents u USING (user_agent)),
+     ref AS (SELECT array_agg(id ORDER BY array_position(ARRAY['www.google.com', 't.co', 'www.facebook.com'], host)) AS ids
+             FROM referer_hosts WHERE host IN ('www.google.com', 't.co', 'www.facebook.com')),
+     geo AS (SELECT array_agg(id) AS ids FROM countries
+             WHERE name IN ('United States', 'Germany', 'Romania', 'United Kingdom', 'India', 'Brazil')),
+     ranks AS (
+         SELECT floor(power((power(:links::float8, 1 - :zipf_s) - 1) * random() + 1, 1 / (1 - :zipf_s)))::bigint AS r,
+                1 + floor(random() * 5)::int AS pick
+         FROM generate_series(1, :clicks)
+     )
+INSERT INTO click_analytics (shortened_url_id, clicked_at, ip_address, user_agent_id, referer_host_id,
+                             country_id, city, device_type, browser, os)
+SELECT base.offset_id + least(ranks.r, :links),
+       now() - (power(random(), 2) * interval '90 days'),
+       ('203.0.' || (floor(random() * 256))::int || '.' || (floor(random() * 256))::int)::inet,
+       ua.ids[ranks.pick],
+       ref.ids[1 + floor(random() * 5)::int],
+       geo.ids[1 + floor(random() * 6)::int],
+       NULL,
+       (ARRAY[0, 1, 0, 1, 0])[ranks.pick]::smallint,
+       (ARRAY[1, 2, 2, 1, 3])[ranks.pick]::smallint,
+       (ARRAY[1, 5, 2, 4, 3])[ranks.pick]::smallint
+FROM ranks, base, ua, ref, geo;
+
+\echo 'Updating click counters...'
+UPDATE shortened_url s
+SET click_count = c.n, last_accessed = c.last_click
+FROM (SELECT shortened_url_id, count(*) AS n, max(clicked_at) AS last_click
+      FROM click_analytics GROUP BY shortened_url_id) c
+WHERE s.id = c.shortened_url_id AND s.code LIKE 'lt%';
+
+ANALYZE users;
+ANALYZE shortened_url;
+ANALYZE click_analytics;
@@ -0,0 +1,69 @@
+#!/bin/sh
+# ---------------------------------------------------------------------------
+# Time to first HTTP response and resident memory for each way of starting the app:
+#
+#   jvm      the fat JAR, as before
+#   cds      extracted JAR + AppCDS archive from a training run
+#   aot      Spring AOT (-Dspring.aot.enabled=true)
+#   aot-cds  both - what the Dockerfile ships
+#   native   target/quicklink, if ./mvnw -Pnative native:compile was run
+#
+# Build with ./mvnw -Paot package first (the AOT JAR also runs without AOT).
+# Needs the same environment as a local run (DB_URL, DB_USERNAME, ... see README).
+# Without a database the app still starts and serves /login:
+#
+#   APP_ARGS="--spring.flyway.enabled=false --spring.jpa.hibernate.ddl-auto=none" loadtest/startup.sh
+# ---------------------------------------------------------------------------
+set -eu
+
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-18080}
+RUNS=${RUNS:-3}
+JAVA_OPTS=${JAVA_OPTS:--XX:+UseSerialGC}
+APP_ARGS="${APP_ARGS:-} --server.port=$PORT --management.server.port=$((PORT + 1))"
+
+JAR=$(ls target/urlshortener-*.jar | grep -v original | head -1)
+WORK=target/startup
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK" > /dev/null
+APP="$WORK/$(basename "$JAR")"
+
+# Training runs: refresh the context, exit, dump the loaded classes
+echo "Training CDS archives..."
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$WORK/jvm.jsa" -Dspring.context.exit=onRefresh \
+    -jar "$APP" $APP_ARGS > "$WORK/train-jvm.log" 2>&1
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$WORK/aot.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP" $APP_ARGS > "$WORK/train-aot.log" 2>&1
+
+measure() {
+    name=$1
+    shift
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        start=$(date +%s%N)
+        "$@" $APP_ARGS > "$WORK/$name.log" 2>&1 &
+        pid=$!
+        until curl -fs -o /dev/null "http://127.0.0.1:$PORT/login"; do
+            if ! kill -0 "$pid" 2> /dev/null; then
+                echo "$name exited before serving a request, see $WORK/$name.log"
+                exit 1
+            fi
+            sleep 0.02
+        done
+        ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        rss=$(( $(ps -o rss= -p "$pid") / 1024 ))
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        printf '%-8s run %d  %7d ms to first response  %5d MB RSS\n' "$name" "$i" "$ms" "$rss"
+        i=$((i + 1))
+    done
+}
+
+measure jvm     java $JAVA_OPTS -jar "$JAR"
+measure cds     java $JAVA_OPTS -XX:SharedArchiveFile="$WORK/jvm.jsa" -jar "$APP"
+measure aot     java $JAVA_OPTS -Dspring.aot.enabled=true -jar "$APP"
+measure aot-cds java $JAVA_OPTS -XX:SharedArchiveFile="$WORK/aot.jsa" -Dspring.aot.enabled=true -jar "$APP"
+if [ -x target/quicklink ]; then
+    measure native target/quicklink
+fi
@@ -0,0 +1,121 @@
+package com.petruth.urlshortener.redirect.server;
+
+import com.petruth.urlshortener.redirect.ClickInbox;
+import com.petruth.urlshortener.redirect.RedirectLookup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clicks are written behind the redirect: counters are summed per code and raw clicks queued,
+ * then both are flushed in batches. A burst on one link costs one UPDATE per flush. Bot and
+ * prefetch hits only add to bot_click_count, like in the main app; they never reach click_inbox.
+ *
+ * <p>Counters are never dropped (a failed flush adds them back). Raw clicks are bounded;
+ * past the limit the detail is dropped and counted, like the main app's analytics queue.
+ */
+class ClickBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickBuffer.class);
+
+    private final RedirectLookup lookup;
+    private final ClickInbox inbox;
+    private final int maxPending;
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> botCounts = new ConcurrentHashMap<>();
+    private final Queue<ClickInbox.RawClick> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    ClickBuffer(RedirectLookup lookup, ClickInbox inbox, int maxPending) {
+        this.lookup = lookup;
+        this.inbox = inbox;
+        this.maxPending = maxPending;
+    }
+
+    void record(String code, ClickInbox.RawClick click) {
+        counts.merge(code, 1L, Long::sum);
+        if (pendingSize.incrementAndGet() > maxPending) {
+            pendingSize.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.add(click);
+    }
+
+    void recordBot(long urlId) {
+        botCounts.merge(urlId, 1L, Long::sum);
+    }
+
+    /**
+     * Called from one scheduler thread only.
+     */
+    void flush() {
+        flushCounts();
+        flushBotCounts();
+        flushClicks();
+        long droppedNow = dropped.getAndSet(0);
+        if (droppedNow > 0) {
+            log.warn("Click buffer full, dropped detail for {} clicks (counters kept)", droppedNow);
+        }
+    }
+
+    private void flushCounts() {
+        Map<String, Long> batch = new HashMap<>();
+        for (String code : counts.keySet()) {
+            // merge() and remove() are atomic per key, so a racing click is either in this batch or the next
+            Long clicks = counts.remove(code);
+            if (clicks != null) {
+                batch.put(code, clicks);
+            }
+        }
+        try {
+            lookup.incrementClicks(batch, LocalDateTime.now());
+        } catch (SQLException e) {
+            batch.forEach((code, clicks) -> counts.merge(code, clicks, Long::sum));
+            log.warn("Click counter flush failed, retrying next round: {}", e.getMessage());
+        }
+    }
+
+    private void flushBotCounts() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long urlId : botCounts.keySet()) {
+            Long hits = botCounts.remove(urlId);
+            if (hits != null) {
+                batch.put(urlId, hits);
+            }
+        }
+        try {
+            lookup.incrementBotClicks(batch);
+        } catch (SQLException e) {
+            batch.forEach((urlId, hits) -> botCounts.merge(urlId, hits, Long::sum));
+            log.warn("Bot click counter flush failed, retrying next round: {}", e.getMessage());
+        }
+    }
+
+    private void flushClicks() {
+        List<ClickInbox.RawClick> batch = new ArrayList<>();
+        ClickInbox.RawClick click;
+        while (batch.size() < 5_000 && (click = pending.poll()) != null) {
+            batch.add(click);
+        }
+        pendingSize.addAndGet(-batch.size());
+        try {
+            inbox.enqueue(batch);
+        } catch (SQLException e) {
+            log.warn("Dropped {} clicks, click_inbox insert failed: {}", batch.size(), e.getMessage());
+        }
+    }
+}
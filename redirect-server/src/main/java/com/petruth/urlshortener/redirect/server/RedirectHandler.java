@@ -0,0 +1,147 @@
+package com.petruth.urlshortener.redirect.server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import com.petruth.urlshortener.redirect.ClickInbox;
+import com.petruth.urlshortener.redirect.RedirectLookup;
+import com.petruth.urlshortener.redirect.RedirectPolicy;
+import com.petruth.urlshortener.redirect.TrustedProxies;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * GET /api/{code}: cached lookup, expiry check, Location header. Clicks are handed to the
+ * {@link ClickBuffer}; nothing on this path waits for a write. Bots and prefetches get the same
+ * redirect but are counted apart (ClickClassifier, same rules as the main app).
+ */
+class RedirectHandler implements HttpHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(RedirectHandler.class);
+
+    static final String PREFIX = "/api/";
+    private static final int MAX_CODE_LENGTH = 255;
+
+    private final RedirectLookup lookup;
+    private final ClickBuffer clicks;
+    private final ClickClassifier classifier;
+    private final TrustedProxies trustedProxies;
+
+    // Unknown codes are cached too (briefly), so scanners can't turn into one query per request
+    private final Cache<String, Optional<RedirectLookup.Target>> cache;
+
+    RedirectHandler(RedirectLookup lookup, ClickBuffer clicks, ClickClassifier classifier, ServerConfig config) {
+        this.lookup = lookup;
+        this.clicks = clicks;
+        this.classifier = classifier;
+        this.trustedProxies = new TrustedProxies(config.trustedProxies());
+        long ttl = config.cacheTtl().toNanos();
+        long notFoundTtl = config.notFoundTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.cacheMaxEntries())
+                .expireAfter(new Expiry<String, Optional<RedirectLookup.Target>>() {
+                    @Override
+                    public long expireAfterCreate(String code, Optional<RedirectLookup.Target> target, long now) {
+                        return target.isPresent() ? ttl : notFoundTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String code, Optional<RedirectLookup.Target> target,
+                                                  long now, long currentDuration) {
+                        return expireAfterCreate(code, target, now);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String code, Optional<RedirectLookup.Target> target,
+                                                long now, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            String code = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            if (code.isEmpty() || code.length() > MAX_CODE_LENGTH || code.indexOf('/') >= 0) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            Optional<RedirectLookup.Target> target;
+            try {
+                target = cache.get(code, this::load);
+            } catch (IllegalStateException e) {
+                log.warn("Lookup failed for {}: {}", code, e.getMessage());
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            if (target.isEmpty()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            redirect(exchange, code, target.get());
+        }
+    }
+
+    private Optional<RedirectLookup.Target> load(String code) {
+        try {
+            return Optional.ofNullable(lookup.find(code));
+        } catch (SQLException e) {
+            // Not cached: the next request retries
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void redirect(HttpExchange exchange, String code, RedirectLookup.Target target) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        Headers headers = exchange.getResponseHeaders();
+
+        if (RedirectPolicy.isExpired(target.expiresAt(), now)) {
+            byte[] body = RedirectPolicy.GONE_BODY.getBytes(StandardCharsets.UTF_8);
+            headers.set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(410, "HEAD".equals(exchange.getRequestMethod()) ? -1 : body.length);
+            if (!"HEAD".equals(exchange.getRequestMethod())) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            return;
+        }
+
+        Headers request = exchange.getRequestHeaders();
+        if (classifier.classify(request::getFirst) != ClickClassifier.Kind.HUMAN) {
+            clicks.recordBot(target.id());
+        } else {
+            clicks.record(code, new ClickInbox.RawClick(target.id(), now,
+                    trustedProxies.clientIp(request.getFirst("X-Forwarded-For"),
+                            exchange.getRemoteAddress().getAddress().getHostAddress()),
+                    request.getFirst("User-Agent"), request.getFirst("Referer")));
+        }
+
+        long maxAge = RedirectPolicy.cacheMaxAgeSeconds(target.cacheMaxAge(), target.expiresAt(), now);
+        headers.set("Location", target.longUrl());
+        headers.set("Cache-Control", maxAge > 0 ? "max-age=" + maxAge + ", public" : "no-store");
+        exchange.sendResponseHeaders(target.redirectStatus(), -1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.petruth.urlshortener.redirect.server;
+
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import com.petruth.urlshortener.redirect.ClickInbox;
+import com.petruth.urlshortener.redirect.RedirectLookup;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect-only HTTP server: the JDK's NIO-based HttpServer, a small Hikari pool and a
+ * Caffeine cache - no Spring context, security chain, templates or sessions.
+ *
+ * <p>Serves {@code GET /api/{code}} with the same rules as the main app (RedirectPolicy) and
+ * {@code GET /health} for load balancers. Click counters are batched into shortened_url;
+ * raw clicks go to click_inbox, where the main app picks them up for analytics. Bot and
+ * prefetch hits only bump bot_click_count.
+ */
+public final class RedirectServer {
+
+    private static final Logger log = LoggerFactory.getLogger(RedirectServer.class);
+
+    private RedirectServer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ServerConfig config = ServerConfig.fromEnvironment();
+
+        HikariDataSource dataSource = dataSource(config);
+        ClickBuffer clicks = new ClickBuffer(new RedirectLookup(dataSource), new ClickInbox(dataSource),
+                config.clickBufferMax());
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "click-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMs = config.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                clicks.flush();
+            } catch (RuntimeException e) {
+                log.warn("Click flush failed: {}", e.getMessage());
+            }
+        }, flushMs, flushMs, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads());
+        HttpServer server = HttpServer.create(new InetSocketAddress(config.port()), 1024);
+        server.createContext(RedirectHandler.PREFIX, new RedirectHandler(new RedirectLookup(dataSource), clicks,
+                ClickClassifier.withDefaultPatterns(), config));
+        server.createContext("/health", exchange -> {
+            try (exchange) {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        });
+        server.setExecutor(workers);
+        server.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            workers.shutdown();
+            flusher.shutdown();
+            clicks.flush();
+            dataSource.close();
+        }, "shutdown"));
+
+        log.info("Redirect server listening on :{} (started in {} ms)",
+                config.port(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private static HikariDataSource dataSource(ServerConfig config) {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("redirect");
+        hikari.setJdbcUrl(config.dbUrl());
+        hikari.setUsername(config.dbUsername());
+        hikari.setPassword(config.dbPassword());
+        hikari.setMaximumPoolSize(config.dbPoolSize());
+        hikari.setMinimumIdle(1);
+        // Fail a lookup fast (503) rather than hold a worker while the database is unreachable
+        hikari.setConnectionTimeout(2000);
+        // Don't block startup on the first connection; the pool fills in the background
+        hikari.setInitializationFailTimeout(-1);
+        return new HikariDataSource(hikari);
+    }
+}
@@ -0,0 +1,57 @@
+package com.petruth.urlshortener.redirect.server;
+
+import com.petruth.urlshortener.redirect.TrustedProxies;
+
+import java.time.Duration;
+
+/**
+ * Settings from environment variables (a -D system property of the same name wins).
+ * Database variables are the same ones the main app uses.
+ */
+record ServerConfig(int port,
+                    String dbUrl,
+                    String dbUsername,
+                    String dbPassword,
+                    int dbPoolSize,
+                    int threads,
+                    long cacheMaxEntries,
+                    Duration cacheTtl,
+                    Duration notFoundTtl,
+                    Duration flushInterval,
+                    int clickBufferMax,
+                    String trustedProxies) {
+
+    static ServerConfig fromEnvironment() {
+        return new ServerConfig(
+                intValue("PORT", 8082),
+                required("DB_URL"),
+                value("DB_USERNAME", null),
+                value("DB_PASSWORD", null),
+                intValue("REDIRECT_DB_POOL_SIZE", 4),
+                intValue("REDIRECT_THREADS", 32),
+                intValue("REDIRECT_CACHE_MAX_ENTRIES", 100_000),
+                Duration.ofSeconds(intValue("REDIRECT_CACHE_TTL_SECONDS", 60)),
+                Duration.ofSeconds(intValue("REDIRECT_NOT_FOUND_TTL_SECONDS", 2)),
+                Duration.ofMillis(intValue("REDIRECT_FLUSH_INTERVAL_MS", 1000)),
+                intValue("REDIRECT_CLICK_BUFFER_MAX", 100_000),
+                value("REDIRECT_TRUSTED_PROXIES", TrustedProxies.DEFAULT_RANGES));
+    }
+
+    private static String value(String name, String defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static String required(String name) {
+        String value = value(name, null);
+        if (value == null) {
+            throw new IllegalStateException(name + " is not set");
+        }
+        return value;
+    }
+
+    private static int intValue(String name, int defaultValue) {
+        String value = value(name, null);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,97 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import com.petruth.urlshortener.service.ShortenedUrlServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short code generation. The service methods run against a stub repository
+ * (no collisions), so only the generation cost is measured; the alternatives
+ * are candidate strategies to compare against the current shared Random.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodeGenerationBenchmark {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final char[] ALPHABET_CHARS = ALPHABET.toCharArray();
+    private static final int LENGTH = 7;
+
+    private ShortenedUrlServiceImpl service;
+    private final Random sharedRandom = new Random();
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Setup
+    public void setUp() {
+        service = new ShortenedUrlServiceImpl(Stubs.emptyRepository(ShortenedUrlRepository.class));
+    }
+
+    @Benchmark
+    public String serviceGenerateUniqueCode() {
+        return service.generateUniqueCode();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<String> serviceGenerateUniqueCodes100() {
+        return service.generateUniqueCodes(100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String sharedRandomContended() {
+        return fromRandom(sharedRandom);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threadLocalRandomContended() {
+        return fromRandom(ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    public String secureRandom() {
+        return fromRandom(secureRandom);
+    }
+
+    // One 64-bit draw, 6 bits per character (62/64 of values accepted)
+    @Benchmark
+    public String threadLocalRandomBits() {
+        char[] chars = new char[LENGTH];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long bits = random.nextLong();
+        int remaining = 10;
+        int i = 0;
+        while (i < LENGTH) {
+            if (remaining == 0) {
+                bits = random.nextLong();
+                remaining = 10;
+            }
+            int index = (int) (bits & 63);
+            bits >>>= 6;
+            remaining--;
+            if (index < ALPHABET_CHARS.length) {
+                chars[i++] = ALPHABET_CHARS[index];
+            }
+        }
+        return new String(chars);
+    }
+
+    private static String fromRandom(Random random) {
+        char[] chars = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+}
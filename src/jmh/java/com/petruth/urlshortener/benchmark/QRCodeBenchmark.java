@@ -0,0 +1,48 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.dto.QRCodeFormat;
+import com.petruth.urlshortener.service.QRCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uncached PNG / SVG rendering versus a hit in QRCodeService's render cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QRCodeBenchmark {
+
+    private static final String SHORT_URL = "https://quicklink.example.com/api/aB3dE7x";
+
+    @Param({"150", "300", "600"})
+    public int size;
+
+    private QRCodeService service;
+
+    @Setup
+    public void setUp() {
+        service = new QRCodeService(32L * 1024 * 1024, new SimpleMeterRegistry());
+        service.render("aB3dE7x", SHORT_URL, size, QRCodeFormat.PNG);
+    }
+
+    @Benchmark
+    public byte[] generatePng() throws Exception {
+        return service.generateQRCode(SHORT_URL, size, size);
+    }
+
+    @Benchmark
+    public byte[] generateSvg() throws Exception {
+        return service.generateSvg(SHORT_URL, size);
+    }
+
+    @Benchmark
+    public QRCodeService.RenderedQRCode cachedPng() {
+        return service.render("aB3dE7x", SHORT_URL, size, QRCodeFormat.PNG);
+    }
+}
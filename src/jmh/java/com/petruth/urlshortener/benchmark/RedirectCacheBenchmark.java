@@ -0,0 +1,75 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.config.CaffeineCacheConfig;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.service.TrendingTracker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect record lookup through the production "urls" cache at a given hit ratio.
+ * A miss pays {@code missCostTokens} of busy work as a stand-in for the DB round trip
+ * (0 isolates the cache itself).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RedirectCacheBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    @Param({"0.5", "0.9", "0.99"})
+    public double hitRatio;
+
+    @Param({"0", "5000"})
+    public long missCostTokens;
+
+    private Cache cache;
+    private String[] cachedCodes;
+
+    @Setup
+    public void setUp() {
+        CaffeineCacheConfig config = new CaffeineCacheConfig();
+        TrendingTracker trendingTracker = new TrendingTracker(200, 4, 50, 30);
+        CacheManager cacheManager = config.cacheManager(
+                config.caffeineConfig(trendingTracker, KEYS * 2L), trendingTracker);
+        cache = cacheManager.getCache("urls");
+
+        cachedCodes = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            String code = "c" + i;
+            ShortenedUrl url = new ShortenedUrl();
+            url.setCode(code);
+            url.setLongUrl("https://www.example.com/landing/" + i);
+            url.setShortUrl("https://quicklink.example.com/api/" + code);
+            cache.put(code, url);
+            cachedCodes[i] = code;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void lookup(Cursor cursor, Blackhole bh) {
+        boolean hit = cursor.random.nextDouble() < hitRatio;
+        String code = hit ? cachedCodes[cursor.random.nextInt(KEYS)] : "missing";
+
+        ShortenedUrl url = cache.get(code, ShortenedUrl.class);
+        if (url == null) {
+            Blackhole.consumeCPU(missCostTokens);
+        }
+        bh.consume(url);
+    }
+}
@@ -0,0 +1,89 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.config.RequestTracingFilter;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of RequestTracingFilter against the LoggingAspect it replaced.
+ * The legacy path reproduces the aspect's controller advice: SecureRandom-backed UUID,
+ * header reads and two synchronous INFO lines. Both log to a discarded file (see logback.xml).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestTracingBenchmark {
+
+    private static final Logger legacyLog = LoggerFactory.getLogger("legacy-aspect");
+
+    private RequestTracingFilter filter;
+
+    @Setup
+    public void setUp() {
+        // Production defaults: redirects 1%, everything else always
+        filter = new RequestTracingFilter(0.01, 1.0, 1.0, 1000);
+    }
+
+    @Benchmark
+    public Object legacyAspectRedirect() {
+        MockHttpServletRequest request = request("GET", "/api/aB3dE7x");
+
+        String correlationId = UUID.randomUUID().toString();
+        MDC.put("correlationId", correlationId);
+        try {
+            String method = request.getMethod();
+            String uri = request.getRequestURI();
+            String userAgent = request.getHeader("User-Agent");
+            String ip = request.getRemoteAddr();
+            long startTime = System.currentTimeMillis();
+
+            legacyLog.info("🔵 REQUEST  | {} {} | IP: {} | User-Agent: {} | Correlation-ID: {}",
+                    method, uri, ip, userAgent, correlationId);
+            Object result = handle(request);
+            long duration = System.currentTimeMillis() - startTime;
+            legacyLog.info("🟢 RESPONSE | {} {} | Duration: {}ms | Status: SUCCESS | Correlation-ID: {}",
+                    method, uri, duration, correlationId);
+            return result;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    @Benchmark
+    public Object tracingFilterRedirect() throws Exception {
+        return traced(request("GET", "/api/aB3dE7x"));
+    }
+
+    @Benchmark
+    public Object tracingFilterMutation() throws Exception {
+        return traced(request("POST", "/api/shorten"));
+    }
+
+    private Object traced(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static Object handle(MockHttpServletRequest request) {
+        return request.getRequestURI();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0.0.0");
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
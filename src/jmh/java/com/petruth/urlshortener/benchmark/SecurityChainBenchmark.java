@@ -0,0 +1,149 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Security filter cost of a redirect on the main chain against the stateless fast lane.
+ * The main chain is rebuilt without oauth2Login (it needs client registrations); it keeps
+ * what a redirect actually paid for: session management, context persistence, CSRF,
+ * request cache, anonymous auth and the page headers with the CSP.
+ * The "WithSession" variants are a logged-in browser clicking a link.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityChainBenchmark {
+
+    private AnnotationConfigWebApplicationContext context;
+    private FilterChainProxy mainChain;
+    private FilterChainProxy fastLane;
+    private MockHttpSession session;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(Chains.class);
+        context.refresh();
+
+        mainChain = proxy(context.getBean("mainChain", SecurityFilterChain.class));
+        fastLane = proxy(context.getBean("fastLane", SecurityFilterChain.class));
+
+        session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated("user", null, List.of())));
+
+        // The fast lane must not create a session and writes nosniff only
+        MockHttpServletRequest request = request(null);
+        MockHttpServletResponse response = filter(fastLane, request);
+        if (request.getSession(false) != null || response.getHeaderNames().size() != 1) {
+            throw new IllegalStateException("Fast lane touched the session or wrote extra headers: "
+                    + response.getHeaderNames());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object mainChainAnonymous() throws Exception {
+        return filter(mainChain, request(null));
+    }
+
+    @Benchmark
+    public Object mainChainWithSession() throws Exception {
+        return filter(mainChain, request(session));
+    }
+
+    @Benchmark
+    public Object fastLaneAnonymous() throws Exception {
+        return filter(fastLane, request(null));
+    }
+
+    @Benchmark
+    public Object fastLaneWithSession() throws Exception {
+        return filter(fastLane, request(session));
+    }
+
+    private static FilterChainProxy proxy(SecurityFilterChain chain) {
+        FilterChainProxy proxy = new FilterChainProxy(chain);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    private static MockHttpServletRequest request(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/aB3dE7x");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0");
+        request.setSession(session);
+        return request;
+    }
+
+    private static MockHttpServletResponse filter(FilterChainProxy proxy, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Configuration
+    @EnableWebSecurity
+    static class Chains {
+
+        @Bean
+        @Order(1)
+        SecurityFilterChain fastLane(HttpSecurity http) throws Exception {
+            return SecurityConfig.redirectFastLane(http).build();
+        }
+
+        // SecurityConfig.securityFilterChain minus oauth2Login
+        @Bean
+        @Order(2)
+        SecurityFilterChain mainChain(HttpSecurity http) throws Exception {
+            return http
+                    .authorizeHttpRequests(auth -> auth
+                            .requestMatchers("/api/{code}").permitAll()
+                            .anyRequest().authenticated()
+                    )
+                    .logout(logout -> logout
+                            .logoutSuccessUrl("/")
+                            .invalidateHttpSession(true)
+                            .deleteCookies("JSESSIONID")
+                    )
+                    .sessionManagement(sessions -> sessions
+                            .sessionFixation().migrateSession()
+                            .maximumSessions(3)
+                            .maxSessionsPreventsLogin(false)
+                    )
+                    .csrf(csrf -> csrf
+                            .ignoringRequestMatchers("/api/**", "/payment/**")
+                    )
+                    .headers(SecurityConfig::pageHeaders)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.petruth.urlshortener.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for Spring Data repositories, so services can be
+ * benchmarked without a database. Every method answers "nothing there".
+ */
+final class Stubs {
+
+    private Stubs() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> T emptyRepository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) return false;
+            if (returnType == long.class) return 0L;
+            if (returnType == int.class) return 0;
+            if (returnType == Optional.class) return Optional.empty();
+            if (List.class.isAssignableFrom(returnType)) return Collections.emptyList();
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            if (method.getName().equals("toString")) return type.getSimpleName() + "Stub";
+            return null;
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.service.UrlSafetyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UrlSafetyService.isSafeUrl on typical accepted and rejected inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlSafetyBenchmark {
+
+    @Param({
+            "https://www.example.com/products/shoes?utm_source=newsletter&utm_campaign=spring",
+            "https://sub.bit.ly/abc",
+            "http://192.168.1.10/admin",
+            "javascript:alert(1)",
+            "not a url"
+    })
+    public String url;
+
+    private final UrlSafetyService service = new UrlSafetyService();
+
+    @Benchmark
+    public boolean isSafeUrl() {
+        return service.isSafeUrl(url);
+    }
+}
@@ -0,0 +1,89 @@
+package com.petruth.urlshortener.benchmark;
+
+import com.petruth.urlshortener.service.UserAgentParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device / browser / OS classification as done per click.
+ * "legacy" is the old three contains-chains (three toLowerCase copies, many scans);
+ * "parserMiss" is a cold single-pass parse, "parserHit" the cached path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserAgentBenchmark {
+
+    @Param({
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+            "curl/8.4.0"
+    })
+    public String userAgent;
+
+    private UserAgentParser cached;
+    private UserAgentParser uncached;
+
+    @Setup
+    public void setUp() {
+        cached = new UserAgentParser(1000, new SimpleMeterRegistry());
+        // Size 0 never retains an entry, so every call takes the parse path
+        uncached = new UserAgentParser(0, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        bh.consume(legacyDevice(userAgent));
+        bh.consume(legacyBrowser(userAgent));
+        bh.consume(legacyOs(userAgent));
+    }
+
+    @Benchmark
+    public Object parserMiss() {
+        return uncached.parse(userAgent);
+    }
+
+    @Benchmark
+    public Object parserHit() {
+        return cached.parse(userAgent);
+    }
+
+    // Copy of the detectors AnalyticsService used before UserAgentParser
+
+    private static String legacyDevice(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("mobile") || ua.contains("android") || ua.contains("iphone")) {
+            return "Mobile";
+        } else if (ua.contains("tablet") || ua.contains("ipad")) {
+            return "Tablet";
+        }
+        return "Desktop";
+    }
+
+    private static String legacyBrowser(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("edg")) return "Edge";
+        if (ua.contains("chrome")) return "Chrome";
+        if (ua.contains("firefox")) return "Firefox";
+        if (ua.contains("safari") && !ua.contains("chrome")) return "Safari";
+        if (ua.contains("opera") || ua.contains("opr")) return "Opera";
+        return "Other";
+    }
+
+    private static String legacyOs(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("windows")) return "Windows";
+        if (ua.contains("mac")) return "MacOS";
+        if (ua.contains("linux")) return "Linux";
+        if (ua.contains("android")) return "Android";
+        if (ua.contains("iphone") || ua.contains("ipad")) return "iOS";
+        return "Other";
+    }
+}
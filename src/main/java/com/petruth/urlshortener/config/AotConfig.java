@@ -0,0 +1,78 @@
+package com.petruth.urlshortener.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Support for ahead-of-time builds: the JVM AOT profile and the GraalVM native image
+ * (see the aot and native profiles in pom.xml).
+ */
+@Configuration
+@ImportRuntimeHints(NativeRuntimeHints.class)
+public class AotConfig {
+
+    private static final String QUERYDSL_CUSTOMIZER = "queryDslQuerydslPredicateOperationCustomizer";
+
+    /**
+     * springdoc 2.8 registers a Querydsl operation customizer compiled against Spring Data 3.
+     * A normal start never inspects it, but AOT processing introspects every bean class and
+     * fails on the missing TypeInformation. We don't use Querydsl, so the definition goes.
+     */
+    @Bean
+    static BeanDefinitionRegistryPostProcessor querydslCustomizerRemover() {
+        return registry -> {
+            if (registry.containsBeanDefinition(QUERYDSL_CUSTOMIZER)) {
+                registry.removeBeanDefinition(QUERYDSL_CUSTOMIZER);
+            }
+        };
+    }
+
+    /**
+     * An AOT build evaluates property conditions once, with the build's environment: the
+     * replica pool and the platform or virtual analytics executor (and Tomcat's threads) stay
+     * as built, while DataSourceConfig reads VIRTUAL_THREADS at runtime. Rather than run half
+     * of each, refuse to start when the runtime settings differ from the build's.
+     */
+    @Bean
+    static BeanFactoryPostProcessor aotConditionsCheck(Environment environment) {
+        return beanFactory -> {
+            if (!AotDetector.useGeneratedArtifacts()) {
+                return;
+            }
+            List<String> mismatches = new ArrayList<>();
+
+            boolean replicaBuilt = beanFactory.containsBeanDefinition("replicaDataSource");
+            boolean replicaConfigured = !environment.getProperty("spring.datasource.replica.url", "").isEmpty();
+            if (replicaBuilt != replicaConfigured) {
+                mismatches.add("DB_REPLICA_URL is " + (replicaConfigured ? "set" : "empty")
+                        + " but the build " + (replicaBuilt ? "has" : "has no") + " replica pool");
+            }
+
+            // Only the platform variant of analyticsExecutor is a ThreadPoolTaskExecutor
+            Class<?> analyticsExecutor = beanFactory.getType("analyticsExecutor");
+            boolean virtualBuilt = analyticsExecutor != null
+                    && !ThreadPoolTaskExecutor.class.isAssignableFrom(analyticsExecutor);
+            boolean virtualConfigured = Threading.VIRTUAL.isActive(environment);
+            if (virtualBuilt != virtualConfigured) {
+                mismatches.add("virtual threads are " + (virtualConfigured ? "on" : "off")
+                        + " but the build used " + (virtualBuilt ? "virtual" : "platform") + " threads");
+            }
+
+            if (!mismatches.isEmpty()) {
+                throw new IllegalStateException("AOT build does not match the runtime configuration: "
+                        + String.join("; ", mismatches) + ". Rebuild with the same VIRTUAL_THREADS and "
+                        + "DB_REPLICA_URL build args, or run without -Dspring.aot.enabled=true");
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.petruth.urlshortener.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executors, so long-running background work can't starve click
+ * analytics. Spring Boot exports each pool's executor.* gauges (active, queued,
+ * pool size) tagged with the bean name.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Bulk import jobs - a handful of threads is plenty,
+     * each job is bounded by the DB pool anyway
+     */
+    @Bean(name = "importExecutor")
+    public ThreadPoolTaskExecutor importExecutor(@Value("${import.worker-threads:2}") int workerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("import-");
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(1000);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * QR rendering for ZIP downloads - CPU bound, so one thread per core.
+     * Callers run the task themselves when the queue is full, which throttles
+     * the request instead of failing it.
+     */
+    @Bean(name = "qrExecutor")
+    public ThreadPoolTaskExecutor qrExecutor(
+            @Value("${qr.zip.worker-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int workerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("qr-");
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(workerThreads * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Live SSE updates - one task per link per second; writes to a slow client block
+     * here rather than on the scheduler thread. A full queue drops that second's update.
+     */
+    @Bean(name = "liveExecutor")
+    public ThreadPoolTaskExecutor liveExecutor(@Value("${live.sender-threads:4}") int workerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("live-");
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(1000);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Expired-link reaper - one run at a time and nothing queued behind it;
+     * a trigger that fires while a run is still going is rejected and skipped.
+     */
+    @Bean(name = "reaperExecutor")
+    public ThreadPoolTaskExecutor reaperExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("reaper-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Click analytics - bounded so a traffic spike can't pile up unbounded work.
+     * When the queue is full the click detail is dropped (and counted); the
+     * click counter itself is updated synchronously and stays exact.
+     */
+    @Bean(name = "analyticsExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor analyticsExecutor(@Value("${analytics.worker-threads:2}") int workerThreads,
+                                                    @Value("${analytics.queue-capacity:10000}") int queueCapacity,
+                                                    UrlMetrics urlMetrics) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("analytics-");
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> urlMetrics.analyticsDropped());
+        return executor;
+    }
+
+    /**
+     * NEW: Click analytics with spring.threads.virtual.enabled on a Java 21+ runtime - one virtual
+     * thread per click instead of two workers. The same number of clicks may be in flight as the
+     * platform queue holds, beyond that they are dropped and counted. DB access is bounded by
+     * ConnectionLimitingDataSource, not by this executor.
+     */
+    @Bean(name = "analyticsExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualAnalyticsExecutor(@Value("${analytics.queue-capacity:10000}") int maxInFlight,
+                                                 UrlMetrics urlMetrics) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("analytics-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxInFlight);
+        executor.setRejectTasksWhenLimitReached(true);
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (TaskRejectedException e) {
+                urlMetrics.analyticsDropped();
+            }
+        };
+    }
+}
@@ -1,24 +1,66 @@
 package com.petruth.urlshortener.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petruth.urlshortener.service.TrendingTracker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class CaffeineCacheConfig {
+
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(60);
+
     @Bean
-    public Caffeine caffeineConfig() {
-        return Caffeine.newBuilder().expireAfterWrite(60, TimeUnit.MINUTES);
+    public Caffeine<Object, Object> caffeineConfig(TrendingTracker trendingTracker,
+                                                   @Value("${cache.urls.max-entries:100000}") long maxEntries) {
+        // recordStats feeds the cache.gets/puts/evictions meters Spring Boot binds per cache
+        // NEW: Trending codes weigh 0 and never expire, so size eviction and TTL skip them during a spike
+        return Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((key, value) -> trendingTracker.isPinned(key) ? 0 : 1)
+                .expireAfter(new Expiry<Object, Object>() {
+                    @Override
+                    public long expireAfterCreate(Object key, Object value, long currentTime) {
+                        return trendingTracker.isPinned(key) ? Long.MAX_VALUE : TTL_NANOS;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats();
     }
 
     @Bean
-    public CacheManager cacheManager(Caffeine caffeine) {
+    public CacheManager cacheManager(Caffeine<Object, Object> caffeine, TrendingTracker trendingTracker) {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
         caffeineCacheManager.setCaffeine(caffeine);
+        // Declared up front so the cache exists when metrics are bound at startup
+        caffeineCacheManager.setCacheNames(List.of("urls"));
+
+        // Weight and expiry are computed on write, so codes that (un)pin are rewritten in place
+        trendingTracker.setPinListener(codes -> {
+            org.springframework.cache.Cache urls = caffeineCacheManager.getCache("urls");
+            if (urls != null && urls.getNativeCache() instanceof Cache<?, ?> nativeCache) {
+                @SuppressWarnings("unchecked")
+                Cache<Object, Object> cache = (Cache<Object, Object>) nativeCache;
+                codes.forEach(code -> cache.asMap().computeIfPresent(code, (key, value) -> value));
+            }
+        });
         return caffeineCacheManager;
     }
 }
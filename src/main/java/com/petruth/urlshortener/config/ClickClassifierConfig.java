@@ -0,0 +1,23 @@
+package com.petruth.urlshortener.config;
+
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+
+/**
+ * The classifier is Spring-free shared code (the redirect server uses it too);
+ * here it reads its patterns from analytics.bot-patterns.
+ */
+@Configuration
+public class ClickClassifierConfig {
+
+    @Bean
+    public ClickClassifier clickClassifier(
+            @Value("${analytics.bot-patterns:classpath:bot-user-agents.txt}") Resource patterns) throws IOException {
+        return new ClickClassifier(patterns.getInputStream(), patterns.getDescription());
+    }
+}
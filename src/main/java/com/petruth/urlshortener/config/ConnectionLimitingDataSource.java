@@ -0,0 +1,126 @@
+package com.petruth.urlshortener.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission gate in front of a connection pool, used when requests run on virtual threads.
+ *
+ * <p>With platform threads, Tomcat's 200 workers cap how many callers can wait on the 5-connection
+ * pool. Virtual threads remove that cap, so thousands of requests would queue inside Hikari.
+ * Here they park on a fair semaphore with one permit per pooled connection instead. Waiters are
+ * served in arrival order, each waits at most the pool's connection timeout, and the queue depth
+ * is exported. A permit is held from getConnection() until the connection is closed.
+ */
+class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    ConnectionLimitingDataSource(DataSource target, String name, int permits, long acquireTimeoutMs,
+                                 MeterRegistry meterRegistry) {
+        super(target);
+        this.name = name;
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("quicklink.db.limiter.waiting", this.permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .tag("pool", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("quicklink.db.limiter.wait")
+                .description("Time spent waiting for a connection permit")
+                .tag("pool", name)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("quicklink.db.limiter.timeouts")
+                .description("Connection requests that gave up waiting for a permit")
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        name + " - no connection permit available within " + acquireTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(name + " - interrupted waiting for a connection permit", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,94 @@
+package com.petruth.urlshortener.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary / replica split.
+ *
+ * <p>The application DataSource is a {@link LazyConnectionDataSourceProxy} over the primary
+ * pool: a physical connection is only taken on the first statement, by which time the
+ * transaction manager has marked it read-only or not. Read-only transactions
+ * ({@code @Transactional(readOnly = true)}, Spring Data finders) then draw from the replica
+ * pool via {@link ReplicaRoutingDataSource}; everything else stays on the primary.
+ *
+ * <p>Without {@code spring.datasource.replica.url} there is no replica pool and all reads
+ * use the primary, as before.
+ *
+ * <p>NEW: With virtual threads enabled, both pools sit behind a {@link ConnectionLimitingDataSource}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${spring.datasource.replica.url:}' != ''")
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${spring.datasource.replica.url}") String url,
+                                              @Value("${spring.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${spring.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> lagMonitor,
+                                 ReadYourWritesTracker writesTracker,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        boolean limit = Threading.VIRTUAL.isActive(environment);
+        DataSource primaryTarget = limit ? limited(primary, meterRegistry) : primary;
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryTarget);
+        HikariDataSource replicaPool = replica.getIfAvailable();
+        if (replicaPool != null) {
+            DataSource replicaTarget = limit ? limited(replicaPool, meterRegistry) : replicaPool;
+            proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(
+                    primaryTarget, replicaTarget, writesTracker, lagMonitor.getObject(), meterRegistry));
+        }
+        return proxy;
+    }
+
+    private static DataSource limited(HikariDataSource pool, MeterRegistry meterRegistry) {
+        return new ConnectionLimitingDataSource(pool, pool.getPoolName(), pool.getMaximumPoolSize(),
+                pool.getConnectionTimeout(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${spring.datasource.replica.url:}' != ''")
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") HikariDataSource replica,
+                                        @Value("${replica.max-lag-ms:2000}") long maxLagMs,
+                                        @Value("${replica.lag-check-interval-ms:1000}") long checkIntervalMs,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, maxLagMs, checkIntervalMs, meterRegistry);
+    }
+}
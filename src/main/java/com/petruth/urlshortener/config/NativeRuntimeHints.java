@@ -0,0 +1,99 @@
+package com.petruth.urlshortener.config;
+
+import com.petruth.urlshortener.dto.BulkUrlRequest;
+import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.ClickExportRow;
+import com.petruth.urlshortener.dto.ClickRecorded;
+import com.petruth.urlshortener.dto.GeoLocation;
+import com.petruth.urlshortener.dto.ImportJobResult;
+import com.petruth.urlshortener.dto.ImportJobStatus;
+import com.petruth.urlshortener.dto.LinkExportRow;
+import com.petruth.urlshortener.dto.LinkSearchRequest;
+import com.petruth.urlshortener.dto.QRCodeZipRequest;
+import com.petruth.urlshortener.dto.TrendingLink;
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.dto.UserAgentInfo;
+import com.petruth.urlshortener.entity.ClickAnalytics;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.entity.UserOAuthProvider;
+import com.stripe.model.Event;
+import com.stripe.model.Subscription;
+import com.stripe.model.checkout.Session;
+import com.stripe.param.checkout.SessionCreateParams;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reflection and resource hints a native image can't derive from the bean definitions.
+ *
+ * <p>Hibernate entities and repositories are covered by Spring's AOT processing, Caffeine by
+ * the GraalVM reachability metadata the native profile pulls in. ZXing itself needs nothing;
+ * its PNG writer goes through AWT/ImageIO, which GraalVM supports headless on Linux.
+ */
+class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String STRIPE_PACKAGE = "com.stripe.";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Thymeleaf resolves views by name, so nothing points at the files themselves
+        hints.resources().registerPattern("templates/**");
+        // Loaded through a Resource property by ClickClassifierConfig
+        hints.resources().registerPattern("bot-user-agents.txt");
+
+        // Request/response bodies hidden behind ResponseEntity<?> and Map, plus everything
+        // Thymeleaf expressions read through getters
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                BulkUrlRequest.class, BulkUrlResponse.class, BulkUrlResponse.UrlResult.class,
+                ClickExportRow.class, ClickRecorded.class, GeoLocation.class, ImportJobResult.class,
+                ImportJobStatus.class, LinkExportRow.class, LinkSearchRequest.class, QRCodeZipRequest.class,
+                TrendingLink.class, UrlRequest.class, UserAgentInfo.class,
+                ShortenedUrl.class, ClickAnalytics.class, User.class, UserOAuthProvider.class, ImportJob.class);
+
+        // Stripe maps JSON to fields with Gson, both ways
+        Set<Class<?>> seen = new HashSet<>();
+        for (Class<?> type : new Class<?>[]{Event.class, Session.class, Subscription.class, SessionCreateParams.class}) {
+            registerStripeType(hints.reflection(), type, seen);
+        }
+    }
+
+    private static void registerStripeType(ReflectionHints reflection, Class<?> type, Set<Class<?>> seen) {
+        if (!type.getName().startsWith(STRIPE_PACKAGE) || !seen.add(type)) {
+            return;
+        }
+        reflection.registerType(type, MemberCategory.ACCESS_DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        for (Field field : type.getDeclaredFields()) {
+            registerStripeTypes(reflection, field.getGenericType(), seen);
+        }
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            registerStripeType(reflection, nested, seen);
+        }
+        if (type.getSuperclass() != null) {
+            registerStripeType(reflection, type.getSuperclass(), seen);
+        }
+    }
+
+    private static void registerStripeTypes(ReflectionHints reflection, Type type, Set<Class<?>> seen) {
+        if (type instanceof Class<?> cls) {
+            registerStripeType(reflection, cls.isArray() ? cls.getComponentType() : cls, seen);
+        } else if (type instanceof ParameterizedType parameterized) {
+            registerStripeTypes(reflection, parameterized.getRawType(), seen);
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                registerStripeTypes(reflection, argument, seen);
+            }
+        }
+    }
+}
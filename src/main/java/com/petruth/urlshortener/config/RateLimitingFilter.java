@@ -19,6 +19,11 @@ import java.util.concurrent.ConcurrentHashMap;
 public class RateLimitingFilter implements Filter {
 
     private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private final UrlMetrics urlMetrics;
+
+    public RateLimitingFilter(UrlMetrics urlMetrics) {
+        this.urlMetrics = urlMetrics;
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -28,15 +33,21 @@ public class RateLimitingFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         // Only rate limit the shorten endpoint
-        if (httpRequest.getRequestURI().equals("/api/shorten") &&
+        // NEW: and batch resolve, which looks up to resolve.max-codes per call, in its own buckets
+        String uri = httpRequest.getRequestURI();
+        if ((uri.equals("/api/shorten") || uri.equals("/api/resolve")) &&
                 httpRequest.getMethod().equals("POST")) {
 
             String key = getClientKey(httpRequest);
+            if (uri.equals("/api/resolve")) {
+                key = "resolve:" + key;
+            }
             Bucket bucket = resolveBucket(key);
 
             if (bucket.tryConsume(1)) {
                 chain.doFilter(request, response);
             } else {
+                urlMetrics.rateLimited();
                 httpResponse.setStatus(429);
                 httpResponse.setContentType("application/json");
                 httpResponse.getWriter().write("{\"error\":\"Too many requests. Please try again in a minute.\"}");
@@ -54,9 +65,12 @@ public class RateLimitingFilter implements Filter {
         // Premium users get 500 requests per minute
         // Authenticated users get 50 requests per minute
         // Anonymous users get 10 requests per minute
+        // Batch resolves get 60 per minute per client
         int capacity;
 
-        if (key.startsWith("premium:")) {
+        if (key.startsWith("resolve:")) {
+            capacity = 60;
+        } else if (key.startsWith("premium:")) {
             capacity = 500;
         } else if (key.startsWith("auth:")) {
             capacity = 50;
@@ -85,16 +99,9 @@ public class RateLimitingFilter implements Filter {
             return "auth:" + auth.getName();
         }
 
-        // Otherwise use IP address
-        String ip = getClientIP(request);
-        return "ip:" + ip;
-    }
-
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null || xfHeader.isEmpty()) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0].trim();
+        // Otherwise use IP address. Not the first X-Forwarded-For entry, which any caller can set:
+        // Tomcat's RemoteIpValve (server.forward-headers-strategy=native) already resolved the
+        // remote address to the last hop before our trusted proxies.
+        return "ip:" + request.getRemoteAddr();
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.petruth.urlshortener.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread inputs to replica routing: who the current request belongs to
+ * (for read-your-writes) and whether reads are pinned to the primary.
+ *
+ * <p>Both are only consulted when a read-only transaction actually needs a
+ * connection, see {@link ReplicaRoutingDataSource}.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<String> SUBJECT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Runs {@code read} against the primary even inside a read-only transaction, for reads
+     * that must see rows committed a moment ago by anyone (redirects, code collision checks).
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(PRIMARY.get())) {
+            return read.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    static void bindSubject(String subject) {
+        SUBJECT.set(subject);
+    }
+
+    static String currentSubject() {
+        return SUBJECT.get();
+    }
+
+    static void clear() {
+        SUBJECT.remove();
+        PRIMARY.remove();
+    }
+}
@@ -0,0 +1,40 @@
+package com.petruth.urlshortener.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Binds the request's user to the thread for read-your-writes routing. Runs after the
+ * security filter chain (default order), so the principal is already resolved.
+ */
+@Component
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadRouting.bindSubject(subject(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    private static String subject(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        HttpSession session = request.getSession(false);
+        return session != null ? "session:" + session.getId() : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.petruth.urlshortener.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users committed a write in the last {@code replica.max-lag-ms}, so their
+ * own reads go to the primary until the replica has caught up - a link shows up on the
+ * dashboard right after it was created.
+ *
+ * <p>Registered on the transaction manager by Spring Boot; the user comes from the request
+ * thread ({@link ReadRoutingFilter}), so background writers never pin anyone.
+ */
+@Component
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(@Value("${replica.max-lag-ms:2000}") long maxLagMs,
+                                 @Value("${replica.tracked-writers:100000}") long maxWriters) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxWriters)
+                .expireAfterWrite(Duration.ofMillis(maxLagMs))
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            String subject = ReadRouting.currentSubject();
+            if (subject != null) {
+                recentWriters.put(subject, Boolean.TRUE);
+            }
+        }
+    }
+
+    public boolean wroteRecently(String subject) {
+        return subject != null && recentWriters.getIfPresent(subject) != null;
+    }
+}
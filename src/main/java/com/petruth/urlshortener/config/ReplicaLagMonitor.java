@@ -0,0 +1,69 @@
+package com.petruth.urlshortener.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replay lag; while it exceeds {@code replica.max-lag-ms} (or can't be
+ * measured) every read goes to the primary. A caught-up replica reports zero even when the
+ * primary has been idle for a while. A measurement older than three check intervals (checks
+ * stuck behind other scheduled work, or hanging on the replica) counts as out of bounds too.
+ */
+class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long maxAgeNanos;
+
+    private volatile long lagMs;
+    private volatile boolean withinBound;
+    private volatile long checkedAtNanos;
+
+    ReplicaLagMonitor(DataSource replica, long maxLagMs, long checkIntervalMs, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(2);
+        this.maxLagMs = maxLagMs;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(3 * checkIntervalMs);
+        Gauge.builder("quicklink.db.replica.lag", this, monitor -> monitor.lagMs / 1000.0)
+                .description("Replica replay lag; -1 when it could not be measured")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    boolean isWithinBound() {
+        return withinBound && System.nanoTime() - checkedAtNanos <= maxAgeNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval-ms:1000}")
+    void check() {
+        boolean wasWithinBound = withinBound;
+        try {
+            Number lag = replica.queryForObject(LAG_QUERY, Number.class);
+            lagMs = lag != null ? lag.longValue() : 0;
+            withinBound = lagMs <= maxLagMs;
+            checkedAtNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            lagMs = -1;
+            withinBound = false;
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+        if (wasWithinBound != withinBound) {
+            log.warn(withinBound ? "Replica caught up, routing read-only transactions to it again"
+                    : "Replica lag over {} ms or unreachable, routing all reads to the primary", maxLagMs);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.petruth.urlshortener.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Target for read-only connections: the replica, unless this read has to see the primary's
+ * latest state - the thread is pinned, the current user wrote within the lag bound, or the
+ * replica is currently lagging further than that.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ReadYourWritesTracker writesTracker;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                             ReadYourWritesTracker writesTracker, ReplicaLagMonitor lagMonitor,
+                             MeterRegistry meterRegistry) {
+        this.writesTracker = writesTracker;
+        this.lagMonitor = lagMonitor;
+        this.primaryReads = reads(meterRegistry, "primary");
+        this.replicaReads = reads(meterRegistry, "replica");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadRouting.isPinnedToPrimary()
+                || !lagMonitor.isWithinBound()
+                || writesTracker.wroteRecently(ReadRouting.currentSubject())) {
+            primaryReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter reads(MeterRegistry registry, String target) {
+        return Counter.builder("quicklink.db.readonly.connections")
+                .description("Read-only transaction connections by routing target")
+                .tag("target", target)
+                .register(registry);
+    }
+}
@@ -0,0 +1,138 @@
+package com.petruth.urlshortener.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces the old LoggingAspect: one structured line per sampled request,
+ * written through the async "request-trace" appender (see logback-spring.xml).
+ *
+ * <p>Correlation IDs come from ThreadLocalRandom instead of UUID.randomUUID(),
+ * which goes through SecureRandom. Sampling is per route class, so redirects
+ * can be traced at a low rate while mutations are always logged. Errors and
+ * slow requests are logged regardless of sampling.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTracingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("request-trace");
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    enum Route { REDIRECT, READ, MUTATION, STATIC }
+
+    private final double redirectRate;
+    private final double readRate;
+    private final double mutationRate;
+    private final long slowThresholdNanos;
+
+    public RequestTracingFilter(@Value("${tracing.sample-rate.redirect:0.01}") double redirectRate,
+                                @Value("${tracing.sample-rate.read:1.0}") double readRate,
+                                @Value("${tracing.sample-rate.mutation:1.0}") double mutationRate,
+                                @Value("${tracing.slow-threshold-ms:1000}") long slowThresholdMs) {
+        this.redirectRate = redirectRate;
+        this.readRate = readRate;
+        this.mutationRate = mutationRate;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String requestId = requestId(request);
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        Route route = classify(request);
+        boolean sampled = sample(route);
+        long start = System.nanoTime();
+
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            long micros = (System.nanoTime() - start) / 1_000;
+            log.error("method={} path={} route={} status=500 duration_us={} request_id={} error=\"{}\"",
+                    request.getMethod(), request.getRequestURI(), route, micros, requestId, e.getMessage(), e);
+            throw e;
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+        boolean slow = elapsed >= slowThresholdNanos;
+
+        if (sampled || slow || status >= 500) {
+            log.info("method={} path={} route={} status={} duration_us={} slow={} request_id={}",
+                    request.getMethod(), request.getRequestURI(), route, status, elapsed / 1_000, slow, requestId);
+        }
+    }
+
+    // Async dispatches (StreamingResponseBody) keep the original trace
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    static Route classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String uri = request.getRequestURI();
+
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return Route.MUTATION;
+        }
+        if (uri.startsWith("/css/") || uri.startsWith("/js/") || uri.equals("/favicon.ico")) {
+            return Route.STATIC;
+        }
+        // /api/{code} - single path segment after /api/
+        if (uri.startsWith("/api/") && uri.indexOf('/', 5) < 0) {
+            return Route.REDIRECT;
+        }
+        return Route.READ;
+    }
+
+    private boolean sample(Route route) {
+        double rate = switch (route) {
+            case REDIRECT -> redirectRate;
+            case READ -> readRate;
+            case MUTATION -> mutationRate;
+            case STATIC -> 0.0;
+        };
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    // Trust a well-formed upstream ID (proxy / load balancer), otherwise mint a cheap 64-bit one
+    private static String requestId(HttpServletRequest request) {
+        String incoming = request.getHeader(REQUEST_ID_HEADER);
+        if (incoming != null && !incoming.isEmpty() && incoming.length() <= 64 && isSafe(incoming)) {
+            return incoming;
+        }
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static boolean isSafe(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,17 +4,90 @@ import com.petruth.urlshortener.service.CustomOAuth2UserService;
 import com.petruth.urlshortener.service.CustomOidcUserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.core.annotation.Order;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Only pages need a CSP; redirects and QR images go through the fast lane without one
+    private static final String CONTENT_SECURITY_POLICY =
+            "default-src 'self'; " +
+
+                    // script-src – fallback for browsers that ignore the -elem/-attr variants
+                    "script-src 'self' 'unsafe-inline' " +
+                    "https://pagead2.googlesyndication.com " +
+                    "https://tpc.googlesyndication.com " +
+                    "https://www.googletagservices.com " +
+                    "https://www.google.com " +
+                    "https://cdn.jsdelivr.net " +
+                    "https://cdnjs.cloudflare.com; " +
+
+                    // script-src-elem – controls <script> elements specifically.
+                    // When present it COMPLETELY overrides script-src for <script> tags,
+                    // so every origin must be listed again.
+                    // 'unsafe-inline' is mandatory here: AdSense requires the inline
+                    //   <script>(adsbygoogle = window.adsbygoogle || []).push({});</script>
+                    // without it the ad never initialises and Chrome logs the exact
+                    // "Executing inline script violates …" error you saw.
+                    "script-src-elem 'self' 'unsafe-inline' " +
+                    "https://pagead2.googlesyndication.com " +
+                    "https://tpc.googlesyndication.com " +
+                    "https://www.googletagservices.com " +
+                    "https://www.google.com " +
+                    "https://cdn.jsdelivr.net " +
+                    "https://cdnjs.cloudflare.com " +
+                    "https://ep1.adtrafficquality.google " +
+                    "https://ep2.adtrafficquality.google; " +
+
+                    // script-src-attr – on* event-handler attributes
+                    "script-src-attr 'self' 'unsafe-inline'; " +
+
+                    // img-src – allow profile avatars from OAuth providers, inline data URIs,
+                    // and Google's Ad Traffic Quality sodar pixel (same ep1/ep2 subdomains
+                    // already whitelisted in frame-src and script-src-elem).
+                    "img-src 'self' https://lh3.googleusercontent.com https://avatars.githubusercontent.com " +
+                    "https://ep1.adtrafficquality.google https://ep2.adtrafficquality.google data:; " +
+                    "style-src 'self' 'unsafe-inline' https://cdn.jsdelivr.net; " +
+                    "font-src 'self' https://cdn.jsdelivr.net; " +
+                    "connect-src 'self' https://cdn.jsdelivr.net https://cdnjs.cloudflare.com " +
+                    "https://ep1.adtrafficquality.google https://ep2.adtrafficquality.google; " +
+
+                    // frame-src – iframes.
+                    // pagead2           – the actual ad creative rendered by Google.
+                    // ep1 / ep2         – Google's Ad Traffic Quality check runs in
+                    //                     a separate iframe from these subdomains.
+                    //                     Omitting them produces the
+                    //                     "Framing … violates … frame-src" error.
+                    "frame-src https://pagead2.googlesyndication.com " +
+                    "https://ep1.adtrafficquality.google " +
+                    "https://ep2.adtrafficquality.google";
+
+    /**
+     * GET/HEAD of a short link or its QR code, and the batch resolve. DELETE /api/{code} and
+     * everything else stays on the main chain. Note that any other single-segment GET under
+     * /api would land here too.
+     */
+    public static final RequestMatcher REDIRECT_ROUTES = new OrRequestMatcher(
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, "/api/{code}"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.HEAD, "/api/{code}"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, "/api/{code}/qrcode"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.HEAD, "/api/{code}/qrcode"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/resolve")
+    );
+
     private final CustomOidcUserService customOidcUserService;
     private final CustomOAuth2UserService customOAuth2UserService;
 
@@ -37,9 +110,19 @@ public class SecurityConfig {
         return http.build();
     }
 
-
+    /**
+     * NEW: Fast lane for redirects, QR codes and batch resolves. All are public, so there is
+     * nothing to authenticate: no session lookup or creation, no security context persistence,
+     * no CSRF token, request cache or logout handling, and only nosniff instead of the page headers.
+     */
     @Bean
     @Order(2)
+    SecurityFilterChain redirectSecurity(HttpSecurity http) throws Exception {
+        return redirectFastLane(http).build();
+    }
+
+    @Bean
+    @Order(3)
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .authorizeHttpRequests(auth -> {
@@ -105,65 +188,37 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/api/**", "/payment/**")
                 )
-                .headers(headers -> headers
-                        .frameOptions(HeadersConfigurer.FrameOptionsConfig::deny)
-                        .xssProtection(xss -> xss
-                                .headerValue(XXssProtectionHeaderWriter.HeaderValue.ENABLED_MODE_BLOCK)
-                        )
-                        .contentSecurityPolicy(csp -> csp.policyDirectives(
-                                "default-src 'self'; " +
-
-                                        // script-src – fallback for browsers that ignore the -elem/-attr variants
-                                        "script-src 'self' 'unsafe-inline' " +
-                                        "https://pagead2.googlesyndication.com " +
-                                        "https://tpc.googlesyndication.com " +
-                                        "https://www.googletagservices.com " +
-                                        "https://www.google.com " +
-                                        "https://cdn.jsdelivr.net " +
-                                        "https://cdnjs.cloudflare.com; " +
-
-                                        // script-src-elem – controls <script> elements specifically.
-                                        // When present it COMPLETELY overrides script-src for <script> tags,
-                                        // so every origin must be listed again.
-                                        // 'unsafe-inline' is mandatory here: AdSense requires the inline
-                                        //   <script>(adsbygoogle = window.adsbygoogle || []).push({});</script>
-                                        // without it the ad never initialises and Chrome logs the exact
-                                        // "Executing inline script violates …" error you saw.
-                                        "script-src-elem 'self' 'unsafe-inline' " +
-                                        "https://pagead2.googlesyndication.com " +
-                                        "https://tpc.googlesyndication.com " +
-                                        "https://www.googletagservices.com " +
-                                        "https://www.google.com " +
-                                        "https://cdn.jsdelivr.net " +
-                                        "https://cdnjs.cloudflare.com " +
-                                        "https://ep1.adtrafficquality.google " +
-                                        "https://ep2.adtrafficquality.google; " +
-
-                                        // script-src-attr – on* event-handler attributes
-                                        "script-src-attr 'self' 'unsafe-inline'; " +
-
-                                        // img-src – allow profile avatars from OAuth providers, inline data URIs,
-                                        // and Google's Ad Traffic Quality sodar pixel (same ep1/ep2 subdomains
-                                        // already whitelisted in frame-src and script-src-elem).
-                                        "img-src 'self' https://lh3.googleusercontent.com https://avatars.githubusercontent.com " +
-                                        "https://ep1.adtrafficquality.google https://ep2.adtrafficquality.google data:; " +
-                                        "style-src 'self' 'unsafe-inline' https://cdn.jsdelivr.net; " +
-                                        "font-src 'self' https://cdn.jsdelivr.net; " +
-                                        "connect-src 'self' https://cdn.jsdelivr.net https://cdnjs.cloudflare.com " +
-                                        "https://ep1.adtrafficquality.google https://ep2.adtrafficquality.google; " +
-
-                                        // frame-src – iframes.
-                                        // pagead2           – the actual ad creative rendered by Google.
-                                        // ep1 / ep2         – Google's Ad Traffic Quality check runs in
-                                        //                     a separate iframe from these subdomains.
-                                        //                     Omitting them produces the
-                                        //                     "Framing … violates … frame-src" error.
-                                        "frame-src https://pagead2.googlesyndication.com " +
-                                        "https://ep1.adtrafficquality.google " +
-                                        "https://ep2.adtrafficquality.google"
-                        ))
-                )
+                .headers(SecurityConfig::pageHeaders)
 
                 .build();
     }
+
+    /**
+     * Shared with the JMH benchmark, which builds both chains without the OAuth2 services.
+     */
+    public static HttpSecurity redirectFastLane(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher(REDIRECT_ROUTES)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .requestCache(AbstractHttpConfigurer::disable)
+                .csrf(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .headers(headers -> headers
+                        .defaultsDisabled()
+                        .contentTypeOptions(Customizer.withDefaults())
+                );
+    }
+
+    public static void pageHeaders(HeadersConfigurer<HttpSecurity> headers) {
+        headers
+                .frameOptions(HeadersConfigurer.FrameOptionsConfig::deny)
+                .xssProtection(xss -> xss
+                        .headerValue(XXssProtectionHeaderWriter.HeaderValue.ENABLED_MODE_BLOCK)
+                )
+                .contentSecurityPolicy(csp -> csp.policyDirectives(CONTENT_SECURITY_POLICY));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.petruth.urlshortener.config;
+
+import com.petruth.urlshortener.dto.TrendingLink;
+import com.petruth.urlshortener.service.TrendingTracker;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admin view of what's hot right now: /actuator/trending[?window=1m|5m|60m&limit=N]
+ * Served on the management port only, like the other actuator endpoints.
+ */
+@Component
+@Endpoint(id = "trending")
+public class TrendingEndpoint {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final TrendingTracker trendingTracker;
+
+    public TrendingEndpoint(TrendingTracker trendingTracker) {
+        this.trendingTracker = trendingTracker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> trending(@Nullable String window, @Nullable Integer limit) {
+        int top = limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : 20;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (window == null) {
+            result.put("1m", trendingTracker.top(TrendingTracker.Window.ONE_MINUTE, top));
+            result.put("5m", trendingTracker.top(TrendingTracker.Window.FIVE_MINUTES, top));
+            result.put("60m", trendingTracker.top(TrendingTracker.Window.ONE_HOUR, top));
+        } else {
+            TrendingTracker.Window resolved = switch (window.toLowerCase(Locale.ROOT)) {
+                case "1m" -> TrendingTracker.Window.ONE_MINUTE;
+                case "5m" -> TrendingTracker.Window.FIVE_MINUTES;
+                case "60m", "1h" -> TrendingTracker.Window.ONE_HOUR;
+                default -> throw new IllegalArgumentException("window must be one of 1m, 5m, 60m");
+            };
+            List<TrendingLink> links = trendingTracker.top(resolved, top);
+            result.put(window, links);
+        }
+        result.put("pinned", trendingTracker.getPinned());
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.petruth.urlshortener.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Application meters, exported on /actuator/prometheus (management port).
+ *
+ * <p>Hikari pool, executor queue and Spring cache gauges are bound by Spring Boot;
+ * this class only holds what Boot can't know about: per-endpoint timers and
+ * outcome counters.
+ */
+@Component
+public class UrlMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer redirectTimer;
+    private final Timer shortenTimer;
+    private final Timer analyticsTimer;
+    private final Timer clickIncrementTimer;
+
+    private final Counter redirectNotFound;
+    private final Counter redirectGone;
+    private final Counter rateLimited;
+    private final Counter analyticsDropped;
+
+    public UrlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        this.redirectTimer = timer("quicklink.redirect", "GET /api/{code} handler time");
+        this.shortenTimer = timer("quicklink.shorten", "POST /api/shorten handler time");
+        this.analyticsTimer = timer("quicklink.analytics", "GET /api/analytics/{code} handler time");
+        this.clickIncrementTimer = timer("quicklink.click.increment", "Click counter UPDATE on the redirect path");
+
+        this.redirectNotFound = outcome("not_found");
+        this.redirectGone = outcome("gone");
+        this.rateLimited = Counter.builder("quicklink.ratelimit.rejected")
+                .description("Requests answered with 429")
+                .register(registry);
+        this.analyticsDropped = Counter.builder("quicklink.analytics.dropped")
+                .description("Click events dropped because the analytics queue was full")
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stopRedirect(Timer.Sample sample) { sample.stop(redirectTimer); }
+    public void stopShorten(Timer.Sample sample) { sample.stop(shortenTimer); }
+    public void stopAnalytics(Timer.Sample sample) { sample.stop(analyticsTimer); }
+
+    public void recordClickIncrement(Runnable increment) {
+        clickIncrementTimer.record(increment);
+    }
+
+    public void redirectNotFound() { redirectNotFound.increment(); }
+    public void redirectGone() { redirectGone.increment(); }
+    public void rateLimited() { rateLimited.increment(); }
+    public void analyticsDropped() { analyticsDropped.increment(); }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder("quicklink.redirect.outcome")
+                .description("Redirect requests that did not redirect")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
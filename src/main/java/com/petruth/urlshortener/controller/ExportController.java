@@ -0,0 +1,97 @@
+package com.petruth.urlshortener.controller;
+
+import com.petruth.urlshortener.dto.ExportFormat;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.service.ExportService;
+import com.petruth.urlshortener.service.ShortenedUrlServiceImpl;
+import com.petruth.urlshortener.service.UserServiceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * CSV / NDJSON exports, written directly to the response as rows are read
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ShortenedUrlServiceImpl shortenedUrlService;
+    private final UserServiceImpl userService;
+
+    ExportController(ExportService exportService,
+                     ShortenedUrlServiceImpl shortenedUrlService,
+                     UserServiceImpl userService) {
+        this.exportService = exportService;
+        this.shortenedUrlService = shortenedUrlService;
+        this.userService = userService;
+    }
+
+    @GetMapping("/links")
+    public ResponseEntity<StreamingResponseBody> exportLinks(
+            @RequestParam(required = false) String format,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> exportService.exportLinks(user, exportFormat, out);
+        return attachment("links." + exportFormat.getExtension(), exportFormat, body);
+    }
+
+    @GetMapping("/clicks/{code}")
+    public ResponseEntity<StreamingResponseBody> exportClicks(
+            @PathVariable String code,
+            @RequestParam(required = false) String format,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ShortenedUrl url;
+        try {
+            url = shortenedUrlService.findByCode(code);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Verify user owns this URL
+        if (url.getUser() == null || !url.getUser().getId().equals(user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        StreamingResponseBody body = out -> exportService.exportClicks(url, exportFormat, out);
+        return attachment("clicks-" + code + "." + exportFormat.getExtension(), exportFormat, body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String filename, ExportFormat format,
+                                                             StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header("Content-Type", format.getContentType() + "; charset=UTF-8")
+                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+                .header("Cache-Control", "no-store")
+                .body(body);
+    }
+}
@@ -0,0 +1,140 @@
+package com.petruth.urlshortener.controller;
+
+import com.petruth.urlshortener.dto.ImportJobStatus;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.service.ImportJobService;
+import com.petruth.urlshortener.service.UserServiceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Background bulk imports for migrations that are too large for /api/bulk-shorten.
+ * Upload a CSV or NDJSON file, poll the status, then download the results.
+ */
+@RestController
+@RequestMapping("/api/import-jobs")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+    private final UserServiceImpl userService;
+
+    ImportJobController(ImportJobService importJobService, UserServiceImpl userService) {
+        this.importJobService = importJobService;
+        this.userService = userService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) throws IOException {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+
+        if (!user.isPremium()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Bulk import is only available for premium users"));
+        }
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Uploaded file is empty"));
+        }
+
+        ImportJob.Format importFormat = resolveFormat(format, file);
+        if (importFormat == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unsupported format. Upload a .csv or .ndjson file"));
+        }
+
+        // One job at a time per user keeps a single migration from hogging the workers
+        if (importJobService.hasActiveJob(user)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "You already have an import in progress"));
+        }
+
+        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
+        ImportJob job = importJobService.createJob(user, file, importFormat, baseUrl);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/import-jobs/" + job.getId()))
+                .body(ImportJobStatus.from(job));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStatus(
+            @PathVariable Long id,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return importJobService.findForUser(id, user)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(ImportJobStatus.from(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * NDJSON, one line per input row. Available while the job runs (committed chunks only).
+     */
+    @GetMapping(value = "/{id}/results", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getResults(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean failedOnly,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ImportJob job = importJobService.findForUser(id, user).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = out -> importJobService.writeResults(job, failedOnly, out);
+
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/x-ndjson")
+                .header("Content-Disposition", "attachment; filename=\"import-" + id + "-results.ndjson\"")
+                .body(body);
+    }
+
+    private ImportJob.Format resolveFormat(String format, MultipartFile file) {
+        String hint = format;
+        if (hint == null || hint.isBlank()) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+            hint = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1) : "";
+        }
+
+        return switch (hint.toLowerCase(Locale.ROOT)) {
+            case "csv" -> ImportJob.Format.CSV;
+            case "ndjson", "jsonl" -> ImportJob.Format.NDJSON;
+            default -> null;
+        };
+    }
+}
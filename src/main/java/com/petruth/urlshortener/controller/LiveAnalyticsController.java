@@ -0,0 +1,76 @@
+package com.petruth.urlshortener.controller;
+
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.service.LiveClickService;
+import com.petruth.urlshortener.service.ShortenedUrlServiceImpl;
+import com.petruth.urlshortener.service.UserServiceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Live click stream for a link over Server-Sent Events; ownership is checked once per connection
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class LiveAnalyticsController {
+
+    private final LiveClickService liveClickService;
+    private final ShortenedUrlServiceImpl shortenedUrlService;
+    private final UserServiceImpl userService;
+
+    LiveAnalyticsController(LiveClickService liveClickService,
+                            ShortenedUrlServiceImpl shortenedUrlService,
+                            UserServiceImpl userService) {
+        this.liveClickService = liveClickService;
+        this.shortenedUrlService = shortenedUrlService;
+        this.userService = userService;
+    }
+
+    @GetMapping(value = "/{code}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> live(
+            @PathVariable String code,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) throws IOException {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ShortenedUrl url;
+        try {
+            url = shortenedUrlService.findByCode(code);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Verify user owns this URL
+        if (url.getUser() == null || !url.getUser().getId().equals(user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Optional<SseEmitter> emitter = liveClickService.subscribe(url.getCode());
+        if (emitter.isEmpty()) {
+            // live.max-subscribers reached
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-store")
+                // Keeps nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter.get());
+    }
+}
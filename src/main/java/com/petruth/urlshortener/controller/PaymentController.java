@@ -2,13 +2,16 @@ package com.petruth.urlshortener.controller;
 
 import com.petruth.urlshortener.entity.User;
 import com.petruth.urlshortener.service.PaymentService;
+import com.petruth.urlshortener.service.StripeEventProcessor;
 import com.petruth.urlshortener.service.UserService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Event;
-import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -21,15 +24,20 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/payment")
 public class PaymentController {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+
     private final PaymentService paymentService;
     private final UserService userService;
+    private final StripeEventProcessor stripeEventProcessor;
 
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    public PaymentController(PaymentService paymentService, UserService userService) {
+    public PaymentController(PaymentService paymentService, UserService userService,
+                             StripeEventProcessor stripeEventProcessor) {
         this.paymentService = paymentService;
         this.userService = userService;
+        this.stripeEventProcessor = stripeEventProcessor;
     }
 
     @PostMapping("/create-checkout-session")
@@ -67,6 +75,10 @@ public class PaymentController {
         return "redirect:/dashboard?payment-cancelled=true";
     }
 
+    /**
+     * CHANGED: Only verifies and records the event; StripeEventProcessor applies it in the background.
+     * Redeliveries of a recorded event id are acknowledged without doing anything.
+     */
     @PostMapping("/webhook")
     @ResponseBody
     public ResponseEntity<String> handleWebhook(
@@ -81,62 +93,14 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid signature");
         }
 
-        // Handle the event
-        switch (event.getType()) {
-            case "checkout.session.completed":
-                Session session = (Session) event.getDataObjectDeserializer()
-                        .getObject()
-                        .orElse(null);
-
-                if (session != null) {
-                    handleSuccessfulPayment(session);
-                }
-                break;
-
-            case "customer.subscription.deleted":
-                // Handle subscription cancellation
-                Session cancelSession = (Session) event.getDataObjectDeserializer()
-                        .getObject()
-                        .orElse(null);
-
-                if (cancelSession != null) {
-                    handleSubscriptionCancelled(cancelSession);
-                }
-                break;
-
-            default:
-                System.out.println("Unhandled event type: " + event.getType());
+        try {
+            stripeEventProcessor.enqueue(event, payload);
+        } catch (DataAccessException e) {
+            // Non-2xx makes Stripe redeliver later
+            log.warn("Could not record Stripe event {}: {}", event.getId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Try again later");
         }
 
         return ResponseEntity.ok("Success");
     }
-
-    private void handleSuccessfulPayment(Session session) {
-        String userId = session.getMetadata().get("userId");
-        if (userId == null) {
-            System.out.println("No userId in session metadata");
-            return;
-        }
-
-        userService.findById(Long.parseLong(userId)).ifPresent(user -> {
-            user.setPremium(true);
-            userService.save(user);
-            System.out.println("User " + user.getEmail() + " upgraded to premium");
-        });
-    }
-
-
-    private void handleSubscriptionCancelled(Session session) {
-        String userId = session.getClientReferenceId();
-        if (userId != null) {
-            User user = userService.findById(Long.parseLong(userId))
-                    .orElse(null);
-
-            if (user != null) {
-                user.setPremium(false);
-                userService.save(user);
-                System.out.println("User " + user.getEmail() + " downgraded from premium");
-            }
-        }
-    }
-}
\ No newline at end of file
+}
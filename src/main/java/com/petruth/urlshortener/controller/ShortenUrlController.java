@@ -1,14 +1,26 @@
 package com.petruth.urlshortener.controller;
 
+import com.petruth.urlshortener.config.UrlMetrics;
 import com.petruth.urlshortener.dto.BulkUrlRequest;
 import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.ClickEvent;
+import com.petruth.urlshortener.dto.QRCodeFormat;
+import com.petruth.urlshortener.dto.QRCodeZipRequest;
+import com.petruth.urlshortener.dto.ResolveRequest;
 import com.petruth.urlshortener.dto.UrlRequest;
 import com.petruth.urlshortener.entity.ShortenedUrl;
 import com.petruth.urlshortener.entity.User;
-import com.petruth.urlshortener.entity.UserOAuthProvider;
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import com.petruth.urlshortener.redirect.RedirectPolicy;
 import com.petruth.urlshortener.service.*;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,62 +28,172 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Validated
 @RestController
 @RequestMapping("/api")
 public class ShortenUrlController {
 
+    private static final Logger log = LoggerFactory.getLogger(ShortenUrlController.class);
+
     private final ShortenedUrlServiceImpl shortenedUrlService;
     private final UserServiceImpl userService;
     private final UrlSafetyService urlSafetyService;
     private final AnalyticsService analyticsService;
     private final QRCodeService qrCodeService;
+    private final BulkShortenService bulkShortenService;
+    private final NdjsonBulkShortenService ndjsonBulkShortenService;
+    private final QRCodeZipService qrCodeZipService;
+    private final UrlMetrics urlMetrics;
+    private final TrendingTracker trendingTracker;
+    private final LinkResolver linkResolver;
+    private final ClickClassifier clickClassifier;
+    private final BotClickCounter botClickCounter;
+
+    @Value("${bulk.stream.max-lines:10000}")
+    private int maxStreamLines;
+
+    @Value("${qr.cache-control.max-age-seconds:86400}")
+    private long qrCacheMaxAge;
+
+    @Value("${qr.zip.max-codes:500}")
+    private int maxZipCodes;
+
+    @Value("${resolve.max-codes:1000}")
+    private int maxResolveCodes;
 
     ShortenUrlController(ShortenedUrlServiceImpl shortenedUrlService,
                          UserServiceImpl userService,
                          UrlSafetyService urlSafetyService,
                          AnalyticsService analyticsService,
-                         QRCodeService qrCodeService) {
+                         QRCodeService qrCodeService,
+                         BulkShortenService bulkShortenService,
+                         NdjsonBulkShortenService ndjsonBulkShortenService,
+                         QRCodeZipService qrCodeZipService,
+                         UrlMetrics urlMetrics,
+                         TrendingTracker trendingTracker,
+                         LinkResolver linkResolver,
+                         ClickClassifier clickClassifier,
+                         BotClickCounter botClickCounter) {
         this.shortenedUrlService = shortenedUrlService;
         this.userService = userService;
         this.urlSafetyService = urlSafetyService;
         this.analyticsService = analyticsService;
         this.qrCodeService = qrCodeService;
+        this.bulkShortenService = bulkShortenService;
+        this.ndjsonBulkShortenService = ndjsonBulkShortenService;
+        this.qrCodeZipService = qrCodeZipService;
+        this.urlMetrics = urlMetrics;
+        this.trendingTracker = trendingTracker;
+        this.linkResolver = linkResolver;
+        this.clickClassifier = clickClassifier;
+        this.botClickCounter = botClickCounter;
     }
 
     @GetMapping("/{code}/qrcode")
-    public ResponseEntity<byte[]> getQRCode(@PathVariable String code) {
+    public ResponseEntity<byte[]> getQRCode(
+            @PathVariable String code,
+            @RequestParam(defaultValue = "300") int size,
+            @RequestParam(required = false) String format) {
+
+        QRCodeFormat qrFormat = QRCodeFormat.fromParam(format);
+        if (qrFormat == null || size < QRCodeService.MIN_SIZE || size > QRCodeService.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ShortenedUrl url;
         try {
-            ShortenedUrl url = shortenedUrlService.findByCode(code);
-            if (url == null) {
-                return ResponseEntity.notFound().build();
-            }
+            url = shortenedUrlService.findByCode(code);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
 
-            byte[] qrCode = qrCodeService.generateQRCode(url.getShortUrl(), 300, 300);
+        try {
+            QRCodeService.RenderedQRCode qrCode = qrCodeService.render(code, url.getShortUrl(), size, qrFormat);
 
+            // Strong ETag: a matching If-None-Match gets a 304 without a body
             return ResponseEntity.ok()
-                    .header("Content-Type", "image/png")
-                    .header("Content-Disposition", "inline; filename=\"qrcode-" + code + ".png\"")
-                    .body(qrCode);
+                    .eTag(qrCode.etag())
+                    .cacheControl(CacheControl.maxAge(Duration.ofSeconds(qrCacheMaxAge)).cachePublic())
+                    .header("Content-Type", qrFormat.getContentType())
+                    .header("Content-Disposition",
+                            "inline; filename=\"qrcode-" + code + "." + qrFormat.getExtension() + "\"")
+                    .body(qrCode.bytes());
 
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * All QR codes for a batch of the caller's links in one ZIP, rendered in parallel
+     * and streamed entry by entry. Accepts codes or a bulk-shorten results array.
+     */
+    @PostMapping("/qrcodes/zip")
+    public ResponseEntity<?> getQRCodeZip(
+            @RequestBody QRCodeZipRequest request,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+
+        int size = request.size() != null ? request.size() : 300;
+        QRCodeFormat qrFormat = QRCodeFormat.fromParam(request.format());
+        if (qrFormat == null || size < QRCodeService.MIN_SIZE || size > QRCodeService.MAX_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Format must be png or svg and size between "
+                            + QRCodeService.MIN_SIZE + " and " + QRCodeService.MAX_SIZE));
+        }
+
+        Set<String> codes = request.allCodes();
+        if (codes.isEmpty() || codes.size() > maxZipCodes) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Provide between 1 and " + maxZipCodes + " codes"));
+        }
+
+        // One IN query; codes that don't exist or belong to someone else are listed in not-found.txt
+        List<ShortenedUrl> urls = shortenedUrlService.findByUserAndCodes(user, codes);
+        Set<String> missing = new LinkedHashSet<>(codes);
+        urls.forEach(url -> missing.remove(url.getCode()));
+
+        StreamingResponseBody body = out -> qrCodeZipService.writeZip(urls, missing, size, qrFormat, out);
+
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/zip")
+                .header("Content-Disposition", "attachment; filename=\"qrcodes.zip\"")
+                .body(body);
+    }
+
     @PostMapping("/shorten")
     public ResponseEntity<?> shortenUrl(
             @Valid @RequestBody UrlRequest request,
             @AuthenticationPrincipal OAuth2User principal,
             OAuth2AuthenticationToken authToken) {
+        Timer.Sample sample = urlMetrics.start();
+        try {
+            return createShortUrl(request, principal, authToken);
+        } finally {
+            urlMetrics.stopShorten(sample);
+        }
+    }
+
+    private ResponseEntity<?> createShortUrl(UrlRequest request, OAuth2User principal,
+                                             OAuth2AuthenticationToken authToken) {
 
         // Check URL safety
         if (!urlSafetyService.isSafeUrl(request.url())) {
@@ -81,36 +203,11 @@ public class ShortenUrlController {
         }
 
         String code;
-        User user = null;
-
         // Associate with user if logged in
-        if (principal != null && authToken != null) {
-            try {
-                String provider = authToken.getAuthorizedClientRegistrationId();
-                String oauthId;
-
-                if ("google".equals(provider)) {
-                    oauthId = principal.getAttribute("sub");
-                } else if ("github".equals(provider)) {
-                    Object idObj = principal.getAttribute("id");
-                    oauthId = (idObj != null) ? idObj.toString() : null;
-                } else {
-                    throw new RuntimeException("Unknown OAuth provider: " + provider);
-                }
-
-                if (oauthId != null) {
-                    user = userService.findByOAuth(provider, oauthId)
-                            .map(UserOAuthProvider::getUser)
-                            .orElse(null);
-                }
-
-                if (user == null) {
-                    System.err.println("Warning: Authenticated user not found in database. Provider: " + provider + ", OAuthId: " + oauthId);
-                }
-            } catch (Exception e) {
-                System.err.println("Error finding user: " + e.getMessage());
-                e.printStackTrace();
-            }
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (principal != null && user == null) {
+            log.warn("Authenticated user not found in database (provider {}), creating an anonymous link",
+                    authToken != null ? authToken.getAuthorizedClientRegistrationId() : null);
         }
 
         // Handle custom code for premium users
@@ -142,6 +239,13 @@ public class ShortenUrlController {
             shortenedUrl.setExpiresAt(LocalDateTime.now().plusDays(request.expirationDays()));
         }
 
+        if (request.redirectStatus() != null) {
+            shortenedUrl.setRedirectStatus(request.redirectStatus().shortValue());
+        }
+        if (request.cacheMaxAgeSeconds() != null) {
+            shortenedUrl.setCacheMaxAge(request.cacheMaxAgeSeconds());
+        }
+
         if (user != null) {
             shortenedUrl.setUser(user);
         }
@@ -169,22 +273,7 @@ public class ShortenUrlController {
                     .body(Map.of("error", "Authentication required"));
         }
 
-        // Get user
-        String provider = authToken.getAuthorizedClientRegistrationId();
-        String oauthId;
-        if ("google".equals(provider)) {
-            oauthId = principal.getAttribute("sub");
-        } else if ("github".equals(provider)) {
-            Object idObj = principal.getAttribute("id");
-            oauthId = (idObj != null) ? idObj.toString() : null;
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
-        User user = userService.findByOAuth(provider, oauthId)
-                .map(oauthProvider -> oauthProvider.getUser())
-                .orElse(null);
-
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "User not found"));
@@ -197,84 +286,11 @@ public class ShortenUrlController {
                     .body(Map.of("error", "Maximum " + maxBulk + " URLs allowed. Upgrade to Premium for 100 URLs."));
         }
 
-        // Process URLs
-        List<BulkUrlResponse.UrlResult> results = new ArrayList<>();
-        int successful = 0;
-        int failed = 0;
-
-        for (UrlRequest urlReq : request.urls()) {
-            try {
-                // Validate URL
-                if (urlReq.url() == null || urlReq.url().trim().isEmpty()) {
-                    results.add(new BulkUrlResponse.UrlResult(
-                            urlReq.url(), null, null, false, "URL is required"
-                    ));
-                    failed++;
-                    continue;
-                }
-
-                if (!urlSafetyService.isSafeUrl(urlReq.url())) {
-                    results.add(new BulkUrlResponse.UrlResult(
-                            urlReq.url(), null, null, false,
-                            urlSafetyService.getSafetyMessage(urlReq.url())
-                    ));
-                    failed++;
-                    continue;
-                }
-
-                // Generate or use custom code
-                String code;
-                if (urlReq.customCode() != null && !urlReq.customCode().trim().isEmpty()) {
-                    if (!user.isPremium()) {
-                        results.add(new BulkUrlResponse.UrlResult(
-                                urlReq.url(), null, null, false,
-                                "Custom codes require Premium"
-                        ));
-                        failed++;
-                        continue;
-                    }
-
-                    code = urlReq.customCode().trim();
-                    if (shortenedUrlService.existsByCode(code)) {
-                        results.add(new BulkUrlResponse.UrlResult(
-                                urlReq.url(), null, null, false,
-                                "Code '" + code + "' already taken"
-                        ));
-                        failed++;
-                        continue;
-                    }
-                } else {
-                    code = shortenedUrlService.generateUniqueCode();
-                }
-
-                // Create shortened URL
-                ShortenedUrl shortenedUrl = new ShortenedUrl();
-                shortenedUrl.setLongUrl(urlReq.url());
-                shortenedUrl.setCode(code);
-                shortenedUrl.setShortUrl(getBaseUrl() + "/api/" + code);
-                shortenedUrl.setUser(user);
-
-                // Set expiration if provided
-                if (urlReq.expirationDays() != null && urlReq.expirationDays() > 0) {
-                    shortenedUrl.setExpiresAt(LocalDateTime.now().plusDays(urlReq.expirationDays()));
-                }
-
-                // CHANGED: Use createNew() for bulk operations
-                shortenedUrlService.createNew(shortenedUrl);
-
-                results.add(new BulkUrlResponse.UrlResult(
-                        urlReq.url(), shortenedUrl.getShortUrl(), code, true, null
-                ));
-                successful++;
-
-            } catch (Exception e) {
-                results.add(new BulkUrlResponse.UrlResult(
-                        urlReq.url(), null, null, false,
-                        "Failed to create: " + e.getMessage()
-                ));
-                failed++;
-            }
-        }
+        // Process URLs - one collision query and one batched insert for the whole request
+        List<BulkUrlResponse.UrlResult> results =
+                bulkShortenService.shortenChunk(user, request.urls(), getBaseUrl());
+        int successful = (int) results.stream().filter(BulkUrlResponse.UrlResult::success).count();
+        int failed = results.size() - successful;
 
         BulkUrlResponse response = new BulkUrlResponse(
                 request.urls().size(), successful, failed, results
@@ -283,43 +299,130 @@ public class ShortenUrlController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * NEW: Streaming bulk shorten - NDJSON request body, NDJSON response.
+     * Each line is a UrlRequest; each result line is written as soon as its chunk commits.
+     */
+    @PostMapping(value = "/bulk-shorten/stream", consumes = "application/x-ndjson")
+    public void bulkShortenStream(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @AuthenticationPrincipal OAuth2User principal,
+            OAuth2AuthenticationToken authToken) throws IOException {
+
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
+        if (user == null) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Authentication required");
+            return;
+        }
+
+        // Same tiers as /bulk-shorten; premium gets a higher ceiling since nothing is buffered
+        int maxLines = user.isPremium() ? maxStreamLines : 10;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        ndjsonBulkShortenService.stream(user, request.getInputStream(), response.getOutputStream(),
+                getBaseUrl(), maxLines);
+    }
+
     /**
      * OPTIMIZED: Redirect endpoint now uses direct SQL increment
      * No more cache invalidation on every click!
      */
     @GetMapping("/{code}")
     public ResponseEntity<?> redirectToLongUrl(@PathVariable String code, HttpServletRequest request) {
-        // Use cached version for lookup
-        ShortenedUrl shortenedUrl = shortenedUrlService.findByCodeForRedirect(code);
+        Timer.Sample sample = urlMetrics.start();
+        try {
+            return redirect(code, request);
+        } finally {
+            urlMetrics.stopRedirect(sample);
+        }
+    }
 
-        if (shortenedUrl == null) {
+    private ResponseEntity<?> redirect(String code, HttpServletRequest request) {
+        // Use cached version for lookup
+        ShortenedUrl shortenedUrl;
+        try {
+            shortenedUrl = shortenedUrlService.findByCodeForRedirect(code);
+        } catch (RuntimeException e) {
+            urlMetrics.redirectNotFound();
             return ResponseEntity.notFound().build();
         }
 
         // Check expiration
-        if (shortenedUrl.getExpiresAt() != null &&
-                LocalDateTime.now().isAfter(shortenedUrl.getExpiresAt())) {
-            return ResponseEntity.status(HttpStatus.GONE)
-                    .body("<html><body><h1>410 - Link Expired</h1><p>This shortened link has expired and is no longer available.</p></body></html>");
+        if (RedirectPolicy.isExpired(shortenedUrl.getExpiresAt(), LocalDateTime.now())) {
+            urlMetrics.redirectGone();
+            return ResponseEntity.status(HttpStatus.GONE).body(RedirectPolicy.GONE_BODY);
         }
 
-        // OPTIMIZED: Use direct SQL update - doesn't invalidate cache
-        shortenedUrlService.incrementClickCount(code);
+        // NEW: Link-preview bots, monitors and prefetches get the same redirect, but only a batched
+        // bot_click_count bump; click_count, trending and click_analytics are for people
+        ClickClassifier.Kind kind = clickClassifier.classify(request::getHeader);
+        if (kind != ClickClassifier.Kind.HUMAN) {
+            botClickCounter.record(shortenedUrl.getId(), kind);
+        } else {
+            // NEW: Feeds the trending top-K, which also pins hot codes in the redirect cache
+            trendingTracker.record(code);
+
+            // OPTIMIZED: Use direct SQL update - doesn't invalidate cache
+            urlMetrics.recordClickIncrement(() -> shortenedUrlService.incrementClickCount(code));
 
-        // Record detailed analytics (async recommended for production)
-        analyticsService.recordClick(shortenedUrl, request);
+            // Record detailed analytics off the redirect thread (request data is copied first)
+            analyticsService.recordClick(ClickEvent.from(shortenedUrl, request));
+        }
 
-        return ResponseEntity.status(HttpStatus.FOUND)
+        return ResponseEntity.status(shortenedUrl.getRedirectStatus())
                 .location(URI.create(shortenedUrl.getLongUrl()))
+                .cacheControl(redirectCacheControl(shortenedUrl))
                 .build();
     }
 
+    /**
+     * NEW: Destination, expiry and status of many codes at once, for link checkers and previewers
+     * that would otherwise call GET /api/{code} per link. Nothing is counted as a click.
+     */
+    @PostMapping("/resolve")
+    public ResponseEntity<?> resolve(@RequestBody ResolveRequest request) {
+        Set<String> codes = request.distinctCodes();
+        if (codes.isEmpty() || codes.size() > maxResolveCodes) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Provide between 1 and " + maxResolveCodes + " codes"));
+        }
+        return ResponseEntity.ok(Map.of("results", linkResolver.resolve(codes)));
+    }
+
+    /**
+     * NEW: Cacheable redirects skip the origin on repeat clicks (and skip analytics with them),
+     * so links default to no-store. Rules live in RedirectPolicy, shared with redirect-server/.
+     */
+    private CacheControl redirectCacheControl(ShortenedUrl shortenedUrl) {
+        long maxAge = RedirectPolicy.cacheMaxAgeSeconds(
+                shortenedUrl.getCacheMaxAge(), shortenedUrl.getExpiresAt(), LocalDateTime.now());
+
+        if (maxAge <= 0) {
+            return CacheControl.noStore();
+        }
+        return CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic();
+    }
+
     @GetMapping("/analytics/{code}")
     public ResponseEntity<?> getAnalytics(
             @PathVariable String code,
             @RequestParam(defaultValue = "30") int days,
             @AuthenticationPrincipal OAuth2User principal,
             OAuth2AuthenticationToken authToken) {
+        Timer.Sample sample = urlMetrics.start();
+        try {
+            return analyticsFor(code, days, principal, authToken);
+        } finally {
+            urlMetrics.stopAnalytics(sample);
+        }
+    }
+
+    private ResponseEntity<?> analyticsFor(String code, int days, OAuth2User principal,
+                                           OAuth2AuthenticationToken authToken) {
 
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -331,22 +434,9 @@ public class ShortenUrlController {
         }
 
         // Verify user owns this URL
-        String provider = authToken.getAuthorizedClientRegistrationId();
-        String oauthId;
-        if ("google".equals(provider)) {
-            oauthId = principal.getAttribute("sub");
-        } else if ("github".equals(provider)) {
-            Object idObj = principal.getAttribute("id");
-            oauthId = (idObj != null) ? idObj.toString() : null;
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
-        User user = userService.findByOAuth(provider, oauthId)
-                .map(oauthProvider -> oauthProvider.getUser())
-                .orElse(null);
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
 
-        if (user == null || !url.getUser().getId().equals(user.getId())) {
+        if (user == null || url.getUser() == null || !url.getUser().getId().equals(user.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -372,20 +462,7 @@ public class ShortenUrlController {
         }
 
         // Verify user owns this URL
-        String provider = authToken.getAuthorizedClientRegistrationId();
-        String oauthId;
-        if ("google".equals(provider)) {
-            oauthId = principal.getAttribute("sub");
-        } else if ("github".equals(provider)) {
-            Object idObj = principal.getAttribute("id");
-            oauthId = (idObj != null) ? idObj.toString() : null;
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
-        User user = userService.findByOAuth(provider, oauthId)
-                .map(oauthProvider -> oauthProvider.getUser())
-                .orElse(null);
+        User user = userService.findByPrincipal(principal, authToken).orElse(null);
 
         if (user == null || url.getUser() == null || !url.getUser().getId().equals(user.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -393,6 +470,7 @@ public class ShortenUrlController {
         }
 
         shortenedUrlService.delete(url);
+        qrCodeService.evict(code);
 
         return ResponseEntity.ok(Map.of("message", "Link deleted successfully"));
     }
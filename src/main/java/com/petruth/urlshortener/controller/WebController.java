@@ -207,6 +207,8 @@ public class WebController {
                 .mapToLong(url -> url.getClickCount() != null ? url.getClickCount() : 0)
                 .sum();
         stats.put("totalClicks", totalClicks);
+        // NEW: Raw also counts redirects served to bots, monitors and prefetches
+        stats.put("rawClicks", allUrls.stream().mapToLong(ShortenedUrl::getRawClickCount).sum());
 
         // Count clicks today from ALL user's links
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
@@ -0,0 +1,22 @@
+package com.petruth.urlshortener.dto;
+
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * What analytics needs from a redirect, copied off the request on the redirect thread.
+ * The servlet request itself is recycled once the response is sent, so it must never
+ * be handed to the async analytics workers. The address is the one RemoteIpValve resolved
+ * from X-Forwarded-For, so clients can't put someone else's IP in their clicks.
+ */
+public record ClickEvent(ShortenedUrl shortenedUrl, LocalDateTime clickedAt,
+                         String ipAddress, String userAgent, String referer) {
+
+    public static ClickEvent from(ShortenedUrl shortenedUrl, HttpServletRequest request) {
+        return new ClickEvent(shortenedUrl, LocalDateTime.now(),
+                request.getRemoteAddr(),
+                request.getHeader("User-Agent"), request.getHeader("Referer"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.petruth.urlshortener.dto;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of one click_analytics row (dimensions joined back in) for exports
+ */
+public record ClickExportRow(
+        LocalDateTime clickedAt,
+        String ipAddress,
+        String userAgent,
+        String refererHost,
+        String country,
+        String city,
+        String deviceType,
+        String browser,
+        String os
+) {
+    // JPQL constructor: ip_address is inet
+    public ClickExportRow(LocalDateTime clickedAt, InetAddress ipAddress, String userAgent, String referer,
+                          String country, String city, String deviceType, String browser, String os) {
+        this(clickedAt, ipAddress != null ? ipAddress.getHostAddress() : null, userAgent, referer,
+                country, city, deviceType, browser, os);
+    }
+}
@@ -0,0 +1,6 @@
+package com.petruth.urlshortener.dto;
+
+/**
+ * Published in-process after a click is recorded; feeds the live analytics stream.
+ */
+public record ClickRecorded(String code, long timestamp, String deviceType, String browser, String country) {}
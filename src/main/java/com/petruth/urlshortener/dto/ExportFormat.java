@@ -0,0 +1,30 @@
+package com.petruth.urlshortener.dto;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() { return contentType; }
+    public String getExtension() { return extension; }
+
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ndjson", "jsonl" -> NDJSON;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package com.petruth.urlshortener.dto;
+
+public record GeoLocation(String country, String city) {
+
+    public static final GeoLocation UNKNOWN = new GeoLocation(null, null);
+}
@@ -0,0 +1,18 @@
+package com.petruth.urlshortener.dto;
+
+/**
+ * One line of an import job's NDJSON results file
+ */
+public record ImportJobResult(
+        long line,
+        String originalUrl,
+        String shortUrl,
+        String code,
+        boolean success,
+        String error
+) {
+    public static ImportJobResult of(long line, BulkUrlResponse.UrlResult result) {
+        return new ImportJobResult(line, result.originalUrl(), result.shortUrl(),
+                result.code(), result.success(), result.error());
+    }
+}
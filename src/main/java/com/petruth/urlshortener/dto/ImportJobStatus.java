@@ -0,0 +1,45 @@
+package com.petruth.urlshortener.dto;
+
+import com.petruth.urlshortener.entity.ImportJob;
+
+import java.time.LocalDateTime;
+
+public record ImportJobStatus(
+        Long id,
+        ImportJob.Status status,
+        ImportJob.Format format,
+        String filename,
+        long totalBytes,
+        long bytesProcessed,
+        int progressPercent,
+        long linesProcessed,
+        long successful,
+        long failed,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime completedAt
+) {
+    public static ImportJobStatus from(ImportJob job) {
+        int percent = job.getSourceBytes() > 0
+                ? (int) Math.min(100, job.getBytesProcessed() * 100 / job.getSourceBytes())
+                : (job.getStatus() == ImportJob.Status.COMPLETED ? 100 : 0);
+
+        return new ImportJobStatus(
+                job.getId(),
+                job.getStatus(),
+                job.getFormat(),
+                job.getOriginalFilename(),
+                job.getSourceBytes(),
+                job.getBytesProcessed(),
+                percent,
+                job.getLinesProcessed(),
+                job.getSuccessful(),
+                job.getFailed(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getCompletedAt()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.petruth.urlshortener.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection used by the export cursor - never a managed entity,
+ * so the persistence context doesn't grow with the export.
+ */
+public record LinkExportRow(
+        String code,
+        String shortUrl,
+        String longUrl,
+        LocalDateTime dateCreated,
+        LocalDateTime expiresAt,
+        Long clickCount,
+        LocalDateTime lastAccessed
+) {}
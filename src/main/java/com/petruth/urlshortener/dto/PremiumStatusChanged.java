@@ -0,0 +1,6 @@
+package com.petruth.urlshortener.dto;
+
+/**
+ * Published in-process when a Stripe event flips a user's premium flag; listeners drop cached user state.
+ */
+public record PremiumStatusChanged(long userId, String email, boolean premium) {}
@@ -0,0 +1,30 @@
+package com.petruth.urlshortener.dto;
+
+import java.util.Locale;
+
+public enum QRCodeFormat {
+    PNG("image/png", "png"),
+    SVG("image/svg+xml", "svg");
+
+    private final String contentType;
+    private final String extension;
+
+    QRCodeFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() { return contentType; }
+    public String getExtension() { return extension; }
+
+    public static QRCodeFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return PNG;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "png" -> PNG;
+            case "svg" -> SVG;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.petruth.urlshortener.dto;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Either a plain list of codes or the results array of a bulk-shorten response
+ * (failed results are skipped). Size and format default to 300px PNG.
+ */
+public record QRCodeZipRequest(
+        List<String> codes,
+        List<BulkUrlResponse.UrlResult> results,
+        Integer size,
+        String format
+) {
+    public Set<String> allCodes() {
+        Set<String> all = new LinkedHashSet<>();
+        if (codes != null) {
+            codes.stream().filter(c -> c != null && !c.isBlank()).forEach(all::add);
+        }
+        if (results != null) {
+            results.stream()
+                    .filter(r -> r != null && r.success() && r.code() != null)
+                    .forEach(r -> all.add(r.code()));
+        }
+        return all;
+    }
+}
@@ -0,0 +1,19 @@
+package com.petruth.urlshortener.dto;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Codes to look up with POST /api/resolve. Blanks and repeats are dropped, order is kept.
+ */
+public record ResolveRequest(List<String> codes) {
+
+    public Set<String> distinctCodes() {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (codes != null) {
+            codes.stream().filter(c -> c != null && !c.isBlank()).forEach(distinct::add);
+        }
+        return distinct;
+    }
+}
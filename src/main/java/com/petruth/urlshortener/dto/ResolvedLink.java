@@ -0,0 +1,32 @@
+package com.petruth.urlshortener.dto;
+
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.redirect.RedirectPolicy;
+
+import java.time.LocalDateTime;
+
+/**
+ * What GET /api/{code} would do for a code, without counting a click.
+ *
+ * @param redirectStatus 301/302/307/308 for active links, null otherwise
+ */
+public record ResolvedLink(
+        String code,
+        Status status,
+        String destination,
+        LocalDateTime expiresAt,
+        Integer redirectStatus
+) {
+    public enum Status { ACTIVE, EXPIRED, NOT_FOUND }
+
+    public static ResolvedLink from(String code, ShortenedUrl url, LocalDateTime now) {
+        if (url == null) {
+            return new ResolvedLink(code, Status.NOT_FOUND, null, null, null);
+        }
+        if (RedirectPolicy.isExpired(url.getExpiresAt(), now)) {
+            return new ResolvedLink(code, Status.EXPIRED, null, url.getExpiresAt(), null);
+        }
+        return new ResolvedLink(code, Status.ACTIVE, url.getLongUrl(), url.getExpiresAt(),
+                (int) url.getRedirectStatus());
+    }
+}
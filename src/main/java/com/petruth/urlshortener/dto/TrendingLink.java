@@ -0,0 +1,7 @@
+package com.petruth.urlshortener.dto;
+
+/**
+ * @param clicks    estimated clicks in the window (never under the true count)
+ * @param minClicks guaranteed lower bound; equal to clicks while the link stayed tracked
+ */
+public record TrendingLink(String code, long clicks, long minClicks) {}
@@ -1,5 +1,7 @@
 package com.petruth.urlshortener.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -20,5 +22,22 @@ public record UrlRequest(
 
         @Pattern(regexp = "^[a-zA-Z0-9_-]*$", message = "Custom code can only contain letters, numbers, hyphens and underscores")
         @Size(min = 3, max = 20, message = "Custom code must be between 3 and 20 characters")
-        String customCode  // Only for premium users
-) {}
\ No newline at end of file
+        String customCode,  // Only for premium users
+
+        // 301, 302 (default), 307 or 308
+        Integer redirectStatus,
+
+        // Seconds browsers/CDNs may cache the redirect; 0 (default) keeps every click counted
+        @Min(value = 0, message = "Cache max-age must be 0 or positive")
+        @Max(value = 31536000, message = "Cache max-age cannot exceed one year")
+        Integer cacheMaxAgeSeconds
+) {
+    @JsonIgnore
+    @AssertTrue(message = "Redirect status must be 301, 302, 307 or 308")
+    public boolean isRedirectStatusSupported() {
+        return redirectStatus == null || switch (redirectStatus) {
+            case 301, 302, 307, 308 -> true;
+            default -> false;
+        };
+    }
+}
\ No newline at end of file
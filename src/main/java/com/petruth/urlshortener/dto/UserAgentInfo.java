@@ -0,0 +1,12 @@
+package com.petruth.urlshortener.dto;
+
+/**
+ * Result of classifying one User-Agent string. Versions are null when the UA doesn't carry one.
+ */
+public record UserAgentInfo(
+        String deviceType,
+        String browser,
+        String browserVersion,
+        String os,
+        String osVersion
+) {}
@@ -1,8 +1,10 @@
 package com.petruth.urlshortener.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.net.InetAddress;
 import java.time.LocalDateTime;
 
 @Entity
@@ -19,32 +21,39 @@ public class ClickAnalytics {
     @JoinColumn(name = "shortened_url_id", nullable = false)
     private ShortenedUrl shortenedUrl;
 
-    @CreationTimestamp
+    // Set from the click itself, which may reach us late via click_inbox
     @Column(name = "clicked_at", nullable = false)
     private LocalDateTime clickedAt;
 
-    @Column(name = "ip_address", length = 45)
-    private String ipAddress;
+    // NEW: Native inet (7 bytes for IPv4) instead of up to 45 chars of text
+    @JdbcTypeCode(SqlTypes.INET)
+    @Column(name = "ip_address")
+    private InetAddress ipAddress;
 
-    @Column(name = "user_agent", length = 500)
-    private String userAgent;
+    // NEW: Repeated strings are stored once in dimension tables and referenced by id
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
 
-    @Column(name = "referer", length = 500)
-    private String referer;
+    @Column(name = "referer_host_id")
+    private Integer refererHostId;
 
-    @Column(name = "country", length = 100)
-    private String country;
+    @Column(name = "country_id")
+    private Short countryId;
 
     @Column(name = "city", length = 100)
     private String city;
 
-    @Column(name = "device_type", length = 50)
+    // NEW: Fixed vocabularies as SMALLINT codes, see ClickCodes
+    @Convert(converter = ClickCodes.DeviceTypeConverter.class)
+    @Column(name = "device_type")
     private String deviceType; // Mobile, Desktop, Tablet
 
-    @Column(name = "browser", length = 100)
+    @Convert(converter = ClickCodes.BrowserConverter.class)
+    @Column(name = "browser")
     private String browser;
 
-    @Column(name = "os", length = 100)
+    @Convert(converter = ClickCodes.OsConverter.class)
+    @Column(name = "os")
     private String os;
 
     // Constructors
@@ -60,17 +69,17 @@ public class ClickAnalytics {
     public LocalDateTime getClickedAt() { return clickedAt; }
     public void setClickedAt(LocalDateTime clickedAt) { this.clickedAt = clickedAt; }
 
-    public String getIpAddress() { return ipAddress; }
-    public void setIpAddress(String ipAddress) { this.ipAddress = ipAddress; }
+    public InetAddress getIpAddress() { return ipAddress; }
+    public void setIpAddress(InetAddress ipAddress) { this.ipAddress = ipAddress; }
 
-    public String getUserAgent() { return userAgent; }
-    public void setUserAgent(String userAgent) { this.userAgent = userAgent; }
+    public Integer getUserAgentId() { return userAgentId; }
+    public void setUserAgentId(Integer userAgentId) { this.userAgentId = userAgentId; }
 
-    public String getReferer() { return referer; }
-    public void setReferer(String referer) { this.referer = referer; }
+    public Integer getRefererHostId() { return refererHostId; }
+    public void setRefererHostId(Integer refererHostId) { this.refererHostId = refererHostId; }
 
-    public String getCountry() { return country; }
-    public void setCountry(String country) { this.country = country; }
+    public Short getCountryId() { return countryId; }
+    public void setCountryId(Short countryId) { this.countryId = countryId; }
 
     public String getCity() { return city; }
     public void setCity(String city) { this.city = city; }
@@ -83,4 +92,4 @@ public class ClickAnalytics {
 
     public String getOs() { return os; }
     public void setOs(String os) { this.os = os; }
-}
\ No newline at end of file
+}
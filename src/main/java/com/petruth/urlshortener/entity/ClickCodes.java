@@ -0,0 +1,60 @@
+package com.petruth.urlshortener.entity;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.util.List;
+
+/**
+ * SMALLINT codes for the fixed click vocabularies (values produced by UserAgentParser).
+ * The list index is what's stored, so these lists are append-only; V5 uses the same order.
+ */
+public final class ClickCodes {
+
+    public static final List<String> DEVICE_TYPES = List.of("Desktop", "Mobile", "Tablet");
+
+    public static final List<String> BROWSERS = List.of(
+            "Other", "Chrome", "Safari", "Firefox", "Edge", "Opera", "Samsung Internet", "Internet Explorer");
+
+    public static final List<String> OPERATING_SYSTEMS = List.of(
+            "Other", "Windows", "MacOS", "Linux", "Android", "iOS", "ChromeOS", "Windows Phone");
+
+    private ClickCodes() {}
+
+    abstract static class CodeConverter implements AttributeConverter<String, Short> {
+
+        private final List<String> values;
+
+        CodeConverter(List<String> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Short convertToDatabaseColumn(String value) {
+            if (value == null) {
+                return null;
+            }
+            // Unknown labels fall back to the first entry ("Other" / "Desktop")
+            return (short) Math.max(0, values.indexOf(value));
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short code) {
+            if (code == null) {
+                return null;
+            }
+            return code >= 0 && code < values.size() ? values.get(code) : values.get(0);
+        }
+    }
+
+    public static class DeviceTypeConverter extends CodeConverter {
+        public DeviceTypeConverter() { super(DEVICE_TYPES); }
+    }
+
+    public static class BrowserConverter extends CodeConverter {
+        public BrowserConverter() { super(BROWSERS); }
+    }
+
+    public static class OsConverter extends CodeConverter {
+        public OsConverter() { super(OPERATING_SYSTEMS); }
+    }
+}
@@ -0,0 +1,22 @@
+package com.petruth.urlshortener.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Country name dictionary (names come from the GeoIP file); clicks reference it by a SMALLINT id.
+ * Rows are written by ClickDimensionRepository, never through JPA.
+ */
+@Entity
+@Table(name = "countries")
+public class Country {
+    @Id
+    private Short id;
+
+    @Column(name = "name", nullable = false, length = 100, unique = true)
+    private String name;
+
+    public Country() {}
+
+    public Short getId() { return id; }
+    public String getName() { return name; }
+}
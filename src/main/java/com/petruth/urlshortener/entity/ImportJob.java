@@ -0,0 +1,156 @@
+package com.petruth.urlshortener.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A background bulk import. Progress is checkpointed per chunk
+ * (byte offset into the source file + committed size of the results file)
+ * so a job can pick up exactly where it stopped after a restart.
+ */
+@Entity
+@Table(name = "import_job", indexes = {
+        @Index(name = "idx_import_job_user", columnList = "user_id"),
+        @Index(name = "idx_import_job_status", columnList = "status")
+})
+public class ImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public enum Format { CSV, NDJSON }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private Format format;
+
+    @Column(name = "original_filename")
+    private String originalFilename;
+
+    @Column(name = "source_path", nullable = false, length = 1024)
+    private String sourcePath;
+
+    @Column(name = "result_path", nullable = false, length = 1024)
+    private String resultPath;
+
+    // Captured at upload time - background threads have no request to derive it from
+    @Column(name = "base_url", nullable = false)
+    private String baseUrl;
+
+    @Column(name = "source_bytes", nullable = false)
+    private long sourceBytes;
+
+    @Column(name = "bytes_processed", nullable = false)
+    private long bytesProcessed;
+
+    @Column(name = "lines_processed", nullable = false)
+    private long linesProcessed;
+
+    @Column(name = "result_bytes", nullable = false)
+    private long resultBytes;
+
+    @Column(name = "successful", nullable = false)
+    private long successful;
+
+    @Column(name = "failed", nullable = false)
+    private long failed;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    // Node currently running (or about to run) the job, see ImportJobLeases
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public ImportJob() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Format getFormat() { return format; }
+    public void setFormat(Format format) { this.format = format; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getSourcePath() { return sourcePath; }
+    public void setSourcePath(String sourcePath) { this.sourcePath = sourcePath; }
+
+    public String getResultPath() { return resultPath; }
+    public void setResultPath(String resultPath) { this.resultPath = resultPath; }
+
+    public String getBaseUrl() { return baseUrl; }
+    public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+
+    public long getSourceBytes() { return sourceBytes; }
+    public void setSourceBytes(long sourceBytes) { this.sourceBytes = sourceBytes; }
+
+    public long getBytesProcessed() { return bytesProcessed; }
+    public void setBytesProcessed(long bytesProcessed) { this.bytesProcessed = bytesProcessed; }
+
+    public long getLinesProcessed() { return linesProcessed; }
+    public void setLinesProcessed(long linesProcessed) { this.linesProcessed = linesProcessed; }
+
+    public long getResultBytes() { return resultBytes; }
+    public void setResultBytes(long resultBytes) { this.resultBytes = resultBytes; }
+
+    public long getSuccessful() { return successful; }
+    public void setSuccessful(long successful) { this.successful = successful; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
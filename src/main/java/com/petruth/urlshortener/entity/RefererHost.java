@@ -0,0 +1,22 @@
+package com.petruth.urlshortener.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One distinct referrer host; clicks reference it by id.
+ * Rows are written by ClickDimensionRepository, never through JPA.
+ */
+@Entity
+@Table(name = "referer_hosts")
+public class RefererHost {
+    @Id
+    private Integer id;
+
+    @Column(name = "host", nullable = false, length = 255, unique = true)
+    private String host;
+
+    public RefererHost() {}
+
+    public Integer getId() { return id; }
+    public String getHost() { return host; }
+}
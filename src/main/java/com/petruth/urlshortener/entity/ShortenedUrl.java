@@ -36,9 +36,21 @@ public class ShortenedUrl {
     @Column(name = "click_count")
     private Long clickCount = 0L;
 
+    // NEW: Bots, monitors and prefetches; click_count only counts people
+    @Column(name = "bot_click_count", nullable = false)
+    private long botClickCount = 0L;
+
     @Column(name = "last_accessed")
     private LocalDateTime lastAccessed;
 
+    // NEW: Redirect policy - 301/302/307/308 and how long browsers/CDNs may cache it.
+    // 0 means no-store, so every click reaches the origin and is counted.
+    @Column(name = "redirect_status", nullable = false)
+    private Short redirectStatus = 302;
+
+    @Column(name = "cache_max_age", nullable = false)
+    private Integer cacheMaxAge = 0;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
@@ -121,6 +133,21 @@ public class ShortenedUrl {
         this.lastAccessed = lastAccessed;
     }
 
+    public long getBotClickCount() {
+        return botClickCount;
+    }
+
+    public void setBotClickCount(long botClickCount) {
+        this.botClickCount = botClickCount;
+    }
+
+    /**
+     * Every redirect served, people and bots alike.
+     */
+    public long getRawClickCount() {
+        return (clickCount != null ? clickCount : 0) + botClickCount;
+    }
+
     public LocalDateTime getExpiresAt() {
         return expiresAt;
     }
@@ -129,6 +156,22 @@ public class ShortenedUrl {
         this.expiresAt = expiresAt;
     }
 
+    public Short getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public void setRedirectStatus(Short redirectStatus) {
+        this.redirectStatus = redirectStatus;
+    }
+
+    public Integer getCacheMaxAge() {
+        return cacheMaxAge;
+    }
+
+    public void setCacheMaxAge(Integer cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
     public User getUser() {
         return user;
     }
@@ -27,6 +27,10 @@ public class User {
     @Column(nullable = false)
     private boolean premium = false;
 
+    // Set by the first checkout.session.completed; subscription events only name the customer
+    @Column(unique = true)
+    private String stripeCustomerId;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ShortenedUrl> urls = new ArrayList<>();
 
@@ -55,6 +59,9 @@ public class User {
     public boolean isPremium() { return premium; }
     public void setPremium(boolean premium) { this.premium = premium; }
 
+    public String getStripeCustomerId() { return stripeCustomerId; }
+    public void setStripeCustomerId(String stripeCustomerId) { this.stripeCustomerId = stripeCustomerId; }
+
     public List<ShortenedUrl> getUrls() { return urls; }
     public void setUrls(List<ShortenedUrl> urls) { this.urls = urls; }
 
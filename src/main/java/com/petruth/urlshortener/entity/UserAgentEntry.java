@@ -0,0 +1,31 @@
+package com.petruth.urlshortener.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One distinct User-Agent string; clicks reference it by id.
+ * Versions live here because they're a function of the string.
+ * Rows are written by ClickDimensionRepository, never through JPA.
+ */
+@Entity
+@Table(name = "user_agents")
+public class UserAgentEntry {
+    @Id
+    private Integer id;
+
+    @Column(name = "user_agent", nullable = false, length = 500, unique = true)
+    private String userAgent;
+
+    @Column(name = "browser_version", length = 50)
+    private String browserVersion;
+
+    @Column(name = "os_version", length = 50)
+    private String osVersion;
+
+    public UserAgentEntry() {}
+
+    public Integer getId() { return id; }
+    public String getUserAgent() { return userAgent; }
+    public String getBrowserVersion() { return browserVersion; }
+    public String getOsVersion() { return osVersion; }
+}
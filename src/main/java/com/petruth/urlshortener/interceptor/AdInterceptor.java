@@ -1,7 +1,6 @@
 package com.petruth.urlshortener.interceptor;
 
-import com.petruth.urlshortener.entity.User;
-import com.petruth.urlshortener.service.UserService;
+import com.petruth.urlshortener.service.PremiumStatusCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.core.Authentication;
@@ -11,8 +10,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
-import java.util.Optional;
-
 /**
  * Adds {@code showAds = true/false} to every ModelAndView so that
  * Thymeleaf templates can conditionally render the ad banner without
@@ -29,10 +26,11 @@ import java.util.Optional;
 @Component
 public class AdInterceptor implements HandlerInterceptor {
 
-    private final UserService userService;
+    // CHANGED: Premium flag comes from a short-lived cache instead of a user query per page view
+    private final PremiumStatusCache premiumStatusCache;
 
-    public AdInterceptor(UserService userService) {
-        this.userService = userService;
+    public AdInterceptor(PremiumStatusCache premiumStatusCache) {
+        this.premiumStatusCache = premiumStatusCache;
     }
 
     @Override
@@ -62,11 +60,8 @@ public class AdInterceptor implements HandlerInterceptor {
 
             if (principal != null) {
                 String email = principal.getAttribute("email");
-                if (email != null) {
-                    Optional<User> user = userService.findByEmail(email);
-                    if (user.isPresent() && user.get().isPremium()) {
-                        showAds = false;
-                    }
+                if (email != null && premiumStatusCache.isPremium(email)) {
+                    showAds = false;
                 }
             }
         }
@@ -1,13 +1,20 @@
 package com.petruth.urlshortener.repository;
 
+import com.petruth.urlshortener.dto.ClickExportRow;
 import com.petruth.urlshortener.entity.ClickAnalytics;
 import com.petruth.urlshortener.entity.ShortenedUrl;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ClickAnalyticsRepository extends JpaRepository<ClickAnalytics, Long> {
 
@@ -20,9 +27,10 @@ public interface ClickAnalyticsRepository extends JpaRepository<ClickAnalytics,
             "GROUP BY DATE(c.clickedAt) ORDER BY DATE(c.clickedAt)")
     List<Object[]> getClicksByDay(@Param("url") ShortenedUrl url, @Param("startDate") LocalDateTime startDate);
 
-    @Query("SELECT c.country, COUNT(c) as count FROM ClickAnalytics c " +
-            "WHERE c.shortenedUrl = :url AND c.country IS NOT NULL " +
-            "GROUP BY c.country ORDER BY count DESC")
+    // Grouped on the small id, names joined in from the dictionary table
+    @Query("SELECT co.name, COUNT(c) as count FROM ClickAnalytics c JOIN Country co ON co.id = c.countryId " +
+            "WHERE c.shortenedUrl = :url " +
+            "GROUP BY co.name ORDER BY count DESC")
     List<Object[]> getClicksByCountry(@Param("url") ShortenedUrl url);
 
     @Query("SELECT c.deviceType, COUNT(c) as count FROM ClickAnalytics c " +
@@ -35,10 +43,24 @@ public interface ClickAnalyticsRepository extends JpaRepository<ClickAnalytics,
             "GROUP BY c.browser ORDER BY count DESC")
     List<Object[]> getClicksByBrowser(@Param("url") ShortenedUrl url);
 
-    @Query("SELECT c.referer, COUNT(c) as count FROM ClickAnalytics c " +
-            "WHERE c.shortenedUrl = :url AND c.referer IS NOT NULL " +
-            "GROUP BY c.referer ORDER BY count DESC")
+    @Query("SELECT r.host, COUNT(c) as count FROM ClickAnalytics c JOIN RefererHost r ON r.id = c.refererHostId " +
+            "WHERE c.shortenedUrl = :url " +
+            "GROUP BY r.host ORDER BY count DESC")
     List<Object[]> getClicksByReferer(@Param("url") ShortenedUrl url);
 
     long countByShortenedUrlAndClickedAtAfter(ShortenedUrl url, LocalDateTime date);
+
+    // Forward-only cursor for exports - must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.petruth.urlshortener.dto.ClickExportRow(c.clickedAt, c.ipAddress, ua.userAgent, " +
+            "r.host, co.name, c.city, c.deviceType, c.browser, c.os) " +
+            "FROM ClickAnalytics c " +
+            "LEFT JOIN UserAgentEntry ua ON ua.id = c.userAgentId " +
+            "LEFT JOIN RefererHost r ON r.id = c.refererHostId " +
+            "LEFT JOIN Country co ON co.id = c.countryId " +
+            "WHERE c.shortenedUrl = :url ORDER BY c.id")
+    Stream<ClickExportRow> streamExportRowsByUrl(@Param("url") ShortenedUrl url);
 }
\ No newline at end of file
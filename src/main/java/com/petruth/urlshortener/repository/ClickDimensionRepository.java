@@ -0,0 +1,55 @@
+package com.petruth.urlshortener.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Get-or-create for the click dimension tables (user_agents, referer_hosts, countries).
+ * ON CONFLICT DO NOTHING returns no row when another worker inserted the value first,
+ * in which case the existing id is read back.
+ */
+@Repository
+public class ClickDimensionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClickDimensionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int userAgentId(String userAgent, String browserVersion, String osVersion) {
+        List<Integer> inserted = jdbcTemplate.queryForList(
+                "INSERT INTO user_agents (user_agent, browser_version, os_version) VALUES (?, ?, ?) " +
+                "ON CONFLICT (user_agent) DO NOTHING RETURNING id",
+                Integer.class, userAgent, browserVersion, osVersion);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM user_agents WHERE user_agent = ?", Integer.class, userAgent);
+    }
+
+    public int refererHostId(String host) {
+        List<Integer> inserted = jdbcTemplate.queryForList(
+                "INSERT INTO referer_hosts (host) VALUES (?) ON CONFLICT (host) DO NOTHING RETURNING id",
+                Integer.class, host);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM referer_hosts WHERE host = ?", Integer.class, host);
+    }
+
+    public short countryId(String name) {
+        List<Short> inserted = jdbcTemplate.queryForList(
+                "INSERT INTO countries (name) VALUES (?) ON CONFLICT (name) DO NOTHING RETURNING id",
+                Short.class, name);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM countries WHERE name = ?", Short.class, name);
+    }
+}
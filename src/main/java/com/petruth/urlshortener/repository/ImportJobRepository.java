@@ -0,0 +1,94 @@
+package com.petruth.urlshortener.repository;
+
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    Optional<ImportJob> findByIdAndUser(Long id, User user);
+
+    boolean existsByUserAndStatusIn(User user, Collection<ImportJob.Status> statuses);
+
+    /**
+     * Queued or running jobs no node holds a lease on, i.e. whose node stopped.
+     */
+    @Query("SELECT j FROM ImportJob j WHERE j.status IN :statuses " +
+            "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now) ORDER BY j.id")
+    List<ImportJob> findUnleased(@Param("statuses") Collection<ImportJob.Status> statuses,
+                                 @Param("now") LocalDateTime now);
+
+    /**
+     * Takes a job for {@code owner} and marks it running: a queued job the owner created itself,
+     * or any queued or running job whose lease has run out.
+     *
+     * @return 1 if claimed, 0 if another node holds it or it already finished
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :running, j.owner = :owner, j.leaseUntil = :leaseUntil, " +
+            "j.updatedAt = :now WHERE j.id = :id AND (" +
+            "(j.status = :queued AND (j.owner = :owner OR j.leaseUntil IS NULL OR j.leaseUntil < :now)) OR " +
+            "(j.status = :running AND (j.leaseUntil IS NULL OR j.leaseUntil < :now)))")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("now") LocalDateTime now,
+              @Param("queued") ImportJob.Status queued,
+              @Param("running") ImportJob.Status running);
+
+    /**
+     * Extends the leases {@code owner} still holds.
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.leaseUntil = :leaseUntil " +
+            "WHERE j.id IN :ids AND j.owner = :owner AND j.status IN :statuses")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("owner") String owner,
+                    @Param("leaseUntil") LocalDateTime leaseUntil,
+                    @Param("statuses") Collection<ImportJob.Status> statuses);
+
+    /**
+     * Chunk checkpoint - runs in the same transaction as the chunk's inserts,
+     * so progress and created links always agree. Also extends the lease.
+     *
+     * @return 0 if {@code owner} no longer holds the job, in which case the chunk must roll back
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.bytesProcessed = :bytesProcessed, j.linesProcessed = :linesProcessed, " +
+            "j.resultBytes = :resultBytes, j.successful = j.successful + :successful, " +
+            "j.failed = j.failed + :failed, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.owner = :owner AND j.status = :running")
+    int recordProgress(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("bytesProcessed") long bytesProcessed,
+                       @Param("linesProcessed") long linesProcessed,
+                       @Param("resultBytes") long resultBytes,
+                       @Param("successful") long successful,
+                       @Param("failed") long failed,
+                       @Param("leaseUntil") LocalDateTime leaseUntil,
+                       @Param("now") LocalDateTime now,
+                       @Param("running") ImportJob.Status running);
+
+    /**
+     * Ends a running job held by {@code owner} as COMPLETED or FAILED.
+     *
+     * @return 0 if {@code owner} no longer holds the job
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.errorMessage = :errorMessage, j.completedAt = :now, " +
+            "j.updatedAt = :now, j.leaseUntil = NULL WHERE j.id = :id AND j.owner = :owner AND j.status = :running")
+    int finish(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("status") ImportJob.Status status,
+               @Param("errorMessage") String errorMessage,
+               @Param("now") LocalDateTime now,
+               @Param("running") ImportJob.Status running);
+}
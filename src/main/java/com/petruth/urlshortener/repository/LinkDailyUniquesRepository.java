@@ -0,0 +1,53 @@
+package com.petruth.urlshortener.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Raw access to link_daily_uniques. Merging happens in Java (HyperLogLog),
+ * so writers lock the row, merge and write back.
+ */
+@Repository
+public class LinkDailyUniquesRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LinkDailyUniquesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the sketch, or returns the stored one locked FOR UPDATE when the row exists.
+     * Must run inside a transaction.
+     *
+     * @return null if the sketch was inserted as-is
+     */
+    public byte[] insertOrLock(long urlId, LocalDate day, byte[] sketch) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO link_daily_uniques (shortened_url_id, day, sketch) VALUES (?, ?, ?) " +
+                "ON CONFLICT (shortened_url_id, day) DO NOTHING",
+                urlId, Date.valueOf(day), sketch);
+        if (inserted == 1) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT sketch FROM link_daily_uniques WHERE shortened_url_id = ? AND day = ? FOR UPDATE",
+                byte[].class, urlId, Date.valueOf(day));
+    }
+
+    public void update(long urlId, LocalDate day, byte[] sketch) {
+        jdbcTemplate.update(
+                "UPDATE link_daily_uniques SET sketch = ? WHERE shortened_url_id = ? AND day = ?",
+                sketch, urlId, Date.valueOf(day));
+    }
+
+    public List<byte[]> findSketches(long urlId, LocalDate from) {
+        return jdbcTemplate.queryForList(
+                "SELECT sketch FROM link_daily_uniques WHERE shortened_url_id = ? AND day >= ?",
+                byte[].class, urlId, Date.valueOf(from));
+    }
+}
@@ -0,0 +1,113 @@
+package com.petruth.urlshortener.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Batched deletes of expired links plus the maintenance_checkpoint row that tracks progress.
+ * Each method is one short statement; callers decide the transaction boundaries.
+ */
+@Repository
+public class LinkReaperRepository {
+
+    /**
+     * A claimed job: delete links that expired before {@code cutoff}, with id above {@code lastId}.
+     */
+    public record Checkpoint(LocalDateTime cutoff, long lastId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LinkReaperRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the job's lease if no other node holds it. An unfinished run (cutoff set) is resumed
+     * as-is; otherwise a new run starts at {@code newCutoff} from id 0.
+     *
+     * @return null if another node holds the lease
+     */
+    public Checkpoint claim(String job, LocalDateTime newCutoff, Duration lease) {
+        jdbcTemplate.update("INSERT INTO maintenance_checkpoint (job) VALUES (?) ON CONFLICT (job) DO NOTHING", job);
+        List<Checkpoint> claimed = jdbcTemplate.query(
+                "UPDATE maintenance_checkpoint " +
+                "SET cutoff = COALESCE(cutoff, ?), " +
+                "    last_id = CASE WHEN cutoff IS NULL THEN 0 ELSE last_id END, " +
+                "    locked_until = CURRENT_TIMESTAMP + make_interval(secs => ?), " +
+                "    updated_at = CURRENT_TIMESTAMP " +
+                "WHERE job = ? AND locked_until < CURRENT_TIMESTAMP " +
+                "RETURNING cutoff, last_id",
+                (rs, rowNum) -> new Checkpoint(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)),
+                Timestamp.valueOf(newCutoff), lease.toSeconds(), job);
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    /**
+     * Records progress and extends the lease; runs in the same transaction as the batch delete.
+     */
+    public void advance(String job, long lastId, Duration lease) {
+        jdbcTemplate.update(
+                "UPDATE maintenance_checkpoint SET last_id = ?, " +
+                "locked_until = CURRENT_TIMESTAMP + make_interval(secs => ?), updated_at = CURRENT_TIMESTAMP " +
+                "WHERE job = ?",
+                lastId, lease.toSeconds(), job);
+    }
+
+    /**
+     * Marks the run complete, so the next claim starts over with a fresh cutoff.
+     */
+    public void finish(String job) {
+        jdbcTemplate.update(
+                "UPDATE maintenance_checkpoint SET cutoff = NULL, locked_until = '-infinity', " +
+                "updated_at = CURRENT_TIMESTAMP WHERE job = ?",
+                job);
+    }
+
+    /**
+     * Gives the lease back without finishing, e.g. on shutdown; the checkpoint stays.
+     */
+    public void release(String job) {
+        jdbcTemplate.update("UPDATE maintenance_checkpoint SET locked_until = '-infinity' WHERE job = ?", job);
+    }
+
+    /**
+     * Upper id bound of the next batch: the id of the {@code limit}-th expired link after {@code afterId}.
+     *
+     * @return null when no expired links are left
+     */
+    public Long nextBatchEnd(LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM (" +
+                "SELECT id FROM shortened_url WHERE expires_at < ? AND id > ? ORDER BY id LIMIT ?) batch",
+                Long.class, Timestamp.valueOf(cutoff), afterId, limit);
+    }
+
+    /**
+     * Deletes at most {@code limit} clicks of the expired links in (fromId, toId], so links with
+     * huge histories don't turn the cascade into one giant statement.
+     */
+    public int deleteClicks(LocalDateTime cutoff, long fromId, long toId, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM click_analytics WHERE id IN (" +
+                "SELECT c.id FROM click_analytics c JOIN shortened_url s ON s.id = c.shortened_url_id " +
+                "WHERE s.id > ? AND s.id <= ? AND s.expires_at < ? LIMIT ?)",
+                fromId, toId, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Deletes the expired links in (fromId, toId]; remaining dependent rows cascade.
+     * Expiry is re-checked, so a link extended meanwhile survives.
+     *
+     * @return codes of the deleted links, for cache eviction
+     */
+    public List<String> deleteLinks(LocalDateTime cutoff, long fromId, long toId) {
+        return jdbcTemplate.queryForList(
+                "DELETE FROM shortened_url WHERE id > ? AND id <= ? AND expires_at < ? RETURNING code",
+                String.class, fromId, toId, Timestamp.valueOf(cutoff));
+    }
+}
@@ -1,7 +1,9 @@
 package com.petruth.urlshortener.repository;
 
+import com.petruth.urlshortener.dto.LinkExportRow;
 import com.petruth.urlshortener.entity.ShortenedUrl;
 import com.petruth.urlshortener.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -9,22 +11,45 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ShortenedUrlRepository extends JpaRepository<ShortenedUrl, Long>, JpaSpecificationExecutor<ShortenedUrl> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ShortenedUrlRepository extends JpaRepository<ShortenedUrl, Long>, JpaSpecificationExecutor<ShortenedUrl>,
+        ShortenedUrlRepositoryCustom {
 
     // ===== EXISTING METHODS =====
     boolean existsByCode(String code);
     Optional<ShortenedUrl> findByCode(String code);
     Optional<List<ShortenedUrl>> findByUser(User user);
 
-    @Modifying
-    @Query("DELETE FROM ShortenedUrl s WHERE s.expiresAt < :cutoffDate")
-    long deleteByExpiresAtBefore(LocalDateTime cutoffDate);
+    // Single round trip collision check for bulk code generation
+    @Query("SELECT s.code FROM ShortenedUrl s WHERE s.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    // Cache misses of a batch resolve, in one round trip
+    List<ShortenedUrl> findByCodeIn(Collection<String> codes);
+
+    @Query("SELECT s FROM ShortenedUrl s WHERE s.user = :user AND s.code IN :codes")
+    List<ShortenedUrl> findByUserAndCodeIn(@Param("user") User user, @Param("codes") Collection<String> codes);
+
+    // Forward-only cursor for exports - must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.petruth.urlshortener.dto.LinkExportRow(s.code, s.shortUrl, s.longUrl, " +
+            "s.dateCreated, s.expiresAt, s.clickCount, s.lastAccessed) " +
+            "FROM ShortenedUrl s WHERE s.user = :user ORDER BY s.id")
+    Stream<LinkExportRow> streamExportRowsByUser(@Param("user") User user);
 
     @Modifying
     @Query("UPDATE ShortenedUrl s SET s.clickCount = s.clickCount + 1, s.lastAccessed = :now WHERE s.code = :code")
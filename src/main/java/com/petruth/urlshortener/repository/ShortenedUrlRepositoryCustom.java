@@ -0,0 +1,23 @@
+package com.petruth.urlshortener.repository;
+
+import com.petruth.urlshortener.entity.ShortenedUrl;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ShortenedUrlRepositoryCustom {
+
+    /**
+     * Inserts all rows in a single JDBC batch.
+     * Rows whose code is already taken are skipped (ON CONFLICT DO NOTHING).
+     *
+     * @return one flag per input row, true if the row was inserted
+     */
+    boolean[] batchInsert(List<ShortenedUrl> urls);
+
+    /**
+     * Adds to bot_click_count in a single JDBC batch, ids in ascending order so concurrent
+     * flushes from several nodes lock rows in the same order. Deleted links are skipped.
+     */
+    void incrementBotClickCounts(Map<Long, Long> countsById);
+}
@@ -0,0 +1,80 @@
+package com.petruth.urlshortener.repository;
+
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Batched insert path for bulk operations, and the batched bot click counter flush.
+ * Hibernate can't batch IDENTITY inserts (and batching is disabled for PgBouncer anyway),
+ * so this goes straight through JDBC. JdbcTemplate joins the surrounding JPA transaction.
+ */
+class ShortenedUrlRepositoryImpl implements ShortenedUrlRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO shortened_url (long_url, short_url, code, date_created, expires_at, click_count, user_id, " +
+            "redirect_status, cache_max_age) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ShortenedUrlRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean[] batchInsert(List<ShortenedUrl> urls) {
+        boolean[] inserted = new boolean[urls.size()];
+        if (urls.isEmpty()) {
+            return inserted;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, urls, urls.size(), (ps, url) -> {
+            ps.setString(1, url.getLongUrl());
+            ps.setString(2, url.getShortUrl());
+            ps.setString(3, url.getCode());
+            ps.setTimestamp(4, now);
+            if (url.getExpiresAt() != null) {
+                ps.setTimestamp(5, Timestamp.valueOf(url.getExpiresAt()));
+            } else {
+                ps.setNull(5, Types.TIMESTAMP);
+            }
+            if (url.getUser() != null) {
+                ps.setLong(6, url.getUser().getId());
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setShort(7, url.getRedirectStatus());
+            ps.setInt(8, url.getCacheMaxAge());
+        });
+
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted[i++] = count != 0;
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void incrementBotClickCounts(Map<Long, Long> countsById) {
+        if (countsById.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> rows = List.copyOf(new TreeMap<>(countsById).entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE shortened_url SET bot_click_count = bot_click_count + ? WHERE id = ?",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setLong(1, row.getValue());
+                    ps.setLong(2, row.getKey());
+                });
+    }
+}
@@ -0,0 +1,100 @@
+package com.petruth.urlshortener.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The stripe_event inbox. Rows are written once per Stripe event id and applied in
+ * (created_at, received_at) order within their lane.
+ */
+@Repository
+public class StripeEventRepository {
+
+    public record PendingEvent(String eventId, String eventType, String payload, int attempts) {}
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StripeEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return false if the event was already recorded (a Stripe retry)
+     */
+    public boolean insert(String eventId, String eventType, String lane, LocalDateTime createdAt, String payload) {
+        return jdbcTemplate.update(
+                "INSERT INTO stripe_event (event_id, event_type, lane, created_at, payload) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (event_id) DO NOTHING",
+                eventId, eventType, lane, Timestamp.valueOf(createdAt), payload) == 1;
+    }
+
+    /**
+     * Lanes whose oldest pending event is due, oldest first.
+     */
+    public List<String> findDueLanes(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT lane FROM (" +
+                "SELECT DISTINCT ON (lane) lane, created_at, next_attempt_at FROM stripe_event " +
+                "WHERE processed_at IS NULL ORDER BY lane, created_at, received_at, event_id) heads " +
+                "WHERE next_attempt_at <= CURRENT_TIMESTAMP ORDER BY created_at LIMIT ?",
+                String.class, limit);
+    }
+
+    /**
+     * Takes the lane's transaction-scoped advisory lock, so one node applies a lane at a time.
+     * Must run inside a transaction.
+     *
+     * @return false if another node holds the lane
+     */
+    public boolean tryLockLane(String lane) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('stripe_event:' || ?))", Boolean.class, lane));
+    }
+
+    /**
+     * The lane's oldest pending event, if it is due. Call with the lane locked.
+     */
+    public Optional<PendingEvent> findHead(String lane) {
+        return jdbcTemplate.query(
+                "SELECT event_id, event_type, payload, attempts FROM (" +
+                "SELECT * FROM stripe_event WHERE lane = ? AND processed_at IS NULL " +
+                "ORDER BY created_at, received_at, event_id LIMIT 1) head " +
+                "WHERE next_attempt_at <= CURRENT_TIMESTAMP",
+                (rs, rowNum) -> new PendingEvent(rs.getString(1), rs.getString(2), rs.getString(3), rs.getInt(4)),
+                lane).stream().findFirst();
+    }
+
+    public void markProcessed(String eventId) {
+        jdbcTemplate.update(
+                "UPDATE stripe_event SET processed_at = CURRENT_TIMESTAMP, attempts = attempts + 1 WHERE event_id = ?",
+                eventId);
+    }
+
+    /**
+     * Records a failed attempt. The event is retried after {@code retryDelaySeconds},
+     * or given up on (processed with last_error set) when {@code giveUp} is true. Runs after the
+     * failed transaction rolled back, so it leaves an event another node applied meanwhile alone.
+     */
+    public void markFailed(String eventId, String error, long retryDelaySeconds, boolean giveUp) {
+        jdbcTemplate.update(
+                "UPDATE stripe_event SET attempts = attempts + 1, last_error = ?, " +
+                "next_attempt_at = CURRENT_TIMESTAMP + make_interval(secs => ?), " +
+                "processed_at = CASE WHEN ? THEN CURRENT_TIMESTAMP END WHERE event_id = ? AND processed_at IS NULL",
+                truncate(error), retryDelaySeconds, giveUp, eventId);
+    }
+
+    public int deleteProcessedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM stripe_event WHERE processed_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
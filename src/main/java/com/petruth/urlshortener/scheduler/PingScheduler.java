@@ -1,5 +1,6 @@
 package com.petruth.urlshortener.scheduler;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -12,8 +13,18 @@ public class PingScheduler {
 
     private static final String TARGET_URL = "https://quicklink-uln2.onrender.com/actuator/health";
 
+    private final boolean enabled;
+
+    // A plain flag rather than a condition, so AOT builds don't freeze it
+    public PingScheduler(@Value("${keepalive.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
     @Scheduled(cron = "0 */5 * * * *") // Every 5 minutes
     public void pingApp() {
+        if (!enabled) {
+            return;
+        }
         try {
             URL targetUrl = new URL(TARGET_URL);
             HttpURLConnection connection = (HttpURLConnection) targetUrl.openConnection();
@@ -1,13 +1,20 @@
 package com.petruth.urlshortener.service;
 
+import com.petruth.urlshortener.dto.ClickEvent;
+import com.petruth.urlshortener.dto.ClickRecorded;
+import com.petruth.urlshortener.dto.GeoLocation;
+import com.petruth.urlshortener.dto.UserAgentInfo;
 import com.petruth.urlshortener.entity.ClickAnalytics;
 import com.petruth.urlshortener.entity.ShortenedUrl;
 import com.petruth.urlshortener.repository.ClickAnalyticsRepository;
-import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.net.InetAddress;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -15,32 +22,71 @@ import java.util.stream.Collectors;
 public class AnalyticsService {
 
     private final ClickAnalyticsRepository analyticsRepository;
-
-    public AnalyticsService(ClickAnalyticsRepository analyticsRepository) {
+    private final UserAgentParser userAgentParser;
+    private final GeoIpService geoIpService;
+    private final ClickDimensionDictionary dimensions;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AnalyticsService(ClickAnalyticsRepository analyticsRepository,
+                            UserAgentParser userAgentParser,
+                            GeoIpService geoIpService,
+                            ClickDimensionDictionary dimensions,
+                            UniqueVisitorService uniqueVisitorService,
+                            ApplicationEventPublisher eventPublisher) {
         this.analyticsRepository = analyticsRepository;
+        this.userAgentParser = userAgentParser;
+        this.geoIpService = geoIpService;
+        this.dimensions = dimensions;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.eventPublisher = eventPublisher;
+    }
+    @Async("analyticsExecutor")
+    public void recordClick(ClickEvent click) {
+        record(click);
     }
-    @Async
-    public void recordClick(ShortenedUrl url, HttpServletRequest request) {
+
+    /**
+     * Synchronous variant, for callers that already run off the request thread
+     * and pace themselves.
+     */
+    public void record(ClickEvent click) {
         ClickAnalytics analytics = new ClickAnalytics();
-        analytics.setShortenedUrl(url);
-        analytics.setIpAddress(getClientIP(request));
-        analytics.setUserAgent(request.getHeader("User-Agent"));
-        analytics.setReferer(request.getHeader("Referer"));
+        analytics.setShortenedUrl(click.shortenedUrl());
+        analytics.setClickedAt(click.clickedAt());
+        InetAddress address = click.ipAddress() != null ? GeoIpService.parseLiteral(click.ipAddress()) : null;
+        analytics.setIpAddress(address);
 
-        // Parse user agent for device, browser, OS
-        String userAgent = request.getHeader("User-Agent");
+        // OPTIMIZED: One pass over the UA for device, browser and OS, memoised per UA string
+        String userAgent = click.userAgent();
         if (userAgent != null) {
-            analytics.setDeviceType(detectDeviceType(userAgent));
-            analytics.setBrowser(detectBrowser(userAgent));
-            analytics.setOs(detectOS(userAgent));
+            UserAgentInfo info = userAgentParser.parse(userAgent);
+            analytics.setDeviceType(info.deviceType());
+            analytics.setBrowser(info.browser());
+            analytics.setOs(info.os());
+            analytics.setUserAgentId(dimensions.userAgentId(userAgent, info));
         }
+        analytics.setRefererHostId(dimensions.refererHostId(click.referer()));
 
-        // Note: For geolocation, you'd need a service like MaxMind GeoIP2
-        // For now, we'll leave country/city as null or use a simple implementation
+        // NEW: Offline lookup against the local GeoIP file, cached per network prefix
+        GeoLocation location = geoIpService.locate(address);
+        analytics.setCountryId(dimensions.countryId(location.country()));
+        analytics.setCity(location.city());
 
         analyticsRepository.save(analytics);
+
+        // NEW: Unique visitors go into an in-memory HyperLogLog sketch, flushed periodically
+        uniqueVisitorService.record(click.shortenedUrl().getId(), click.clickedAt().toLocalDate(),
+                click.ipAddress(), click.userAgent());
+
+        // NEW: In-process event for the live SSE feed; listeners only touch memory
+        eventPublisher.publishEvent(new ClickRecorded(click.shortenedUrl().getCode(),
+                click.clickedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                analytics.getDeviceType(), analytics.getBrowser(), location.country()));
     }
 
+    // Read-only: the aggregations run on the replica when one is configured
+    @Transactional(readOnly = true)
     public Map<String, Object> getAnalyticsForUrl(ShortenedUrl url, int days) {
         Map<String, Object> analytics = new HashMap<>();
 
@@ -50,6 +96,9 @@ public class AnalyticsService {
         List<Object[]> dailyClicks = analyticsRepository.getClicksByDay(url, startDate);
         analytics.put("dailyClicks", formatDailyClicks(dailyClicks));
 
+        // Unique visitors (IP + User-Agent) over the same window, merged from daily sketches
+        analytics.put("uniqueVisitors", uniqueVisitorService.uniqueVisitors(url.getId(), startDate.toLocalDate()));
+
         // Country breakdown
         List<Object[]> countryClicks = analyticsRepository.getClicksByCountry(url);
         analytics.put("countries", formatBreakdown(countryClicks));
@@ -91,42 +140,4 @@ public class AnalyticsService {
                 })
                 .collect(Collectors.toList());
     }
-
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader != null && !xfHeader.isEmpty()) {
-            return xfHeader.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
-    private String detectDeviceType(String userAgent) {
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("mobile") || ua.contains("android") || ua.contains("iphone")) {
-            return "Mobile";
-        } else if (ua.contains("tablet") || ua.contains("ipad")) {
-            return "Tablet";
-        }
-        return "Desktop";
-    }
-
-    private String detectBrowser(String userAgent) {
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("edg")) return "Edge";
-        if (ua.contains("chrome")) return "Chrome";
-        if (ua.contains("firefox")) return "Firefox";
-        if (ua.contains("safari") && !ua.contains("chrome")) return "Safari";
-        if (ua.contains("opera") || ua.contains("opr")) return "Opera";
-        return "Other";
-    }
-
-    private String detectOS(String userAgent) {
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("windows")) return "Windows";
-        if (ua.contains("mac")) return "MacOS";
-        if (ua.contains("linux")) return "Linux";
-        if (ua.contains("android")) return "Android";
-        if (ua.contains("iphone") || ua.contains("ipad")) return "iOS";
-        return "Other";
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregate counter for redirects served to bots and prefetches, in place of a click_count
+ * UPDATE and a click_analytics row per hit. Counts are summed per link in memory and flushed
+ * as one JDBC batch, so a preview storm on one link costs one UPDATE per flush. A failed flush
+ * keeps its counts for the next round; counts not yet flushed are lost with the process.
+ */
+@Service
+public class BotClickCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(BotClickCounter.class);
+
+    private final ShortenedUrlRepository shortenedUrlRepository;
+    private final Map<Long, Long> counts = new ConcurrentHashMap<>();
+    private final Counter bots;
+    private final Counter prefetches;
+
+    public BotClickCounter(ShortenedUrlRepository shortenedUrlRepository, MeterRegistry meterRegistry) {
+        this.shortenedUrlRepository = shortenedUrlRepository;
+        this.bots = filtered(meterRegistry, ClickClassifier.Kind.BOT);
+        this.prefetches = filtered(meterRegistry, ClickClassifier.Kind.PREFETCH);
+    }
+
+    public void record(long urlId, ClickClassifier.Kind kind) {
+        counts.merge(urlId, 1L, Long::sum);
+        (kind == ClickClassifier.Kind.PREFETCH ? prefetches : bots).increment();
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${analytics.bot-clicks.flush-interval-ms:10000}")
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long urlId : counts.keySet()) {
+            // merge() and remove() are atomic per key, so a racing hit is either in this batch or the next
+            Long hits = counts.remove(urlId);
+            if (hits != null) {
+                batch.put(urlId, hits);
+            }
+        }
+        try {
+            shortenedUrlRepository.incrementBotClickCounts(batch);
+        } catch (DataAccessException e) {
+            batch.forEach((urlId, hits) -> counts.merge(urlId, hits, Long::sum));
+            log.warn("Bot click counter flush failed, retrying next round: {}", e.getMessage());
+        }
+    }
+
+    private static Counter filtered(MeterRegistry meterRegistry, ClickClassifier.Kind kind) {
+        return Counter.builder("quicklink.redirect.filtered")
+                .description("Redirects served without click tracking (bots, monitors, prefetches)")
+                .tag("kind", kind.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,165 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.entity.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Shortens a chunk of URLs in one go: validation, safety and premium
+ * custom-code rules per item, then one collision query and one batched
+ * insert for the whole chunk. Shared by /api/bulk-shorten and import jobs.
+ */
+@Service
+public class BulkShortenService {
+
+    private final ShortenedUrlServiceImpl shortenedUrlService;
+    private final UrlSafetyService urlSafetyService;
+    private final Validator validator;
+
+    public BulkShortenService(ShortenedUrlServiceImpl shortenedUrlService,
+                              UrlSafetyService urlSafetyService,
+                              Validator validator) {
+        this.shortenedUrlService = shortenedUrlService;
+        this.urlSafetyService = urlSafetyService;
+        this.validator = validator;
+    }
+
+    /**
+     * @return one result per request, in the same order
+     */
+    @Transactional
+    public List<BulkUrlResponse.UrlResult> shortenChunk(User user, List<UrlRequest> requests, String baseUrl) {
+        BulkUrlResponse.UrlResult[] results = new BulkUrlResponse.UrlResult[requests.size()];
+
+        // 1. Per-item validation
+        Map<String, Integer> customCodes = new LinkedHashMap<>();
+        List<Integer> randomCodeIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UrlRequest urlReq = requests.get(i);
+            String error = validate(user, urlReq);
+
+            if (error == null && hasCustomCode(urlReq)) {
+                String code = urlReq.customCode().trim();
+                if (customCodes.putIfAbsent(code, i) != null) {
+                    error = "Code '" + code + "' already taken";
+                }
+            } else if (error == null) {
+                randomCodeIndexes.add(i);
+            }
+
+            if (error != null) {
+                results[i] = failure(urlReq, error);
+            }
+        }
+
+        // 2. Custom code collisions - one query for the whole chunk
+        if (!customCodes.isEmpty()) {
+            for (String taken : shortenedUrlService.findExistingCodes(customCodes.keySet())) {
+                int i = customCodes.remove(taken);
+                results[i] = failure(requests.get(i), "Code '" + taken + "' already taken");
+            }
+        }
+
+        // 3. Build entities
+        List<Integer> indexes = new ArrayList<>();
+        List<ShortenedUrl> toInsert = new ArrayList<>();
+
+        customCodes.forEach((code, i) -> {
+            indexes.add(i);
+            toInsert.add(build(user, requests.get(i), code, baseUrl));
+        });
+
+        List<String> generated = shortenedUrlService.generateUniqueCodes(randomCodeIndexes.size());
+        for (int j = 0; j < randomCodeIndexes.size(); j++) {
+            int i = randomCodeIndexes.get(j);
+            indexes.add(i);
+            toInsert.add(build(user, requests.get(i), generated.get(j), baseUrl));
+        }
+
+        // 4. One batched insert; rows that lost a race on the unique code are reported
+        boolean[] inserted = shortenedUrlService.createAll(toInsert);
+        for (int j = 0; j < toInsert.size(); j++) {
+            int i = indexes.get(j);
+            ShortenedUrl url = toInsert.get(j);
+
+            if (inserted[j]) {
+                results[i] = new BulkUrlResponse.UrlResult(
+                        requests.get(i).url(), url.getShortUrl(), url.getCode(), true, null);
+            } else if (hasCustomCode(requests.get(i))) {
+                results[i] = failure(requests.get(i), "Code '" + url.getCode() + "' already taken");
+            } else {
+                results[i] = retryWithFreshCode(url, requests.get(i), baseUrl);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private String validate(User user, UrlRequest urlReq) {
+        if (urlReq == null || urlReq.url() == null || urlReq.url().trim().isEmpty()) {
+            return "URL is required";
+        }
+
+        Set<ConstraintViolation<UrlRequest>> violations = validator.validate(urlReq);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+
+        if (!urlSafetyService.isSafeUrl(urlReq.url())) {
+            return urlSafetyService.getSafetyMessage(urlReq.url());
+        }
+
+        if (hasCustomCode(urlReq) && !user.isPremium()) {
+            return "Custom codes require Premium";
+        }
+
+        return null;
+    }
+
+    private BulkUrlResponse.UrlResult retryWithFreshCode(ShortenedUrl url, UrlRequest urlReq, String baseUrl) {
+        String code = shortenedUrlService.generateUniqueCode();
+        url.setCode(code);
+        url.setShortUrl(baseUrl + "/api/" + code);
+
+        boolean[] inserted = shortenedUrlService.createAll(List.of(url));
+        return inserted[0]
+                ? new BulkUrlResponse.UrlResult(urlReq.url(), url.getShortUrl(), code, true, null)
+                : failure(urlReq, "Failed to create: code collision, please retry");
+    }
+
+    private ShortenedUrl build(User user, UrlRequest urlReq, String code, String baseUrl) {
+        ShortenedUrl shortenedUrl = new ShortenedUrl();
+        shortenedUrl.setLongUrl(urlReq.url());
+        shortenedUrl.setCode(code);
+        shortenedUrl.setShortUrl(baseUrl + "/api/" + code);
+        shortenedUrl.setUser(user);
+
+        if (urlReq.expirationDays() != null && urlReq.expirationDays() > 0) {
+            shortenedUrl.setExpiresAt(LocalDateTime.now().plusDays(urlReq.expirationDays()));
+        }
+        if (urlReq.redirectStatus() != null) {
+            shortenedUrl.setRedirectStatus(urlReq.redirectStatus().shortValue());
+        }
+        if (urlReq.cacheMaxAgeSeconds() != null) {
+            shortenedUrl.setCacheMaxAge(urlReq.cacheMaxAgeSeconds());
+        }
+        return shortenedUrl;
+    }
+
+    private static boolean hasCustomCode(UrlRequest urlReq) {
+        return urlReq.customCode() != null && !urlReq.customCode().trim().isEmpty();
+    }
+
+    private static BulkUrlResponse.UrlResult failure(UrlRequest urlReq, String error) {
+        return new BulkUrlResponse.UrlResult(urlReq != null ? urlReq.url() : null, null, null, false, error);
+    }
+}
@@ -0,0 +1,99 @@
+package com.petruth.urlshortener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.urlshortener.dto.UserAgentInfo;
+import com.petruth.urlshortener.repository.ClickDimensionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * In-memory value -> id dictionary in front of the click dimension tables.
+ * Ids never change once assigned, so entries can live until evicted; in steady state
+ * recording a click costs no dimension queries at all.
+ */
+@Service
+public class ClickDimensionDictionary {
+
+    static final int MAX_USER_AGENT_LENGTH = 500;
+    static final int MAX_HOST_LENGTH = 255;
+
+    private final ClickDimensionRepository repository;
+    private final Cache<String, Integer> userAgents;
+    private final Cache<String, Integer> refererHosts;
+    private final Cache<String, Short> countries;
+
+    public ClickDimensionDictionary(ClickDimensionRepository repository,
+                                    @Value("${analytics.dimension-cache-size:20000}") long cacheSize,
+                                    MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.userAgents = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        this.refererHosts = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        // A few hundred at most
+        this.countries = Caffeine.newBuilder().maximumSize(1_000).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userAgents, "dim-user-agents");
+        CaffeineCacheMetrics.monitor(meterRegistry, refererHosts, "dim-referer-hosts");
+        CaffeineCacheMetrics.monitor(meterRegistry, countries, "dim-countries");
+    }
+
+    public Integer userAgentId(String userAgent, UserAgentInfo info) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return null;
+        }
+        String key = truncate(userAgent, MAX_USER_AGENT_LENGTH);
+        return userAgents.get(key, ua -> repository.userAgentId(ua,
+                info != null ? info.browserVersion() : null,
+                info != null ? info.osVersion() : null));
+    }
+
+    public Integer refererHostId(String referer) {
+        String host = refererHost(referer);
+        if (host == null) {
+            return null;
+        }
+        return refererHosts.get(host, repository::refererHostId);
+    }
+
+    public Short countryId(String country) {
+        if (country == null || country.isEmpty()) {
+            return null;
+        }
+        return countries.get(country, repository::countryId);
+    }
+
+    /**
+     * Lower-cased host of an absolute referrer URL, or null. Matches the backfill in V5.
+     */
+    static String refererHost(String referer) {
+        if (referer == null) {
+            return null;
+        }
+        int scheme = referer.indexOf("://");
+        if (scheme <= 0) {
+            return null;
+        }
+        for (int i = 0; i < scheme; i++) {
+            if ("/?#:".indexOf(referer.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        int start = scheme + 3;
+        int end = start;
+        while (end < referer.length() && "/?#:".indexOf(referer.charAt(end)) < 0) {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        return truncate(referer.substring(start, end).toLowerCase(Locale.ROOT), MAX_HOST_LENGTH);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
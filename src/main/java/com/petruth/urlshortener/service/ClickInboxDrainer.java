@@ -0,0 +1,107 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.ClickEvent;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import com.petruth.urlshortener.redirect.ClickInbox;
+import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves clicks recorded by the standalone redirect server (click_inbox) through the normal
+ * analytics pipeline. Click counters were already updated by the redirect server; this only
+ * adds the per-click detail. Delivery is at most once, like the in-process async path.
+ *
+ * <p>Off unless click-inbox.enabled is set, i.e. only where the redirect server is deployed.
+ * The scheduler thread only claims a batch and loads its links; enrichment and inserts run on
+ * analyticsExecutor, whose full queue drops click detail just as it does for direct redirects.
+ * The redirect server keeps bots out of click_inbox; rows with a bot User-Agent written by an
+ * older redirect server are skipped here too.
+ */
+@Service
+public class ClickInboxDrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickInboxDrainer.class);
+
+    private final ClickInbox inbox;
+    private final ShortenedUrlRepository shortenedUrlRepository;
+    private final AnalyticsService analyticsService;
+    private final ClickClassifier clickClassifier;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter drained;
+
+    public ClickInboxDrainer(DataSource dataSource,
+                             ShortenedUrlRepository shortenedUrlRepository,
+                             AnalyticsService analyticsService,
+                             ClickClassifier clickClassifier,
+                             MeterRegistry meterRegistry,
+                             @Value("${click-inbox.enabled:false}") boolean enabled,
+                             @Value("${click-inbox.batch-size:200}") int batchSize,
+                             @Value("${click-inbox.max-batches-per-run:5}") int maxBatchesPerRun) {
+        this.inbox = new ClickInbox(dataSource);
+        this.shortenedUrlRepository = shortenedUrlRepository;
+        this.analyticsService = analyticsService;
+        this.clickClassifier = clickClassifier;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.drained = Counter.builder("quicklink.click_inbox.drained")
+                .description("Clicks from the redirect server moved into click_analytics")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${click-inbox.drain-interval-ms:1000}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<ClickInbox.RawClick> clicks = inbox.drain(batchSize);
+                record(clicks);
+                if (clicks.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not drain click_inbox: {}", e.getMessage());
+        }
+    }
+
+    private void record(List<ClickInbox.RawClick> clicks) {
+        if (clicks.isEmpty()) {
+            return;
+        }
+        List<Long> ids = clicks.stream().map(ClickInbox.RawClick::urlId).distinct().toList();
+        Map<Long, ShortenedUrl> urls = shortenedUrlRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ShortenedUrl::getId, Function.identity()));
+
+        for (ClickInbox.RawClick click : clicks) {
+            ShortenedUrl url = urls.get(click.urlId());
+            if (url == null) {
+                continue; // Deleted since the click
+            }
+            if (clickClassifier.classifyHeaders(click.userAgent()) != ClickClassifier.Kind.HUMAN) {
+                continue;
+            }
+            analyticsService.recordClick(new ClickEvent(url, click.clickedAt(),
+                    click.ipAddress(), click.userAgent(), click.referer()));
+            drained.increment();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.ClickExportRow;
+import com.petruth.urlshortener.dto.ExportFormat;
+import com.petruth.urlshortener.dto.LinkExportRow;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.ClickAnalyticsRepository;
+import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's links or one link's clicks straight to the response.
+ *
+ * <p>Rows come from forward-only, fetch-size-tuned cursors over DTO projections,
+ * so heap use is constant regardless of row count. The read-only transaction
+ * (and with it the pooled connection) lives exactly as long as the export.
+ */
+@Service
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String LINKS_HEADER =
+            "code,short_url,long_url,date_created,expires_at,click_count,last_accessed";
+    private static final String CLICKS_HEADER =
+            "clicked_at,ip_address,user_agent,referer_host,country,city,device_type,browser,os";
+
+    private final ShortenedUrlRepository shortenedUrlRepository;
+    private final ClickAnalyticsRepository clickAnalyticsRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate exportTransaction;
+
+    public ExportService(ShortenedUrlRepository shortenedUrlRepository,
+                         ClickAnalyticsRepository clickAnalyticsRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${export.transaction-timeout-seconds:1800}") int timeoutSeconds) {
+        this.shortenedUrlRepository = shortenedUrlRepository;
+        this.clickAnalyticsRepository = clickAnalyticsRepository;
+        this.objectMapper = objectMapper;
+
+        // The global 30s default timeout is far too short for a multi-million row cursor
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
+        this.exportTransaction.setTimeout(timeoutSeconds);
+    }
+
+    public void exportLinks(User user, ExportFormat format, OutputStream out) {
+        exportTransaction.executeWithoutResult(status -> {
+            try (Stream<LinkExportRow> rows = shortenedUrlRepository.streamExportRowsByUser(user)) {
+                write(rows, format, LINKS_HEADER, this::toCsv, out);
+            }
+        });
+    }
+
+    public void exportClicks(ShortenedUrl url, ExportFormat format, OutputStream out) {
+        exportTransaction.executeWithoutResult(status -> {
+            try (Stream<ClickExportRow> rows = clickAnalyticsRepository.streamExportRowsByUrl(url)) {
+                write(rows, format, CLICKS_HEADER, this::toCsv, out);
+            }
+        });
+    }
+
+    private <T> void write(Stream<T> rows, ExportFormat format, String csvHeader,
+                           Function<T, String> csvLine, OutputStream out) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            if (format == ExportFormat.CSV) {
+                writer.write(csvHeader);
+                writer.write('\n');
+            }
+
+            int count = 0;
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writer.write(format == ExportFormat.CSV ? csvLine.apply(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Client went away - abort the cursor and release the connection
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsv(LinkExportRow row) {
+        return String.join(",",
+                csv(row.code()), csv(row.shortUrl()), csv(row.longUrl()),
+                csv(row.dateCreated()), csv(row.expiresAt()),
+                csv(row.clickCount()), csv(row.lastAccessed()));
+    }
+
+    private String toCsv(ClickExportRow row) {
+        return String.join(",",
+                csv(row.clickedAt()), csv(row.ipAddress()), csv(row.userAgent()),
+                csv(row.refererHost()), csv(row.country()), csv(row.city()),
+                csv(row.deviceType()), csv(row.browser()), csv(row.os()));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Quote when needed; a leading =,+,-,@ is neutralised so spreadsheets don't run it as a formula
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,176 @@
+package com.petruth.urlshortener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.urlshortener.dto.GeoLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+/**
+ * Offline country / city lookup against a local MaxMind DB file (GeoLite2-City or compatible).
+ *
+ * <p>The file is memory-mapped, so there are no network calls and no per-lookup I/O.
+ * It's re-checked every minute; a new file (replace it with an atomic rename, not in place)
+ * is mapped and swapped in while lookups continue against the old one.
+ * Results are cached per /24 (IPv4) or /48 (IPv6) prefix, which is how repeat visitors
+ * and their neighbours usually arrive.
+ *
+ * <p>With no geoip.database-path configured, every lookup returns {@link GeoLocation#UNKNOWN}.
+ */
+@Service
+public class GeoIpService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIpService.class);
+
+    private final Path databasePath;
+    private final String language;
+    private final Cache<Long, GeoLocation> prefixCache;
+
+    private volatile MaxMindDbReader reader;
+    private volatile FileTime loadedModified;
+
+    public GeoIpService(@Value("${geoip.database-path:}") String databasePath,
+                        @Value("${geoip.language:en}") String language,
+                        @Value("${geoip.cache-size:50000}") long cacheSize,
+                        MeterRegistry meterRegistry) {
+        this.databasePath = databasePath.isBlank() ? null : Path.of(databasePath);
+        this.language = language;
+        this.prefixCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, prefixCache, "geoip");
+
+        if (this.databasePath == null) {
+            log.info("geoip.database-path not set; click geolocation disabled");
+        } else {
+            reloadIfChanged();
+        }
+    }
+
+    public GeoLocation locate(InetAddress address) {
+        MaxMindDbReader current = reader;
+        if (current == null || address == null) {
+            return GeoLocation.UNKNOWN;
+        }
+
+        return prefixCache.get(prefixKey(address.getAddress()), key -> resolve(current, address));
+    }
+
+    /**
+     * Picks up a replaced database file. Mapping happens here, never on the analytics workers.
+     */
+    @Scheduled(fixedDelayString = "${geoip.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (databasePath == null) {
+            return;
+        }
+        try {
+            if (!Files.isReadable(databasePath)) {
+                if (reader == null) {
+                    log.warn("GeoIP database {} not found; click geolocation disabled until it appears", databasePath);
+                }
+                return;
+            }
+            FileTime modified = Files.getLastModifiedTime(databasePath);
+            if (modified.equals(loadedModified)) {
+                return;
+            }
+
+            MaxMindDbReader fresh = MaxMindDbReader.open(databasePath);
+            reader = fresh;
+            loadedModified = modified;
+            prefixCache.invalidateAll();
+            log.info("Loaded GeoIP database {} ({}, built {})",
+                    databasePath, fresh.getDatabaseType(), fresh.getBuildEpoch());
+        } catch (IOException | RuntimeException e) {
+            // Keep serving from the previous file rather than losing geolocation altogether
+            log.error("Failed to load GeoIP database {}", databasePath, e);
+        }
+    }
+
+    private GeoLocation resolve(MaxMindDbReader current, InetAddress address) {
+        try {
+            Object record = current.lookup(address);
+            if (!(record instanceof Map<?, ?> map)) {
+                return GeoLocation.UNKNOWN;
+            }
+            return new GeoLocation(name(map.get("country")), name(map.get("city")));
+        } catch (RuntimeException e) {
+            log.debug("GeoIP lookup failed for {}", address, e);
+            return GeoLocation.UNKNOWN;
+        }
+    }
+
+    private String name(Object section) {
+        if (!(section instanceof Map<?, ?> map) || !(map.get("names") instanceof Map<?, ?> names)) {
+            return null;
+        }
+        Object name = names.get(language);
+        if (name == null) {
+            name = names.get("en");
+        }
+        return name != null ? name.toString() : null;
+    }
+
+    /**
+     * /24 for IPv4, /48 for IPv6; IPv4 keys have the top bit set so the two never collide.
+     */
+    static long prefixKey(byte[] ip) {
+        if (ip.length == 4) {
+            return Long.MIN_VALUE | ((ip[0] & 0xFFL) << 16) | ((ip[1] & 0xFFL) << 8) | (ip[2] & 0xFFL);
+        }
+        long key = 0;
+        for (int i = 0; i < 6; i++) {
+            key = (key << 8) | (ip[i] & 0xFFL);
+        }
+        return key;
+    }
+
+    /**
+     * IP literal only. X-Forwarded-For is client-controlled, so a hostname here must
+     * never reach InetAddress.getByName and trigger a DNS lookup.
+     */
+    static InetAddress parseLiteral(String ip) {
+        try {
+            if (ip.indexOf(':') >= 0) {
+                // Hex digits and colons (plus an embedded IPv4 tail) are parsed as a literal, never resolved
+                boolean literal = ip.charAt(0) != '.'
+                        && ip.chars().allMatch(c -> c < 128 && Character.digit(c, 16) >= 0 || c == ':' || c == '.');
+                return literal ? InetAddress.getByName(ip) : null;
+            }
+            String[] parts = ip.split("\\.", -1);
+            if (parts.length != 4) {
+                return null;
+            }
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                String part = parts[i];
+                if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                    return null;
+                }
+                int value = Integer.parseInt(part);
+                if (value > 255) {
+                    return null;
+                }
+                bytes[i] = (byte) value;
+            }
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
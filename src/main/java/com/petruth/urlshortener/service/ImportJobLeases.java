@@ -0,0 +1,87 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.repository.ImportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which import jobs this node holds, and the heartbeat that keeps their leases alive while
+ * they wait in the import queue or run a long chunk. A node that stops stops renewing, and
+ * other nodes resume its jobs once the lease has run out.
+ */
+@Component
+public class ImportJobLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobLeases.class);
+
+    static final EnumSet<ImportJob.Status> ACTIVE = EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lease;
+    // Unique per process: a restarted node must not mistake its predecessor's jobs for its own
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+    public ImportJobLeases(ImportJobRepository importJobRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${import.lease-seconds:120}") long leaseSeconds) {
+        this.importJobRepository = importJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * @return when a lease taken or renewed now runs out
+     */
+    public LocalDateTime expiry() {
+        return LocalDateTime.now().plus(lease);
+    }
+
+    public void hold(Long jobId) {
+        held.add(jobId);
+    }
+
+    public void release(Long jobId) {
+        held.remove(jobId);
+    }
+
+    public boolean isHeld(Long jobId) {
+        return held.contains(jobId);
+    }
+
+    @Scheduled(fixedDelayString = "${import.lease-renew-interval-ms:30000}")
+    public void renew() {
+        if (held.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(held);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    importJobRepository.renewLeases(ids, owner, expiry(), ACTIVE));
+        } catch (DataAccessException e) {
+            log.warn("Could not renew import job leases {}: {}", ids, e.getMessage());
+        }
+    }
+}
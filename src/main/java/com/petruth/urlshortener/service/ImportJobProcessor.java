@@ -0,0 +1,295 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.ImportJobResult;
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.ImportJobRepository;
+import com.petruth.urlshortener.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs an import job in the background, one chunk per transaction.
+ *
+ * <p>Each chunk commits its links together with the job checkpoint
+ * (source byte offset + results file size). Results are appended to the
+ * results file before the commit, so on resume the file is truncated back
+ * to the last committed size and the chunk is simply replayed.
+ *
+ * <p>A job is claimed before it runs and every checkpoint is conditional on still
+ * holding it (see {@link ImportJobLeases}), so two nodes never process the same job.
+ */
+@Service
+public class ImportJobProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobProcessor.class);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobLeases leases;
+    private final UserRepository userRepository;
+    private final BulkShortenService bulkShortenService;
+    private final UrlRequestLineParser lineParser;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    public ImportJobProcessor(ImportJobRepository importJobRepository,
+                              ImportJobLeases leases,
+                              UserRepository userRepository,
+                              BulkShortenService bulkShortenService,
+                              UrlRequestLineParser lineParser,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate) {
+        this.importJobRepository = importJobRepository;
+        this.leases = leases;
+        this.userRepository = userRepository;
+        this.bulkShortenService = bulkShortenService;
+        this.lineParser = lineParser;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async("importExecutor")
+    public void process(Long jobId) {
+        leases.hold(jobId);
+        try {
+            if (!claim(jobId)) {
+                log.debug("Import job {} is held by another node or already finished", jobId);
+                return;
+            }
+            runClaimed(jobId);
+        } finally {
+            leases.release(jobId);
+        }
+    }
+
+    private boolean claim(Long jobId) {
+        Integer claimed = transactionTemplate.execute(status -> importJobRepository.claim(jobId, leases.owner(),
+                leases.expiry(), LocalDateTime.now(), ImportJob.Status.QUEUED, ImportJob.Status.RUNNING));
+        return claimed != null && claimed == 1;
+    }
+
+    private void runClaimed(Long jobId) {
+        ImportJob job = importJobRepository.findById(jobId).orElseThrow();
+        log.info("Import job {} started at byte {} / {}", jobId, job.getBytesProcessed(), job.getSourceBytes());
+
+        try {
+            User user = userRepository.findById(job.getUser().getId())
+                    .orElseThrow(() -> new IllegalStateException("Job owner no longer exists"));
+
+            run(job, user);
+
+            if (!finish(jobId, ImportJob.Status.COMPLETED, null)) {
+                throw new LeaseLostException(jobId);
+            }
+            Files.deleteIfExists(Path.of(job.getSourcePath()));
+
+            job = importJobRepository.findById(jobId).orElseThrow();
+            log.info("Import job {} completed: {} created, {} failed", jobId, job.getSuccessful(), job.getFailed());
+        } catch (LeaseLostException e) {
+            // Our lease ran out (e.g. a long pause) and another node resumed the job from our
+            // last checkpoint; the chunk in flight was rolled back, so just stop
+            log.warn(e.getMessage());
+        } catch (Exception e) {
+            log.error("Import job {} failed", jobId, e);
+            try {
+                finish(jobId, ImportJob.Status.FAILED, truncate(e.getMessage()));
+            } catch (RuntimeException finishError) {
+                log.warn("Could not mark import job {} failed, it resumes once its lease runs out: {}",
+                        jobId, finishError.getMessage());
+            }
+        }
+    }
+
+    private boolean finish(Long jobId, ImportJob.Status status, String errorMessage) {
+        Integer finished = transactionTemplate.execute(tx -> importJobRepository.finish(jobId, leases.owner(),
+                status, errorMessage, LocalDateTime.now(), ImportJob.Status.RUNNING));
+        return finished != null && finished == 1;
+    }
+
+    private void run(ImportJob job, User user) throws IOException {
+        Path source = Path.of(job.getSourcePath());
+        if (!Files.exists(source)) {
+            throw new IllegalStateException("Upload is no longer available, please re-submit the file");
+        }
+
+        try (FileChannel results = FileChannel.open(Path.of(job.getResultPath()),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+
+            // Drop anything written after the last committed checkpoint
+            results.truncate(job.getResultBytes());
+            results.position(job.getResultBytes());
+            input.position(job.getBytesProcessed());
+
+            InputStream in = Channels.newInputStream(input);
+            LineReader reader = new LineReader(in, job.getBytesProcessed());
+            long lineNumber = job.getLinesProcessed();
+
+            while (true) {
+                List<Long> lineNumbers = new ArrayList<>(chunkSize);
+                List<String> lines = new ArrayList<>(chunkSize);
+
+                String line;
+                while (lines.size() < chunkSize && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && lineParser.isHeader(line, job.getFormat()))) {
+                        continue;
+                    }
+                    lineNumbers.add(lineNumber);
+                    lines.add(line);
+                }
+
+                if (lines.isEmpty() && reader.getPosition() == job.getBytesProcessed()) {
+                    break; // end of file, nothing left to checkpoint
+                }
+
+                processChunk(job, user, lineNumbers, lines, reader.getPosition(), lineNumber, results);
+                job.setBytesProcessed(reader.getPosition());
+                job.setLinesProcessed(lineNumber);
+                job.setResultBytes(results.position());
+            }
+        }
+    }
+
+    private void processChunk(ImportJob job, User user, List<Long> lineNumbers, List<String> lines,
+                              long bytesProcessed, long linesProcessed, FileChannel results) {
+        List<UrlRequest> requests = new ArrayList<>(lines.size());
+        List<String> parseErrors = new ArrayList<>(lines.size());
+
+        for (String line : lines) {
+            try {
+                requests.add(lineParser.parse(line, job.getFormat()));
+                parseErrors.add(null);
+            } catch (IllegalArgumentException e) {
+                requests.add(null);
+                parseErrors.add(e.getMessage());
+            }
+        }
+
+        List<UrlRequest> parsed = requests.stream().filter(r -> r != null).toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<BulkUrlResponse.UrlResult> created =
+                        bulkShortenService.shortenChunk(user, parsed, job.getBaseUrl());
+                checkpoint(job, lineNumbers, lines, requests, parseErrors, created,
+                        bytesProcessed, linesProcessed, results);
+            });
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // One bad row poisoned the batch - isolate it by going row by row.
+            // Rows committed here may be replayed if we crash mid-chunk.
+            log.warn("Import job {}: chunk failed ({}), retrying row by row", job.getId(), e.getMessage());
+            rewind(results, job.getResultBytes());
+
+            List<BulkUrlResponse.UrlResult> created = new ArrayList<>(parsed.size());
+            for (UrlRequest request : parsed) {
+                try {
+                    created.add(transactionTemplate.execute(status ->
+                            bulkShortenService.shortenChunk(user, List.of(request), job.getBaseUrl()).get(0)));
+                } catch (RuntimeException rowError) {
+                    created.add(new BulkUrlResponse.UrlResult(request.url(), null, null, false,
+                            "Failed to create: " + rowError.getMessage()));
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    checkpoint(job, lineNumbers, lines, requests, parseErrors, created,
+                            bytesProcessed, linesProcessed, results));
+        }
+    }
+
+    private void checkpoint(ImportJob job, List<Long> lineNumbers, List<String> lines,
+                            List<UrlRequest> requests, List<String> parseErrors,
+                            List<BulkUrlResponse.UrlResult> created,
+                            long bytesProcessed, long linesProcessed, FileChannel results) {
+        StringBuilder out = new StringBuilder();
+        long successful = 0;
+        long failed = 0;
+        int next = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            BulkUrlResponse.UrlResult result = requests.get(i) != null
+                    ? created.get(next++)
+                    : new BulkUrlResponse.UrlResult(lines.get(i), null, null, false, parseErrors.get(i));
+
+            if (result.success()) {
+                successful++;
+            } else {
+                failed++;
+            }
+            out.append(objectMapper.writeValueAsString(ImportJobResult.of(lineNumbers.get(i), result))).append('\n');
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                results.write(buffer);
+            }
+            results.force(false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write import results", e);
+        }
+
+        int recorded;
+        try {
+            recorded = importJobRepository.recordProgress(job.getId(), leases.owner(), bytesProcessed,
+                    linesProcessed, results.position(), successful, failed, leases.expiry(),
+                    LocalDateTime.now(), ImportJob.Status.RUNNING);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read results position", e);
+        }
+        if (recorded == 0) {
+            throw new LeaseLostException(job.getId());
+        }
+    }
+
+    /**
+     * Thrown inside a chunk's transaction when another node has taken the job over.
+     */
+    static class LeaseLostException extends IllegalStateException {
+        LeaseLostException(Long jobId) {
+            super("Import job " + jobId + " was taken over by another node, stopping here");
+        }
+    }
+
+    private static void rewind(FileChannel results, long committedBytes) {
+        try {
+            results.truncate(committedBytes);
+            results.position(committedBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not rewind import results", e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Unknown error";
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,169 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.config.ReadRouting;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.ImportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private static final EnumSet<ImportJob.Status> ACTIVE =
+            EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobProcessor importJobProcessor;
+    private final ImportJobLeases leases;
+    private final ObjectMapper objectMapper;
+    private final Path storageDir;
+
+    public ImportJobService(ImportJobRepository importJobRepository,
+                            ImportJobProcessor importJobProcessor,
+                            ImportJobLeases leases,
+                            ObjectMapper objectMapper,
+                            @Value("${import.storage-dir}") String storageDir) {
+        this.importJobRepository = importJobRepository;
+        this.importJobProcessor = importJobProcessor;
+        this.leases = leases;
+        this.objectMapper = objectMapper;
+        this.storageDir = Path.of(storageDir);
+    }
+
+    /**
+     * Streams the upload to disk (never into memory), records the job and queues it.
+     */
+    public ImportJob createJob(User user, MultipartFile file, ImportJob.Format format, String baseUrl)
+            throws IOException {
+        Files.createDirectories(storageDir);
+
+        String key = UUID.randomUUID().toString();
+        Path source = storageDir.resolve(key + ".src");
+        Path results = storageDir.resolve(key + ".results.ndjson");
+
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, source);
+        }
+        Files.createFile(results);
+
+        ImportJob job = new ImportJob();
+        job.setUser(user);
+        job.setFormat(format);
+        job.setOriginalFilename(file.getOriginalFilename());
+        job.setSourcePath(source.toString());
+        job.setResultPath(results.toString());
+        job.setSourceBytes(Files.size(source));
+        job.setBaseUrl(baseUrl);
+        // The upload is on this node's disk: hold the job until our own worker claims it
+        job.setOwner(leases.owner());
+        job.setLeaseUntil(leases.expiry());
+        job = importJobRepository.save(job);
+
+        leases.hold(job.getId());
+        try {
+            importJobProcessor.process(job.getId());
+        } catch (RuntimeException e) {
+            leases.release(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public boolean hasActiveJob(User user) {
+        return importJobRepository.existsByUserAndStatusIn(user, ACTIVE);
+    }
+
+    public Optional<ImportJob> findForUser(Long id, User user) {
+        return importJobRepository.findByIdAndUser(id, user);
+    }
+
+    /**
+     * Copies the committed part of the results file to the response.
+     * Bytes past the checkpoint belong to an uncommitted chunk and are never exposed.
+     */
+    public void writeResults(ImportJob job, boolean failedOnly, OutputStream out) throws IOException {
+        Path results = Path.of(job.getResultPath());
+        if (!Files.exists(results)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(results, StandardOpenOption.READ)) {
+            if (!failedOnly) {
+                long position = 0;
+                var target = Channels.newChannel(out);
+                while (position < job.getResultBytes()) {
+                    position += channel.transferTo(position, job.getResultBytes() - position, target);
+                }
+                return;
+            }
+
+            InputStream in = Channels.newInputStream(channel);
+            LineReader reader = new LineReader(in, 0);
+            String line;
+            while (reader.getPosition() < job.getResultBytes() && (line = reader.readLine()) != null) {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.path("success").asBoolean()) {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks up jobs that were queued or mid-flight on a node that stopped (this one before a
+     * restart, or another one), once their lease has run out. Jobs still leased are left alone,
+     * so during a rolling deploy the old node finishes what it is running.
+     */
+    @Scheduled(fixedDelayString = "${import.resume-interval-ms:60000}")
+    public void resumePendingJobs() {
+        List<ImportJob> pending;
+        try {
+            pending = ReadRouting.onPrimary(() -> importJobRepository.findUnleased(ACTIVE, LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.warn("Could not look for import jobs to resume: {}", e.getMessage());
+            return;
+        }
+        for (ImportJob job : pending) {
+            if (leases.isHeld(job.getId())) {
+                continue; // Already queued here
+            }
+            log.info("Resuming import job {} from line {}", job.getId(), job.getLinesProcessed());
+            // Held from now, not from when a worker picks it up, so later runs don't queue it again
+            leases.hold(job.getId());
+            try {
+                importJobProcessor.process(job.getId());
+            } catch (TaskRejectedException e) {
+                leases.release(job.getId());
+                log.warn("Import queue is full, resuming the remaining jobs later");
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.petruth.urlshortener.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a stream while tracking the exact byte offset,
+ * which is what import jobs checkpoint on so they can seek back on resume.
+ * Over-long lines are truncated instead of being buffered whole.
+ */
+public class LineReader {
+
+    private static final int MAX_LINE_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private long position;
+    private boolean atStart;
+
+    public LineReader(InputStream in, long startPosition) {
+        this.in = new BufferedInputStream(in, 64 * 1024);
+        this.position = startPosition;
+        this.atStart = startPosition == 0;
+    }
+
+    /**
+     * @return the next line without its terminator, or null at end of stream
+     */
+    public String readLine() throws IOException {
+        buffer.reset();
+        int b;
+        boolean read = false;
+
+        while ((b = in.read()) != -1) {
+            read = true;
+            position++;
+            if (b == '\n') {
+                break;
+            }
+            if (buffer.size() < MAX_LINE_BYTES) {
+                buffer.write(b);
+            }
+        }
+
+        if (!read) {
+            return null;
+        }
+
+        String line = buffer.toString(StandardCharsets.UTF_8);
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        if (atStart && line.startsWith("\uFEFF")) {
+            line = line.substring(1); // UTF-8 BOM
+        }
+        atStart = false;
+        return line;
+    }
+
+    /**
+     * Byte offset just past the last line returned
+     */
+    public long getPosition() {
+        return position;
+    }
+}
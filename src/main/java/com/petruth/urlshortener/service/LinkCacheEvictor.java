@@ -0,0 +1,39 @@
+package com.petruth.urlshortener.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Drops every in-memory copy of a link (redirect cache, rendered QR codes) once it is deleted.
+ * Used wherever links disappear outside the annotated {@code ShortenedUrlService.delete}.
+ */
+@Component
+public class LinkCacheEvictor {
+
+    private final CacheManager cacheManager;
+    private final QRCodeService qrCodeService;
+
+    public LinkCacheEvictor(CacheManager cacheManager, QRCodeService qrCodeService) {
+        this.cacheManager = cacheManager;
+        this.qrCodeService = qrCodeService;
+    }
+
+    public void evict(String code) {
+        evict(List.of(code));
+    }
+
+    public void evict(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return;
+        }
+        Cache urls = cacheManager.getCache("urls");
+        if (urls != null) {
+            codes.forEach(urls::evict);
+        }
+        qrCodeService.evict(codes);
+    }
+}
@@ -1,33 +1,181 @@
 package com.petruth.urlshortener.service;
 
-import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import com.petruth.urlshortener.repository.LinkReaperRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Reaps links that expired more than a week ago.
+ *
+ * <p>OPTIMIZED: Instead of one DELETE in one transaction, links are deleted in id-ordered batches,
+ * each in its own short transaction that also advances a checkpoint in maintenance_checkpoint.
+ * A restarted node resumes from the last committed batch, and the checkpoint row doubles as a
+ * lease so only one node reaps at a time. Clicks are deleted ahead of their links in bounded
+ * chunks, so no single statement has to cascade through a huge click history.
+ *
+ * <p>A run takes minutes of batches and pauses, so the schedule only hands it to the
+ * single-threaded reaperExecutor and the shared scheduler thread moves straight on.
+ */
 @Service
 public class LinkCleanupService {
 
-    private final ShortenedUrlRepository shortenedUrlRepository;
+    private static final Logger log = LoggerFactory.getLogger(LinkCleanupService.class);
 
-    public LinkCleanupService(ShortenedUrlRepository shortenedUrlRepository) {
-        this.shortenedUrlRepository = shortenedUrlRepository;
+    static final String JOB = "expired-links";
+
+    private final LinkReaperRepository reaperRepository;
+    private final LinkCacheEvictor cacheEvictor;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor reaperExecutor;
+
+    private final int batchSize;
+    private final int clickBatchSize;
+    private final Duration pause;
+    private final Duration lease;
+    private final Duration retention;
+
+    private final Counter linksReaped;
+    private final Counter clicksReaped;
+    private final DistributionSummary linksPerRun;
+    private final Timer runTimer;
+
+    private volatile boolean stopping;
+
+    public LinkCleanupService(LinkReaperRepository reaperRepository,
+                              LinkCacheEvictor cacheEvictor,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("reaperExecutor") TaskExecutor reaperExecutor,
+                              MeterRegistry meterRegistry,
+                              @Value("${reaper.batch-size:500}") int batchSize,
+                              @Value("${reaper.click-batch-size:5000}") int clickBatchSize,
+                              @Value("${reaper.pause-ms:200}") long pauseMs,
+                              @Value("${reaper.lease-seconds:300}") long leaseSeconds,
+                              @Value("${reaper.retention-days:7}") long retentionDays) {
+        this.reaperRepository = reaperRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reaperExecutor = reaperExecutor;
+        this.batchSize = batchSize;
+        this.clickBatchSize = clickBatchSize;
+        this.pause = Duration.ofMillis(pauseMs);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+
+        this.linksReaped = Counter.builder("quicklink.reaper.links")
+                .description("Expired links deleted by the reaper")
+                .register(meterRegistry);
+        this.clicksReaped = Counter.builder("quicklink.reaper.clicks")
+                .description("Clicks of expired links deleted by the reaper")
+                .register(meterRegistry);
+        this.linksPerRun = DistributionSummary.builder("quicklink.reaper.run.links")
+                .description("Links deleted per reaper run")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("quicklink.reaper.run")
+                .description("Reaper run duration, pauses included")
+                .register(meterRegistry);
     }
 
     // Run every day at 3 AM
-    @Scheduled(cron = "0 0 3 * * ?")
-    @Transactional
+    @Scheduled(cron = "${reaper.cron:0 0 3 * * ?}")
+    public void scheduleReaper() {
+        try {
+            reaperExecutor.execute(() -> {
+                try {
+                    deleteExpiredLinks();
+                } catch (RuntimeException e) {
+                    log.warn("Expired-link reaper could not start, will retry on the next run: {}", e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.info("Expired-link reaper is still running from the previous trigger, skipping");
+        }
+    }
+
     public void deleteExpiredLinks() {
-        LocalDateTime now = LocalDateTime.now();
-        // Delete links that expired more than 7 days ago
-        LocalDateTime cutoff = now.minusDays(7);
+        LinkReaperRepository.Checkpoint checkpoint =
+                reaperRepository.claim(JOB, LocalDateTime.now().minus(retention), lease);
+        if (checkpoint == null) {
+            log.info("Expired-link reaper is running on another node, skipping");
+            return;
+        }
+        if (checkpoint.lastId() > 0) {
+            log.info("Resuming expired-link reaper after id {} (cutoff {})", checkpoint.lastId(), checkpoint.cutoff());
+        }
 
-        long deleted = shortenedUrlRepository.deleteByExpiresAtBefore(cutoff);
+        long reaped = runTimer.record(() -> reap(checkpoint));
+        linksPerRun.record(reaped);
+        if (reaped > 0) {
+            log.info("Deleted {} expired links", reaped);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private long reap(LinkReaperRepository.Checkpoint checkpoint) {
+        LocalDateTime cutoff = checkpoint.cutoff();
+        long lastId = checkpoint.lastId();
+        long reaped = 0;
+
+        try {
+            while (!stopping) {
+                Long batchEnd = reaperRepository.nextBatchEnd(cutoff, lastId, batchSize);
+                if (batchEnd == null) {
+                    reaperRepository.finish(JOB);
+                    return reaped;
+                }
+
+                long from = lastId;
+                int clicks;
+                do {
+                    clicks = reaperRepository.deleteClicks(cutoff, from, batchEnd, clickBatchSize);
+                    clicksReaped.increment(clicks);
+                } while (clicks == clickBatchSize && !stopping);
+
+                List<String> codes = transactionTemplate.execute(status -> {
+                    List<String> deleted = reaperRepository.deleteLinks(cutoff, from, batchEnd);
+                    reaperRepository.advance(JOB, batchEnd, lease);
+                    return deleted;
+                });
+                // After commit, so a concurrent read can't re-cache a row that is about to go
+                cacheEvictor.evict(codes);
+                linksReaped.increment(codes.size());
+                reaped += codes.size();
+                lastId = batchEnd;
+
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Expired-link reaper stopped after id {}, will resume on the next run: {}", lastId, e.getMessage());
+        }
 
-        if (deleted > 0) {
-            System.out.println("Deleted " + deleted + " expired links");
+        // Stopped early: keep the checkpoint, hand the lease back
+        try {
+            reaperRepository.release(JOB);
+        } catch (RuntimeException e) {
+            log.debug("Could not release reaper lease, it expires on its own: {}", e.getMessage());
         }
+        return reaped;
     }
-}
\ No newline at end of file
+}
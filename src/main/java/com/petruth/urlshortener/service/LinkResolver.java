@@ -0,0 +1,68 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.config.ReadRouting;
+import com.petruth.urlshortener.dto.ResolvedLink;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import com.petruth.urlshortener.repository.ShortenedUrlRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch lookup for link checkers and previewers: the same entries GET /api/{code} redirects from,
+ * without recording a click. Hits come from the redirect cache; all misses are loaded with one
+ * IN query on the primary and cached, as {@code findByCodeForRedirect} would have.
+ */
+@Service
+public class LinkResolver {
+
+    private final ShortenedUrlRepository shortenedUrlRepository;
+    private final CacheManager cacheManager;
+
+    public LinkResolver(ShortenedUrlRepository shortenedUrlRepository, CacheManager cacheManager) {
+        this.shortenedUrlRepository = shortenedUrlRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @return one entry per code, in the given order
+     */
+    public List<ResolvedLink> resolve(Collection<String> codes) {
+        Cache urls = cacheManager.getCache("urls");
+        Map<String, ShortenedUrl> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        for (String code : codes) {
+            ShortenedUrl cached = urls != null ? urls.get(code, ShortenedUrl.class) : null;
+            if (cached != null) {
+                found.put(code, cached);
+            } else {
+                misses.add(code);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            // Same reasoning as single redirects: a link is shared the moment it's created
+            for (ShortenedUrl url : ReadRouting.onPrimary(() -> shortenedUrlRepository.findByCodeIn(misses))) {
+                found.put(url.getCode(), url);
+                if (urls != null) {
+                    urls.put(url.getCode(), url);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ResolvedLink> resolved = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            resolved.add(ResolvedLink.from(code, found.get(code), now));
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,243 @@
+package com.petruth.urlshortener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petruth.urlshortener.dto.ClickRecorded;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live click feed per link over SSE, served entirely from memory.
+ *
+ * <p>Every recorded click lands in its link's per-minute ring (last 60 minutes).
+ * A new subscriber gets that ring as a "snapshot" event; after that, once a second,
+ * links that saw clicks push an "update" with the current minute's count and the
+ * newest clicks. No viewer ever causes a DB query. The scheduler only collects updates;
+ * sending happens on liveExecutor, so a slow client can't hold up other scheduled jobs,
+ * and a link whose previous update is still being written is skipped until it's done.
+ * At most live.max-subscribers streams are open at once.
+ *
+ * <p>Only links nobody is watching count towards live.max-links or expire: a feed with
+ * subscribers weighs nothing, so clicks on other links can't evict it from under its streams.
+ *
+ * <p>In-process only: with several instances each one streams the clicks it handled.
+ */
+@Service
+public class LiveClickService {
+
+    static final int MINUTES = 60;
+    private static final int RECENT_PER_UPDATE = 20;
+    private static final long IDLE_EXPIRY_NANOS = Duration.ofMinutes(MINUTES + 5).toNanos();
+
+    private final Cache<String, LinkFeed> feeds;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final TaskExecutor liveExecutor;
+
+    public LiveClickService(@Value("${live.max-links:20000}") long maxLinks,
+                            @Value("${live.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                            @Value("${live.max-subscribers:1000}") int maxSubscribers,
+                            @Qualifier("liveExecutor") TaskExecutor liveExecutor) {
+        this.feeds = Caffeine.newBuilder()
+                .maximumWeight(maxLinks)
+                .weigher((String code, LinkFeed feed) -> feed.subscribers.isEmpty() ? 1 : 0)
+                .expireAfter(new Expiry<String, LinkFeed>() {
+                    @Override
+                    public long expireAfterCreate(String code, LinkFeed feed, long currentTime) {
+                        return idleExpiry(feed);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String code, LinkFeed feed, long currentTime, long currentDuration) {
+                        return idleExpiry(feed);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String code, LinkFeed feed, long currentTime, long currentDuration) {
+                        return idleExpiry(feed);
+                    }
+                })
+                .build();
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.liveExecutor = liveExecutor;
+    }
+
+    // Links idle for over an hour have nothing left to show
+    private static long idleExpiry(LinkFeed feed) {
+        return feed.subscribers.isEmpty() ? IDLE_EXPIRY_NANOS : Long.MAX_VALUE;
+    }
+
+    @EventListener
+    public void onClick(ClickRecorded click) {
+        feeds.get(click.code(), code -> new LinkFeed()).record(click);
+    }
+
+    /**
+     * The emitter times out after live.emitter-timeout-ms; EventSource reconnects and gets a fresh snapshot.
+     *
+     * @return empty when live.max-subscribers streams are already open
+     */
+    public Optional<SseEmitter> subscribe(String code) throws IOException {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+        LinkFeed snapshotFeed = feeds.get(code, c -> new LinkFeed());
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshotFeed.snapshot(), MediaType.APPLICATION_JSON));
+        } catch (IOException | RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+
+        // Joined inside compute, so the feed is re-weighed before anything can evict it.
+        // If it went while the snapshot was sent, it is put back (or a newer one is joined).
+        LinkFeed feed = feeds.asMap().compute(code, (c, current) -> {
+            LinkFeed joined = current != null ? current : snapshotFeed;
+            joined.subscribers.add(emitter);
+            return joined;
+        });
+        emitter.onCompletion(() -> unsubscribe(code, feed, emitter));
+        emitter.onTimeout(() -> unsubscribe(code, feed, emitter));
+        emitter.onError(e -> unsubscribe(code, feed, emitter));
+        return Optional.of(emitter);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void pushUpdates() {
+        for (Map.Entry<String, LinkFeed> entry : feeds.asMap().entrySet()) {
+            String code = entry.getKey();
+            LinkFeed feed = entry.getValue();
+            if (feed.subscribers.isEmpty() || !feed.sending.compareAndSet(false, true)) {
+                continue;
+            }
+            Map<String, Object> update = feed.drainUpdate();
+            if (update == null) {
+                feed.sending.set(false);
+                continue;
+            }
+            try {
+                liveExecutor.execute(() -> send(code, feed, update));
+            } catch (TaskRejectedException e) {
+                // Senders are saturated; this update is dropped, the next one carries the current count
+                feed.sending.set(false);
+            }
+        }
+    }
+
+    private void send(String code, LinkFeed feed, Map<String, Object> update) {
+        try {
+            for (SseEmitter emitter : feed.subscribers) {
+                try {
+                    emitter.send(SseEmitter.event().name("update").data(update, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the completion callback may not have fired yet
+                    unsubscribe(code, feed, emitter);
+                }
+            }
+        } finally {
+            feed.sending.set(false);
+        }
+    }
+
+    private void unsubscribe(String code, LinkFeed feed, SseEmitter emitter) {
+        // Callbacks and failed sends can both get here for the same emitter
+        if (feed.subscribers.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+            if (feed.subscribers.isEmpty()) {
+                // Weight and expiry are computed on write: count the feed against live.max-links again
+                feeds.asMap().computeIfPresent(code, (c, current) -> current);
+            }
+        }
+    }
+
+    /**
+     * Per-minute click counts for the last hour plus the clicks since the last update.
+     */
+    private static final class LinkFeed {
+
+        final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        private final int[] counts = new int[MINUTES];
+        private long headMinute;
+        private final List<ClickRecorded> recent = new ArrayList<>();
+        private int unsent;
+
+        synchronized void record(ClickRecorded click) {
+            long minute = click.timestamp() / 60_000;
+            advance(minute);
+            if (minute <= headMinute - MINUTES) {
+                return; // Late click (e.g. drained from click_inbox) older than the window
+            }
+            counts[(int) (minute % MINUTES)]++;
+            unsent++;
+            if (recent.size() == RECENT_PER_UPDATE) {
+                recent.remove(0);
+            }
+            recent.add(click);
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            advance(System.currentTimeMillis() / 60_000);
+            int[] ordered = new int[MINUTES];
+            for (int i = 0; i < MINUTES; i++) {
+                // Oldest first, ending with the current minute
+                ordered[i] = counts[(int) ((headMinute - MINUTES + 1 + i) % MINUTES)];
+            }
+            return Map.of("minute", headMinute * 60_000, "counts", ordered);
+        }
+
+        synchronized Map<String, Object> drainUpdate() {
+            advance(System.currentTimeMillis() / 60_000);
+            if (unsent == 0) {
+                return null;
+            }
+            Map<String, Object> update = Map.of(
+                    "minute", headMinute * 60_000,
+                    "count", counts[(int) (headMinute % MINUTES)],
+                    "newClicks", unsent,
+                    "recent", List.copyOf(recent));
+            unsent = 0;
+            recent.clear();
+            return update;
+        }
+
+        private void advance(long minute) {
+            if (minute <= headMinute) {
+                return;
+            }
+            long steps = Math.min(minute - headMinute, MINUTES);
+            for (long m = minute - steps + 1; m <= minute; m++) {
+                counts[(int) (m % MINUTES)] = 0;
+            }
+            headMinute = minute;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.petruth.urlshortener.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal reader for MaxMind DB (.mmdb) files such as GeoLite2-City / DB-IP City Lite.
+ *
+ * <p>The file is memory-mapped read-only, so lookups are plain buffer reads with no
+ * I/O calls and the OS page cache is shared between instances. Each lookup works on
+ * its own duplicate of the buffer, which makes the reader safe for concurrent use.
+ *
+ * <p>Format: https://maxmind.github.io/MaxMind-DB/
+ */
+public final class MaxMindDbReader {
+
+    private static final byte[] METADATA_MARKER = metadataMarker();
+    private static final int METADATA_MAX_SIZE = 128 * 1024;
+    private static final int DATA_SECTION_SEPARATOR = 16;
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int recordSize;
+    private final int ipVersion;
+    private final int dataSectionStart;
+    private final int ipv4Start;
+    private final String databaseType;
+    private final long buildEpoch;
+
+    private MaxMindDbReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        int metadataStart = findMetadataStart(buffer);
+        Map<?, ?> metadata = (Map<?, ?>) new Decoder(buffer, metadataStart).decode(metadataStart);
+        this.nodeCount = ((Number) metadata.get("node_count")).intValue();
+        this.recordSize = ((Number) metadata.get("record_size")).intValue();
+        this.ipVersion = ((Number) metadata.get("ip_version")).intValue();
+        this.databaseType = String.valueOf(metadata.get("database_type"));
+        this.buildEpoch = ((Number) metadata.get("build_epoch")).longValue();
+
+        if (recordSize != 24 && recordSize != 28 && recordSize != 32) {
+            throw new IllegalStateException("Unsupported MMDB record size: " + recordSize);
+        }
+        this.dataSectionStart = nodeCount * recordSize / 4 + DATA_SECTION_SEPARATOR;
+        this.ipv4Start = ipVersion == 6 ? findIpv4Start() : 0;
+    }
+
+    public static MaxMindDbReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MaxMindDbReader(mapped);
+        }
+    }
+
+    public String getDatabaseType() { return databaseType; }
+    public long getBuildEpoch() { return buildEpoch; }
+
+    /**
+     * @return the decoded record (maps, lists, strings, numbers) or null when the address isn't in the database
+     */
+    public Object lookup(InetAddress address) {
+        byte[] ip = address.getAddress();
+        if (ip.length == 16 && ipVersion == 4) {
+            return null;
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        int node = ip.length == 4 ? ipv4Start : 0;
+        int bitCount = ip.length * 8;
+
+        for (int i = 0; i < bitCount && node < nodeCount; i++) {
+            int bit = 1 & (ip[i >> 3] >> (7 - (i & 7)));
+            node = readRecord(view, node, bit);
+        }
+
+        if (node <= nodeCount) {
+            // == nodeCount means "no data"; < nodeCount can't happen for a full-length key
+            return null;
+        }
+        int offset = node - nodeCount - DATA_SECTION_SEPARATOR;
+        return new Decoder(view, dataSectionStart).decode(dataSectionStart + offset);
+    }
+
+    private int findIpv4Start() {
+        ByteBuffer view = buffer.duplicate();
+        int node = 0;
+        for (int i = 0; i < 96 && node < nodeCount; i++) {
+            node = readRecord(view, node, 0);
+        }
+        return node;
+    }
+
+    private int readRecord(ByteBuffer view, int node, int index) {
+        int base = node * recordSize / 4;
+        return switch (recordSize) {
+            case 24 -> readUnsigned(view, base + index * 3, 3);
+            case 28 -> {
+                int middle = view.get(base + 3) & 0xFF;
+                yield index == 0
+                        ? ((middle & 0xF0) << 20) | readUnsigned(view, base, 3)
+                        : ((middle & 0x0F) << 24) | readUnsigned(view, base + 4, 3);
+            }
+            default -> readUnsigned(view, base + index * 4, 4);
+        };
+    }
+
+    private static int readUnsigned(ByteBuffer view, int position, int size) {
+        int value = 0;
+        for (int i = 0; i < size; i++) {
+            value = (value << 8) | (view.get(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private static byte[] metadataMarker() {
+        byte[] name = "MaxMind.com".getBytes(StandardCharsets.US_ASCII);
+        byte[] marker = new byte[3 + name.length];
+        marker[0] = (byte) 0xAB;
+        marker[1] = (byte) 0xCD;
+        marker[2] = (byte) 0xEF;
+        System.arraycopy(name, 0, marker, 3, name.length);
+        return marker;
+    }
+
+    private static int findMetadataStart(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int stop = Math.max(0, limit - METADATA_MAX_SIZE);
+        outer:
+        for (int i = limit - METADATA_MARKER.length; i >= stop; i--) {
+            for (int j = 0; j < METADATA_MARKER.length; j++) {
+                if (buffer.get(i + j) != METADATA_MARKER[j]) {
+                    continue outer;
+                }
+            }
+            return i + METADATA_MARKER.length;
+        }
+        throw new IllegalStateException("Not a MaxMind DB file (metadata marker missing)");
+    }
+
+    /**
+     * Data section decoder. Pointers are relative to the section start.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer view;
+        private final int pointerBase;
+        private int position;
+
+        Decoder(ByteBuffer view, int pointerBase) {
+            this.view = view;
+            this.pointerBase = pointerBase;
+        }
+
+        Object decode(int offset) {
+            position = offset;
+            return next();
+        }
+
+        private Object next() {
+            int control = view.get(position++) & 0xFF;
+            int type = control >>> 5;
+
+            if (type == 1) {
+                int target = pointerBase + pointer(control);
+                int resume = position;
+                position = target;
+                Object value = next();
+                position = resume;
+                return value;
+            }
+            if (type == 0) {
+                type = 7 + (view.get(position++) & 0xFF);
+            }
+
+            int size = control & 0x1F;
+            if (size >= 29) {
+                int extra = size - 28;
+                int bytes = readUnsigned(view, position, extra);
+                position += extra;
+                size = switch (extra) {
+                    case 1 -> 29 + bytes;
+                    case 2 -> 285 + bytes;
+                    default -> 65_821 + bytes;
+                };
+            }
+
+            return switch (type) {
+                case 2 -> string(size);
+                case 3 -> {
+                    double value = view.getDouble(position);
+                    position += 8;
+                    yield value;
+                }
+                case 4 -> {
+                    byte[] bytes = new byte[size];
+                    view.get(position, bytes);
+                    position += size;
+                    yield bytes;
+                }
+                case 5, 6 -> {
+                    long value = readLong(size);
+                    yield type == 5 ? (Object) (int) value : (Object) value;
+                }
+                case 7 -> map(size);
+                case 8 -> (int) readLong(size);
+                case 9, 10 -> bigInteger(size);
+                case 11 -> array(size);
+                case 14 -> size != 0;
+                case 15 -> {
+                    float value = view.getFloat(position);
+                    position += 4;
+                    yield value;
+                }
+                default -> throw new IllegalStateException("Unsupported MMDB data type " + type);
+            };
+        }
+
+        private int pointer(int control) {
+            int sizeBits = (control >>> 3) & 0x3;
+            int high = control & 0x7;
+            int value = switch (sizeBits) {
+                case 0 -> (high << 8) | readUnsigned(view, position, 1);
+                case 1 -> ((high << 16) | readUnsigned(view, position, 2)) + 2_048;
+                case 2 -> ((high << 24) | readUnsigned(view, position, 3)) + 526_336;
+                default -> readUnsigned(view, position, 4);
+            };
+            position += sizeBits + 1;
+            return value;
+        }
+
+        private String string(int size) {
+            byte[] bytes = new byte[size];
+            view.get(position, bytes);
+            position += size;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long readLong(int size) {
+            long value = 0;
+            for (int i = 0; i < size; i++) {
+                value = (value << 8) | (view.get(position++) & 0xFF);
+            }
+            return value;
+        }
+
+        private BigInteger bigInteger(int size) {
+            byte[] bytes = new byte[size];
+            view.get(position, bytes);
+            position += size;
+            return new BigInteger(1, bytes);
+        }
+
+        private Map<String, Object> map(int size) {
+            Map<String, Object> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String key = String.valueOf(next());
+                map.put(key, next());
+            }
+            return map;
+        }
+
+        private List<Object> array(int size) {
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(next());
+            }
+            return list;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.ImportJobResult;
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming variant of /api/bulk-shorten: NDJSON in, NDJSON out.
+ * Lines are read in small chunks, each chunk is committed through
+ * BulkShortenService and its results are flushed right away, so memory
+ * per request stays at one chunk no matter how long the body is.
+ */
+@Service
+public class NdjsonBulkShortenService {
+
+    private final BulkShortenService bulkShortenService;
+    private final UrlRequestLineParser lineParser;
+    private final ObjectMapper objectMapper;
+
+    @Value("${bulk.stream.chunk-size:50}")
+    private int chunkSize;
+
+    public NdjsonBulkShortenService(BulkShortenService bulkShortenService,
+                                    UrlRequestLineParser lineParser,
+                                    ObjectMapper objectMapper) {
+        this.bulkShortenService = bulkShortenService;
+        this.lineParser = lineParser;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param maxLines tier limit; input past it is answered with a single error line
+     */
+    public void stream(User user, InputStream in, OutputStream out, String baseUrl, int maxLines)
+            throws IOException {
+        LineReader reader = new LineReader(in, 0);
+        long lineNumber = 0;
+        long accepted = 0;
+
+        List<Long> lineNumbers = new ArrayList<>(chunkSize);
+        List<String> lines = new ArrayList<>(chunkSize);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (++accepted > maxLines) {
+                writeChunk(user, lineNumbers, lines, out, baseUrl);
+                out.write(objectMapper.writeValueAsBytes(Map.of(
+                        "line", lineNumber,
+                        "success", false,
+                        "error", "Maximum " + maxLines + " URLs per request. Use an import job for larger batches."
+                )));
+                out.write('\n');
+                out.flush();
+                return;
+            }
+
+            lineNumbers.add(lineNumber);
+            lines.add(line);
+
+            if (lines.size() == chunkSize) {
+                writeChunk(user, lineNumbers, lines, out, baseUrl);
+            }
+        }
+
+        writeChunk(user, lineNumbers, lines, out, baseUrl);
+    }
+
+    private void writeChunk(User user, List<Long> lineNumbers, List<String> lines,
+                            OutputStream out, String baseUrl) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        List<UrlRequest> requests = new ArrayList<>(lines.size());
+        List<BulkUrlResponse.UrlResult> results = new ArrayList<>(lines.size());
+
+        for (String line : lines) {
+            try {
+                requests.add(lineParser.parseNdjson(line));
+                results.add(null);
+            } catch (IllegalArgumentException e) {
+                requests.add(null);
+                results.add(new BulkUrlResponse.UrlResult(line, null, null, false, e.getMessage()));
+            }
+        }
+
+        List<UrlRequest> parsed = requests.stream().filter(r -> r != null).toList();
+        List<BulkUrlResponse.UrlResult> created;
+        try {
+            created = bulkShortenService.shortenChunk(user, parsed, baseUrl);
+        } catch (RuntimeException e) {
+            created = parsed.stream()
+                    .map(r -> new BulkUrlResponse.UrlResult(r.url(), null, null, false,
+                            "Failed to create: " + e.getMessage()))
+                    .toList();
+        }
+
+        int next = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            BulkUrlResponse.UrlResult result = results.get(i) != null ? results.get(i) : created.get(next++);
+            out.write(objectMapper.writeValueAsString(ImportJobResult.of(lineNumbers.get(i), result))
+                    .getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+        out.flush();
+
+        lineNumbers.clear();
+        lines.clear();
+    }
+}
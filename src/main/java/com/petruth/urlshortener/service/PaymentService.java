@@ -27,6 +27,12 @@ public class PaymentService {
                 .setCustomerEmail(user.getEmail())
                 .setClientReferenceId(user.getId().toString())
                 .putMetadata("userId", user.getId().toString())
+                // Subscription events name only the customer; this finds the user before checkout completes
+                .setSubscriptionData(
+                        SessionCreateParams.SubscriptionData.builder()
+                                .putMetadata("userId", user.getId().toString())
+                                .build()
+                )
                 .addLineItem(
                         SessionCreateParams.LineItem.builder()
                                 .setPrice(priceId)
@@ -0,0 +1,44 @@
+package com.petruth.urlshortener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.urlshortener.dto.PremiumStatusChanged;
+import com.petruth.urlshortener.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Premium flag per email for checks that run on every page view (the ad banner).
+ *
+ * <p>Entries are dropped once a Stripe event that changes the flag commits. Other instances
+ * only catch up when their entry expires, so anything that gates a paid feature reads
+ * the user instead.
+ */
+@Service
+public class PremiumStatusCache {
+
+    private final UserService userService;
+    private final Cache<String, Boolean> premiumByEmail;
+
+    public PremiumStatusCache(UserService userService,
+                              @Value("${premium-cache.max-entries:10000}") long maxEntries,
+                              @Value("${premium-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userService = userService;
+        this.premiumByEmail = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public boolean isPremium(String email) {
+        return premiumByEmail.get(email, e -> userService.findByEmail(e).map(User::isPremium).orElse(false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPremiumStatusChanged(PremiumStatusChanged event) {
+        premiumByEmail.invalidate(event.email());
+    }
+}
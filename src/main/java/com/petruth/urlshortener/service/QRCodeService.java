@@ -1,18 +1,86 @@
 package com.petruth.urlshortener.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import com.petruth.urlshortener.dto.QRCodeFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Set;
 
 @Service
 public class QRCodeService {
 
+    public static final int MIN_SIZE = 64;
+    public static final int MAX_SIZE = 1024;
+
+    /**
+     * A rendered image plus its strong ETag, computed once when the entry is created
+     */
+    public record RenderedQRCode(byte[] bytes, String etag, QRCodeFormat format) {}
+
+    private record Key(String code, int size, QRCodeFormat format) {}
+
+    // NEW: Rendered images are immutable per (code, size, format), so encode once and serve from memory.
+    // Weighted by byte size so a burst of large variants can't blow the heap.
+    private final Cache<Key, RenderedQRCode> cache;
+
+    public QRCodeService(@Value("${qr.cache.max-bytes:33554432}") long maxBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, RenderedQRCode image) -> image.bytes().length)
+                .expireAfterAccess(Duration.ofHours(24))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "qrcodes");
+    }
+
+    public RenderedQRCode render(String code, String text, int size, QRCodeFormat format) {
+        return cache.get(new Key(code, size, format), key -> {
+            try {
+                byte[] bytes = format == QRCodeFormat.SVG
+                        ? generateSvg(text, size)
+                        : generateQRCode(text, size, size);
+                return new RenderedQRCode(bytes, etag(bytes), format);
+            } catch (WriterException e) {
+                throw new IllegalArgumentException("Cannot encode QR code for " + code, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Drops every size/format variant for a code, e.g. when the link is deleted.
+     */
+    public void evict(String code) {
+        cache.asMap().keySet().removeIf(key -> key.code().equals(code));
+    }
+
+    /**
+     * Batch form of {@link #evict(String)}: one pass over the cache for any number of codes.
+     */
+    public void evict(Collection<String> codes) {
+        Set<String> doomed = Set.copyOf(codes);
+        cache.asMap().keySet().removeIf(key -> doomed.contains(key.code()));
+    }
+
     public byte[] generateQRCode(String text, int width, int height) throws WriterException, IOException {
         QRCodeWriter qrCodeWriter = new QRCodeWriter();
         BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
@@ -22,4 +90,46 @@ public class QRCodeService {
 
         return outputStream.toByteArray();
     }
-}
\ No newline at end of file
+
+    /**
+     * One path with a horizontal run per row segment. The matrix is encoded at
+     * module resolution (1px per module, quiet zone included) and scaled by the viewBox.
+     */
+    public byte[] generateSvg(String text, int size) throws WriterException {
+        BitMatrix matrix = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 0, 0);
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        StringBuilder path = new StringBuilder(width * height);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 " + width + " " + height
+                + "\" width=\"" + size + "\" height=\"" + size + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
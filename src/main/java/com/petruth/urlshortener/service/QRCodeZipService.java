@@ -0,0 +1,109 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.QRCodeFormat;
+import com.petruth.urlshortener.entity.ShortenedUrl;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders QR codes on the shared qrExecutor and writes each one into a ZIP
+ * as soon as it is ready. At most {@code window} images are in flight per
+ * request, so memory is bounded by the pool size rather than the code count.
+ */
+@Service
+public class QRCodeZipService {
+
+    private final QRCodeService qrCodeService;
+    private final ThreadPoolTaskExecutor qrExecutor;
+
+    public QRCodeZipService(QRCodeService qrCodeService,
+                            @Qualifier("qrExecutor") ThreadPoolTaskExecutor qrExecutor) {
+        this.qrCodeService = qrCodeService;
+        this.qrExecutor = qrExecutor;
+    }
+
+    private record Entry(String name, QRCodeService.RenderedQRCode image) {}
+
+    public void writeZip(Collection<ShortenedUrl> urls, Collection<String> missing,
+                         int size, QRCodeFormat format, OutputStream out) throws IOException {
+        CompletionService<Entry> completion = new ExecutorCompletionService<>(qrExecutor.getThreadPoolExecutor());
+        int window = Math.max(1, qrExecutor.getMaxPoolSize());
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Iterator<ShortenedUrl> pending = urls.iterator();
+        int inFlight = 0;
+
+        try {
+            while (inFlight < window && pending.hasNext()) {
+                submit(completion, pending.next(), size, format);
+                inFlight++;
+            }
+
+            while (inFlight > 0) {
+                Entry entry = completion.take().get();
+                inFlight--;
+                if (pending.hasNext()) {
+                    submit(completion, pending.next(), size, format);
+                    inFlight++;
+                }
+                write(zip, entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("QR code rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("QR code rendering failed", e.getCause());
+        }
+
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("not-found.txt"));
+            zip.write(String.join("\n", missing).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        zip.finish();
+        zip.flush();
+    }
+
+    private void submit(CompletionService<Entry> completion, ShortenedUrl url, int size, QRCodeFormat format) {
+        String code = url.getCode();
+        String shortUrl = url.getShortUrl();
+        completion.submit(() -> new Entry(
+                "qrcode-" + code + "." + format.getExtension(),
+                qrCodeService.render(code, shortUrl, size, format)));
+    }
+
+    private static void write(ZipOutputStream zip, Entry entry) throws IOException {
+        byte[] bytes = entry.image().bytes();
+        ZipEntry zipEntry = new ZipEntry(entry.name());
+
+        // PNG is already deflated - store it as-is instead of burning CPU on a second pass
+        if (entry.image().format() == QRCodeFormat.PNG) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(bytes.length);
+            zipEntry.setCompressedSize(bytes.length);
+            zipEntry.setCrc(crc.getValue());
+        }
+
+        zip.putNextEntry(zipEntry);
+        zip.write(bytes);
+        zip.closeEntry();
+        zip.flush();
+    }
+}
@@ -6,18 +6,23 @@ import com.petruth.urlshortener.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ShortenedUrlService {
     String generateUniqueCode();
+    List<String> generateUniqueCodes(int count);
     ShortenedUrl save(ShortenedUrl shortenedUrl);
     ShortenedUrl findByCode(String code);
     List<ShortenedUrl> findByUser(User user);
     boolean existsByCode(String code);
+    List<String> findExistingCodes(Collection<String> codes);
+    List<ShortenedUrl> findByUserAndCodes(User user, Collection<String> codes);
     void delete(ShortenedUrl url);
 
     // NEW: Optimized methods for cache management
     ShortenedUrl createNew(ShortenedUrl shortenedUrl);
+    boolean[] createAll(List<ShortenedUrl> shortenedUrls);
     void incrementClickCount(String code);
     ShortenedUrl findByCodeForRedirect(String code);
 
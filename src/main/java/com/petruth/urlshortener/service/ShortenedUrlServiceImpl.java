@@ -1,5 +1,6 @@
 package com.petruth.urlshortener.service;
 
+import com.petruth.urlshortener.config.ReadRouting;
 import com.petruth.urlshortener.dto.LinkSearchRequest;
 import com.petruth.urlshortener.entity.ShortenedUrl;
 import com.petruth.urlshortener.entity.User;
@@ -16,8 +17,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 @Service
 @CacheConfig(cacheNames = "urls")
@@ -43,11 +48,42 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
                 codeChars[i] = alphabet.charAt(randomIndex);
             }
             code = new String(codeChars);
-        } while (shortenedUrlRepository.existsByCode(code));
+        } while (existsByCode(code));
 
         return code;
     }
 
+    /**
+     * NEW: Generates a batch of codes with one collision query per round
+     * instead of one existsByCode() round trip per code
+     */
+    @Override
+    public List<String> generateUniqueCodes(int count) {
+        Set<String> codes = new LinkedHashSet<>();
+
+        while (codes.size() < count) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (candidates.size() < count - codes.size()) {
+                String candidate = randomCode();
+                if (!codes.contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            findExistingCodes(candidates).forEach(candidates::remove);
+            codes.addAll(candidates);
+        }
+
+        return new ArrayList<>(codes);
+    }
+
+    private String randomCode() {
+        char[] codeChars = new char[numberOfCharacters];
+        for (int i = 0; i < numberOfCharacters; i++) {
+            codeChars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(codeChars);
+    }
+
     /**
      * CHANGED: Use @CachePut instead of @CacheEvict for updates
      * This updates the cache entry instead of clearing everything
@@ -59,18 +95,31 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     /**
-     * NEW: Special method for creating new URLs (clears cache)
+     * NEW: Special method for creating new URLs.
+     * CHANGED: Evicts only the new code instead of clearing everything (which also dropped pinned trending links)
      */
     @Override
-    @CacheEvict(value = "urls", allEntries = true)
+    @CacheEvict(value = "urls", key = "#shortenedUrl.code")
     public ShortenedUrl createNew(ShortenedUrl shortenedUrl) {
         return shortenedUrlRepository.save(shortenedUrl);
     }
 
+    /**
+     * NEW: Batched insert for bulk/import paths. New codes can't be in the
+     * cache, so there is nothing to evict.
+     */
+    @Override
+    @Transactional
+    public boolean[] createAll(List<ShortenedUrl> shortenedUrls) {
+        return shortenedUrlRepository.batchInsert(shortenedUrls);
+    }
+
     @Override
     @Cacheable(value = "urls", key = "#code")
     public ShortenedUrl findByCode(String code) {
-        return shortenedUrlRepository.findByCode(code)
+        // Shares the "urls" cache with findByCodeForRedirect, so a lagging replica's miss or stale row
+        // would be served to redirects too; QR codes are also fetched right after a link is created
+        return ReadRouting.onPrimary(() -> shortenedUrlRepository.findByCode(code))
                 .orElseThrow(() -> new RuntimeException("URL with code: " + code + " not found"));
     }
 
@@ -91,7 +140,8 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     @Override
     @Cacheable(value = "urls", key = "#code")
     public ShortenedUrl findByCodeForRedirect(String code) {
-        return shortenedUrlRepository.findByCode(code)
+        // A link is shared the moment it's created, so redirects must not wait for the replica
+        return ReadRouting.onPrimary(() -> shortenedUrlRepository.findByCode(code))
                 .orElseThrow(() -> new RuntimeException("URL with code: " + code + " not found"));
     }
 
@@ -103,7 +153,18 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
 
     @Override
     public boolean existsByCode(String code) {
-        return shortenedUrlRepository.existsByCode(code);
+        // Collision checks against a lagging replica would hand out codes that were just taken
+        return ReadRouting.onPrimary(() -> shortenedUrlRepository.existsByCode(code));
+    }
+
+    @Override
+    public List<String> findExistingCodes(Collection<String> codes) {
+        return ReadRouting.onPrimary(() -> shortenedUrlRepository.findExistingCodes(codes));
+    }
+
+    @Override
+    public List<ShortenedUrl> findByUserAndCodes(User user, Collection<String> codes) {
+        return shortenedUrlRepository.findByUserAndCodeIn(user, codes);
     }
 
     /**
@@ -116,8 +177,10 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     // ===== PAGINATION METHODS (No cache needed - these are queries) =====
+    // Read-only transactions, so they are served by the replica when one is configured
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ShortenedUrl> findByUserPaginated(User user, Pageable pageable) {
         return shortenedUrlRepository.findAll(
                 ShortenedUrlSpecifications.belongsToUser(user),
@@ -126,6 +189,7 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ShortenedUrl> searchLinks(User user, String searchTerm, Pageable pageable) {
         Specification<ShortenedUrl> spec = Specification
                 .where(ShortenedUrlSpecifications.belongsToUser(user))
@@ -135,6 +199,7 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ShortenedUrl> advancedSearchLinks(User user, LinkSearchRequest request, Pageable pageable) {
         Specification<ShortenedUrl> spec = ShortenedUrlSpecifications.advancedSearch(
                 user,
@@ -150,6 +215,7 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ShortenedUrl> findExpiredLinks(User user, Pageable pageable) {
         Specification<ShortenedUrl> spec = Specification
                 .where(ShortenedUrlSpecifications.belongsToUser(user))
@@ -159,6 +225,7 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ShortenedUrl> findActiveLinks(User user, Pageable pageable) {
         Specification<ShortenedUrl> spec = Specification
                 .where(ShortenedUrlSpecifications.belongsToUser(user))
@@ -168,16 +235,19 @@ public class ShortenedUrlServiceImpl implements ShortenedUrlService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countUserLinks(User user) {
         return shortenedUrlRepository.countByUser(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countExpiredLinks(User user) {
         return shortenedUrlRepository.countByUserAndExpiresAtBefore(user, LocalDateTime.now());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countActiveLinks(User user) {
         return shortenedUrlRepository.countByUserAndExpiresAtAfter(user, LocalDateTime.now());
     }
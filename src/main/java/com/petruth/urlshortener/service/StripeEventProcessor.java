@@ -0,0 +1,309 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.PremiumStatusChanged;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.StripeEventRepository;
+import com.petruth.urlshortener.repository.UserRepository;
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Subscription;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stripe webhook inbox: the controller only verifies and records an event, this applies it.
+ *
+ * <p>Each event id is stored once, so Stripe's retries are acknowledged without doing anything.
+ * Events of one customer form a lane and are applied one at a time in the order Stripe created
+ * them, each in its own transaction together with marking it processed. A pg advisory lock per
+ * lane keeps several nodes from applying the same customer's events concurrently. A failing event
+ * is retried with backoff and blocks its lane until it succeeds or is given up on.
+ */
+@Service
+public class StripeEventProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(StripeEventProcessor.class);
+
+    static final String CHECKOUT_COMPLETED = "checkout.session.completed";
+    static final String SUBSCRIPTION_CREATED = "customer.subscription.created";
+    static final String SUBSCRIPTION_UPDATED = "customer.subscription.updated";
+    static final String SUBSCRIPTION_DELETED = "customer.subscription.deleted";
+
+    private static final Set<String> HANDLED_TYPES =
+            Set.of(CHECKOUT_COMPLETED, SUBSCRIPTION_CREATED, SUBSCRIPTION_UPDATED, SUBSCRIPTION_DELETED);
+
+    // past_due keeps access while Stripe retries the card; it ends in canceled or unpaid
+    private static final Set<String> PREMIUM_STATUSES = Set.of("active", "trialing", "past_due");
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    private final StripeEventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxLanesPerRun;
+    private final int maxEventsPerLane;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final Counter received;
+    private final Counter duplicates;
+    private final Counter applied;
+    private final Counter retried;
+    private final Counter abandoned;
+
+    public StripeEventProcessor(StripeEventRepository eventRepository,
+                                UserRepository userRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${stripe.inbox.max-lanes-per-run:100}") int maxLanesPerRun,
+                                @Value("${stripe.inbox.max-events-per-lane:20}") int maxEventsPerLane,
+                                @Value("${stripe.inbox.max-attempts:10}") int maxAttempts,
+                                @Value("${stripe.inbox.retention-days:30}") long retentionDays) {
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxLanesPerRun = maxLanesPerRun;
+        this.maxEventsPerLane = maxEventsPerLane;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+
+        this.received = Counter.builder("quicklink.stripe.events")
+                .description("Stripe webhook deliveries")
+                .tag("result", "recorded")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("quicklink.stripe.events")
+                .description("Stripe webhook deliveries")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+        this.applied = Counter.builder("quicklink.stripe.events.processed")
+                .description("Stripe events taken off the inbox")
+                .tag("result", "applied")
+                .register(meterRegistry);
+        this.retried = Counter.builder("quicklink.stripe.events.processed")
+                .description("Stripe events taken off the inbox")
+                .tag("result", "retry")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("quicklink.stripe.events.processed")
+                .description("Stripe events taken off the inbox")
+                .tag("result", "abandoned")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a verified event for processing. Types nothing here acts on are not stored.
+     *
+     * @return false if the event is a redelivery of one already recorded
+     */
+    public boolean enqueue(Event event, String payload) {
+        if (!HANDLED_TYPES.contains(event.getType())) {
+            log.debug("Ignoring Stripe event {} of type {}", event.getId(), event.getType());
+            return true;
+        }
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(event.getCreated()), ZoneId.systemDefault());
+        boolean recorded = eventRepository.insert(event.getId(), event.getType(), laneOf(event), createdAt, payload);
+        (recorded ? received : duplicates).increment();
+        return recorded;
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.inbox.poll-interval-ms:1000}")
+    public void processPending() {
+        List<String> lanes;
+        try {
+            lanes = eventRepository.findDueLanes(maxLanesPerRun);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the Stripe event inbox: {}", e.getMessage());
+            return;
+        }
+        for (String lane : lanes) {
+            processLane(lane);
+        }
+    }
+
+    // Stripe retries deliveries for three days; processed ids are kept well beyond that
+    @Scheduled(cron = "${stripe.inbox.cleanup-cron:0 30 3 * * ?}")
+    public void deleteProcessed() {
+        int deleted = eventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} processed Stripe events", deleted);
+        }
+    }
+
+    private void processLane(String lane) {
+        for (int i = 0; i < maxEventsPerLane; i++) {
+            StripeEventRepository.PendingEvent[] current = new StripeEventRepository.PendingEvent[1];
+            try {
+                Boolean done = transactionTemplate.execute(status -> {
+                    if (!eventRepository.tryLockLane(lane)) {
+                        return false; // Another node is on it
+                    }
+                    Optional<StripeEventRepository.PendingEvent> head = eventRepository.findHead(lane);
+                    if (head.isEmpty()) {
+                        return false;
+                    }
+                    current[0] = head.get();
+                    apply(head.get());
+                    eventRepository.markProcessed(head.get().eventId());
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(done)) {
+                    return;
+                }
+                applied.increment();
+            } catch (RuntimeException e) {
+                if (current[0] == null) {
+                    log.warn("Could not process Stripe events of {}: {}", lane, e.getMessage());
+                } else {
+                    recordFailure(current[0], e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void recordFailure(StripeEventRepository.PendingEvent event, RuntimeException e) {
+        int attempts = event.attempts() + 1;
+        boolean giveUp = attempts >= maxAttempts;
+        long delaySeconds = Math.min(1L << Math.min(attempts, 20), MAX_RETRY_DELAY_SECONDS);
+        try {
+            eventRepository.markFailed(event.eventId(), e.toString(), delaySeconds, giveUp);
+        } catch (DataAccessException markError) {
+            log.warn("Could not record failure of Stripe event {}: {}", event.eventId(), markError.getMessage());
+        }
+        if (giveUp) {
+            abandoned.increment();
+            log.error("Giving up on Stripe event {} ({}) after {} attempts", event.eventId(), event.eventType(), attempts, e);
+        } else {
+            retried.increment();
+            log.warn("Stripe event {} ({}) failed, retrying in {}s: {}",
+                    event.eventId(), event.eventType(), delaySeconds, e.getMessage());
+        }
+    }
+
+    private void apply(StripeEventRepository.PendingEvent pending) {
+        Event event = StripeObject.deserializeStripeObject(pending.payload(), Event.class,
+                ApiResource.getGlobalResponseGetter());
+        StripeObject object = dataObject(event);
+        switch (event.getType()) {
+            case CHECKOUT_COMPLETED -> onCheckoutCompleted((Session) object);
+            case SUBSCRIPTION_CREATED, SUBSCRIPTION_UPDATED -> onSubscriptionChanged((Subscription) object, false);
+            case SUBSCRIPTION_DELETED -> onSubscriptionChanged((Subscription) object, true);
+            default -> log.debug("No handler for Stripe event {} of type {}", event.getId(), event.getType());
+        }
+    }
+
+    private void onCheckoutCompleted(Session session) {
+        Optional<User> user = userFromMetadata(session.getMetadata(), session.getClientReferenceId());
+        if (user.isEmpty()) {
+            log.warn("Checkout session {} does not belong to a known user", session.getId());
+            return;
+        }
+        linkCustomer(user.get(), session.getCustomer());
+        setPremium(user.get(), true);
+    }
+
+    private void onSubscriptionChanged(Subscription subscription, boolean deleted) {
+        // checkout.session.completed links the customer, but subscription.created usually comes first
+        Optional<User> user = Optional.ofNullable(subscription.getCustomer())
+                .flatMap(userRepository::findByStripeCustomerId)
+                .or(() -> userFromMetadata(subscription.getMetadata(), null));
+        if (user.isEmpty()) {
+            log.warn("Subscription {} of customer {} does not belong to a known user",
+                    subscription.getId(), subscription.getCustomer());
+            return;
+        }
+        linkCustomer(user.get(), subscription.getCustomer());
+        setPremium(user.get(), !deleted && PREMIUM_STATUSES.contains(subscription.getStatus()));
+    }
+
+    private Optional<User> userFromMetadata(Map<String, String> metadata, String fallback) {
+        String userId = metadata != null ? metadata.get("userId") : null;
+        if (userId == null) {
+            userId = fallback;
+        }
+        if (userId == null) {
+            return Optional.empty();
+        }
+        try {
+            return userRepository.findById(Long.parseLong(userId));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void linkCustomer(User user, String customerId) {
+        if (customerId != null && !customerId.equals(user.getStripeCustomerId())) {
+            user.setStripeCustomerId(customerId);
+            userRepository.save(user);
+        }
+    }
+
+    private void setPremium(User user, boolean premium) {
+        if (user.isPremium() == premium) {
+            return;
+        }
+        user.setPremium(premium);
+        userRepository.save(user);
+        // Listeners that cache user state drop it once this transaction commits
+        eventPublisher.publishEvent(new PremiumStatusChanged(user.getId(), user.getEmail(), premium));
+        log.info("User {} {} premium", user.getId(), premium ? "upgraded to" : "downgraded from");
+    }
+
+    private static StripeObject dataObject(Event event) {
+        // getObject() is empty when the event's API version differs from the library's
+        Optional<StripeObject> object = event.getDataObjectDeserializer().getObject();
+        if (object.isPresent()) {
+            return object.get();
+        }
+        try {
+            return event.getDataObjectDeserializer().deserializeUnsafe();
+        } catch (EventDataObjectDeserializationException e) {
+            throw new IllegalStateException("Unreadable data.object in Stripe event " + event.getId(), e);
+        }
+    }
+
+    /**
+     * The customer an event is about; events without one get a lane of their own. So do events
+     * whose data.object can't be read: they are still recorded (a 500 would only make Stripe
+     * redeliver the same payload) and fail in apply, where retries and giving up are tracked.
+     */
+    private static String laneOf(Event event) {
+        StripeObject object;
+        try {
+            object = dataObject(event);
+        } catch (IllegalStateException e) {
+            log.warn("{}, recording it in a lane of its own", e.getMessage());
+            return event.getId();
+        }
+        String customer = null;
+        if (object instanceof Session session) {
+            customer = session.getCustomer();
+        } else if (object instanceof Subscription subscription) {
+            customer = subscription.getCustomer();
+        }
+        return customer != null ? customer : event.getId();
+    }
+}
@@ -0,0 +1,303 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.TrendingLink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming top-K of redirected codes over sliding 1 / 5 / 60 minute windows.
+ *
+ * <p>Time is cut into 10-second buckets kept in a ring; each bucket is a few Space-Saving
+ * summaries (stripes) with a fixed number of counters, so memory is bounded no matter how
+ * many distinct codes are clicked. A redirect counts into whichever stripe it can lock
+ * without waiting, and a window query merges every stripe of the buckets it covers.
+ *
+ * <p>The hottest codes of the last minute are "pinned": the redirect cache gives them
+ * zero weight and no expiry, so a spike can't evict the links that cause it.
+ */
+@Service
+public class TrendingTracker {
+
+    public enum Window {
+        ONE_MINUTE(6), FIVE_MINUTES(30), ONE_HOUR(360);
+
+        final int buckets;
+
+        Window(int buckets) {
+            this.buckets = buckets;
+        }
+    }
+
+    static final int BUCKET_SECONDS = 10;
+
+    private final Summary[][] ring = new Summary[Window.ONE_HOUR.buckets + 1][];
+    private final int pinTop;
+    private final long pinMinClicks;
+    private final LongSupplier clock;
+
+    private volatile Set<String> pinned = Set.of();
+    private volatile Consumer<Set<String>> pinListener = codes -> {};
+
+    @Autowired
+    public TrendingTracker(@Value("${trending.counters-per-bucket:200}") int capacity,
+                           @Value("${trending.stripes:4}") int stripes,
+                           @Value("${trending.pin.top:50}") int pinTop,
+                           @Value("${trending.pin.min-clicks-per-minute:30}") long pinMinClicks) {
+        this(capacity, stripes, pinTop, pinMinClicks, System::currentTimeMillis);
+    }
+
+    TrendingTracker(int capacity, int stripes, int pinTop, long pinMinClicks, LongSupplier clock) {
+        this.pinTop = pinTop;
+        this.pinMinClicks = pinMinClicks;
+        this.clock = clock;
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Summary[Math.max(1, stripes)];
+            for (int j = 0; j < ring[i].length; j++) {
+                ring[i][j] = new Summary(capacity);
+            }
+        }
+    }
+
+    /**
+     * Called on every successful redirect. Only waits for a lock when every stripe of the
+     * current bucket is taken; each count is O(1) however many codes are tracked.
+     */
+    public void record(String code) {
+        long epoch = currentEpoch();
+        Summary[] stripes = ring[(int) (epoch % ring.length)];
+        int first = stripes.length == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes.length);
+
+        for (int i = 0; i < stripes.length; i++) {
+            Summary stripe = stripes[(first + i) % stripes.length];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.offer(epoch, code);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+
+        Summary stripe = stripes[first];
+        stripe.lock.lock();
+        try {
+            stripe.offer(epoch, code);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public List<TrendingLink> top(Window window, int limit) {
+        long now = currentEpoch();
+        Map<String, long[]> merged = new HashMap<>();
+
+        for (long epoch = now - window.buckets + 1; epoch <= now; epoch++) {
+            for (Summary stripe : ring[(int) (epoch % ring.length)]) {
+                stripe.lock.lock();
+                try {
+                    if (stripe.epoch == epoch) {
+                        stripe.addTo(merged);
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+
+        return merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+                .limit(limit)
+                .map(e -> new TrendingLink(e.getKey(), e.getValue()[0], e.getValue()[0] - e.getValue()[1]))
+                .toList();
+    }
+
+    public boolean isPinned(Object code) {
+        return pinned.contains(code);
+    }
+
+    public Set<String> getPinned() {
+        return pinned;
+    }
+
+    /**
+     * Notified with the codes whose pinned state changed, so the cache can re-weigh them.
+     */
+    public void setPinListener(Consumer<Set<String>> pinListener) {
+        this.pinListener = pinListener;
+    }
+
+    @Scheduled(fixedRate = BUCKET_SECONDS * 1000L)
+    public void refreshPinned() {
+        Set<String> next = top(Window.ONE_MINUTE, pinTop).stream()
+                .filter(link -> link.minClicks() >= pinMinClicks)
+                .map(TrendingLink::code)
+                .collect(Collectors.toUnmodifiableSet());
+
+        Set<String> previous = pinned;
+        if (next.equals(previous)) {
+            return;
+        }
+        pinned = next;
+
+        Set<String> changed = new HashSet<>(next);
+        changed.addAll(previous);
+        changed.removeIf(code -> next.contains(code) && previous.contains(code));
+        pinListener.accept(changed);
+    }
+
+    private long currentEpoch() {
+        return clock.getAsLong() / (BUCKET_SECONDS * 1000L);
+    }
+
+    /**
+     * Space-Saving summary in the Stream-Summary layout: counters hang off a list of groups
+     * with equal counts, in ascending order. An increment moves a counter to the next group
+     * and a newcomer takes over a counter of the smallest group, inheriting its count as its
+     * error bound; neither scans the counters. Guarded by {@code lock}.
+     */
+    private static final class Summary {
+
+        final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final Map<String, Counter> counters;
+        private Group smallest;
+        private long epoch = -1;
+
+        Summary(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+        }
+
+        void offer(long epoch, String code) {
+            if (this.epoch != epoch) {
+                this.epoch = epoch;
+                counters.clear();
+                smallest = null;
+            }
+
+            Counter counter = counters.get(code);
+            if (counter != null) {
+                increment(counter);
+            } else if (counters.size() < capacity) {
+                counter = new Counter(code, 0);
+                counters.put(code, counter);
+                if (smallest == null || smallest.count != 1) {
+                    Group ones = new Group(1);
+                    ones.next = smallest;
+                    if (smallest != null) {
+                        smallest.prev = ones;
+                    }
+                    smallest = ones;
+                }
+                smallest.add(counter);
+            } else {
+                counter = smallest.first;
+                counters.remove(counter.code);
+                counter.code = code;
+                counter.error = smallest.count;
+                counters.put(code, counter);
+                increment(counter);
+            }
+        }
+
+        void addTo(Map<String, long[]> merged) {
+            for (Counter counter : counters.values()) {
+                long[] total = merged.computeIfAbsent(counter.code, k -> new long[2]);
+                total[0] += counter.group.count;
+                total[1] += counter.error;
+            }
+        }
+
+        private void increment(Counter counter) {
+            Group group = counter.group;
+            Group next = group.next;
+            if (next == null || next.count != group.count + 1) {
+                if (group.first == counter && counter.next == null) {
+                    // Alone in its group, which can simply take the next count
+                    group.count++;
+                    return;
+                }
+                next = new Group(group.count + 1);
+                next.prev = group;
+                next.next = group.next;
+                if (group.next != null) {
+                    group.next.prev = next;
+                }
+                group.next = next;
+            }
+
+            group.remove(counter);
+            next.add(counter);
+            if (group.first == null) {
+                if (group.prev != null) {
+                    group.prev.next = group.next;
+                } else {
+                    smallest = group.next;
+                }
+                group.next.prev = group.prev;
+            }
+        }
+    }
+
+    private static final class Group {
+
+        private long count;
+        private Group prev;
+        private Group next;
+        private Counter first;
+
+        Group(long count) {
+            this.count = count;
+        }
+
+        void add(Counter counter) {
+            counter.group = this;
+            counter.prev = null;
+            counter.next = first;
+            if (first != null) {
+                first.prev = counter;
+            }
+            first = counter;
+        }
+
+        void remove(Counter counter) {
+            if (counter.prev != null) {
+                counter.prev.next = counter.next;
+            } else {
+                first = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+        }
+    }
+
+    private static final class Counter {
+
+        private String code;
+        private long error;
+        private Group group;
+        private Counter prev;
+        private Counter next;
+
+        Counter(String code, long error) {
+            this.code = code;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.repository.LinkDailyUniquesRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique visitors per link and day, as HyperLogLog sketches over hash(IP + User-Agent).
+ *
+ * <p>Clicks update an in-memory sketch per (link, day); a periodic flush merges those into
+ * link_daily_uniques and drops them. Since merging is idempotent and order-independent,
+ * any number of nodes can flush partial sketches for the same row. A window query
+ * reads at most one small row per day, no matter how many clicks the link has.
+ */
+@Service
+public class UniqueVisitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueVisitorService.class);
+
+    private record Key(long urlId, LocalDate day) {}
+
+    private final LinkDailyUniquesRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Only mutated inside compute(), so a sketch removed for flushing can't change underneath us
+    private final Map<Key, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public UniqueVisitorService(LinkDailyUniquesRepository repository,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(long urlId, LocalDate day, String ip, String userAgent) {
+        long hash = HyperLogLog.visitorHash(ip, userAgent);
+        pending.compute(new Key(urlId, day), (key, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.add(hash);
+            return target;
+        });
+    }
+
+    /**
+     * Estimated distinct visitors from {@code from} (inclusive) to today,
+     * including clicks this node hasn't flushed yet.
+     */
+    public long uniqueVisitors(long urlId, LocalDate from) {
+        HyperLogLog union = new HyperLogLog();
+        for (byte[] stored : repository.findSketches(urlId, from)) {
+            union.merge(HyperLogLog.fromBytes(stored));
+        }
+        for (Key key : pending.keySet()) {
+            if (key.urlId() == urlId && !key.day().isBefore(from)) {
+                pending.computeIfPresent(key, (k, sketch) -> {
+                    union.merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+        return union.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.uniques.flush-interval-ms:30000}")
+    public void flush() {
+        List<Key> keys = new ArrayList<>(pending.keySet());
+        for (Key key : keys) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null || sketch.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(key, sketch));
+            } catch (DataIntegrityViolationException e) {
+                // The link was deleted since the click; nothing to keep
+                log.debug("Dropping unique-visitor sketch for deleted link {}", key.urlId());
+            } catch (RuntimeException e) {
+                // Put it back (merging with anything recorded meanwhile) and retry next round
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+                log.warn("Failed to flush unique-visitor sketch for link {} ({}): {}",
+                        key.urlId(), key.day(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void persist(Key key, HyperLogLog sketch) {
+        byte[] stored = repository.insertOrLock(key.urlId(), key.day(), sketch.toBytes());
+        if (stored != null) {
+            HyperLogLog merged = HyperLogLog.fromBytes(stored);
+            merged.merge(sketch);
+            repository.update(key.urlId(), key.day(), merged.toBytes());
+        }
+    }
+}
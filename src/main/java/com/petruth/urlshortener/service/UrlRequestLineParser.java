@@ -0,0 +1,104 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.ImportJob;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns one line of an upload into a UrlRequest.
+ * CSV columns: url[,customCode[,expirationDays[,redirectStatus[,cacheMaxAgeSeconds]]]] - a header row starting with "url" is skipped.
+ * NDJSON: one UrlRequest JSON object per line.
+ */
+@Component
+public class UrlRequestLineParser {
+
+    private final ObjectMapper objectMapper;
+
+    public UrlRequestLineParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isHeader(String line, ImportJob.Format format) {
+        if (format != ImportJob.Format.CSV) {
+            return false;
+        }
+        List<String> fields = splitCsv(line);
+        return !fields.isEmpty() && "url".equalsIgnoreCase(fields.get(0).trim());
+    }
+
+    /**
+     * @throws IllegalArgumentException with a user-facing message if the line can't be parsed
+     */
+    public UrlRequest parse(String line, ImportJob.Format format) {
+        return format == ImportJob.Format.CSV ? parseCsv(line) : parseNdjson(line);
+    }
+
+    public UrlRequest parseNdjson(String line) {
+        try {
+            return objectMapper.readValue(line, UrlRequest.class);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private UrlRequest parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+
+        String url = fields.get(0).trim();
+        String customCode = fields.size() > 1 ? emptyToNull(fields.get(1)) : null;
+        Integer expirationDays = parseInt(fields, 2, "expirationDays");
+
+        return new UrlRequest(url, expirationDays, customCode,
+                parseInt(fields, 3, "redirectStatus"), parseInt(fields, 4, "cacheMaxAgeSeconds"));
+    }
+
+    private static Integer parseInt(List<String> fields, int index, String name) {
+        if (fields.size() <= index || emptyToNull(fields.get(index)) == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(fields.get(index).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + fields.get(index).trim());
+        }
+    }
+
+    // Minimal RFC 4180 splitting: quoted fields, "" as an escaped quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,194 @@
+package com.petruth.urlshortener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.urlshortener.dto.UserAgentInfo;
+import com.petruth.urlshortener.redirect.MultiPatternMatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classifies a User-Agent into device type, browser and OS (with versions).
+ *
+ * <p>All tokens are found in one case-insensitive pass by a precompiled
+ * {@link MultiPatternMatcher}; the decision rules then only look at which
+ * tokens occurred. Results are memoised per exact UA string in a bounded LRU,
+ * since a few hundred distinct UAs make up most traffic.
+ */
+@Component
+public class UserAgentParser {
+
+    // Longer strings are parsed but never cached, so junk UAs can't flood the cache
+    private static final int MAX_CACHED_LENGTH = 512;
+
+    private enum Token {
+        EDGE("edg/"), EDGE_LEGACY("edge/"), EDGE_IOS("edgios/"), EDGE_ANDROID("edga/"),
+        OPERA("opr/"), OPERA_LEGACY("opera"),
+        SAMSUNG("samsungbrowser/"),
+        FIREFOX("firefox/"), FIREFOX_IOS("fxios/"),
+        CHROME("chrome/"), CHROME_IOS("crios/"),
+        MSIE("msie "), TRIDENT("trident/"),
+        SAFARI("safari/"), VERSION("version/"),
+
+        WINDOWS_PHONE("windows phone"), WINDOWS("windows"), WINDOWS_NT("windows nt "),
+        IPHONE("iphone"), IPOD("ipod"), IPAD("ipad"), IOS_VERSION(" os "),
+        ANDROID("android"), ANDROID_VERSION("android "),
+        CROS("cros"),
+        MAC_OS_X("mac os x "), MACINTOSH("macintosh"),
+        LINUX("linux"),
+
+        MOBILE("mobile"), TABLET("tablet");
+
+        final String pattern;
+
+        Token(String pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    private static final MultiPatternMatcher MATCHER = new MultiPatternMatcher(
+            Arrays.stream(Token.values()).map(t -> t.pattern).toList());
+
+    private final Cache<String, UserAgentInfo> cache;
+
+    public UserAgentParser(@Value("${analytics.user-agent-cache-size:2000}") long cacheSize,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-agents");
+    }
+
+    public UserAgentInfo parse(String userAgent) {
+        if (userAgent.length() > MAX_CACHED_LENGTH) {
+            return classify(userAgent);
+        }
+        return cache.get(userAgent, UserAgentParser::classify);
+    }
+
+    static UserAgentInfo classify(String ua) {
+        int[] ends = MATCHER.firstMatchEnds(ua);
+        Found found = new Found(ua, ends);
+
+        return new UserAgentInfo(deviceType(found), browser(found), browserVersion(found),
+                os(found), osVersion(found));
+    }
+
+    private static String deviceType(Found f) {
+        if (f.has(Token.IPAD) || f.has(Token.TABLET)) return "Tablet";
+        // Android phones say "Mobile", Android tablets don't
+        if (f.has(Token.ANDROID) && !f.has(Token.MOBILE)) return "Tablet";
+        if (f.has(Token.MOBILE) || f.has(Token.IPHONE) || f.has(Token.IPOD) || f.has(Token.WINDOWS_PHONE)) {
+            return "Mobile";
+        }
+        return "Desktop";
+    }
+
+    // Order matters: Edge/Opera/Samsung also send "Chrome/", and everything WebKit sends "Safari/"
+    private static String browser(Found f) {
+        if (f.has(Token.EDGE) || f.has(Token.EDGE_LEGACY) || f.has(Token.EDGE_IOS) || f.has(Token.EDGE_ANDROID)) {
+            return "Edge";
+        }
+        if (f.has(Token.OPERA) || f.has(Token.OPERA_LEGACY)) return "Opera";
+        if (f.has(Token.SAMSUNG)) return "Samsung Internet";
+        if (f.has(Token.FIREFOX) || f.has(Token.FIREFOX_IOS)) return "Firefox";
+        if (f.has(Token.CHROME) || f.has(Token.CHROME_IOS)) return "Chrome";
+        if (f.has(Token.MSIE) || f.has(Token.TRIDENT)) return "Internet Explorer";
+        if (f.has(Token.SAFARI)) return "Safari";
+        return "Other";
+    }
+
+    private static String browserVersion(Found f) {
+        return switch (browser(f)) {
+            case "Edge" -> f.version(2, Token.EDGE, Token.EDGE_LEGACY, Token.EDGE_IOS, Token.EDGE_ANDROID);
+            case "Opera" -> f.version(2, Token.OPERA, Token.VERSION);
+            case "Samsung Internet" -> f.version(2, Token.SAMSUNG);
+            case "Firefox" -> f.version(2, Token.FIREFOX, Token.FIREFOX_IOS);
+            case "Chrome" -> f.version(2, Token.CHROME, Token.CHROME_IOS);
+            case "Internet Explorer" -> f.version(2, Token.MSIE);
+            case "Safari" -> f.version(2, Token.VERSION);
+            default -> null;
+        };
+    }
+
+    // iOS and Android UAs also contain "Mac OS X" / "Linux", so they're checked first
+    private static String os(Found f) {
+        if (f.has(Token.WINDOWS_PHONE)) return "Windows Phone";
+        if (f.has(Token.WINDOWS)) return "Windows";
+        if (f.has(Token.IPHONE) || f.has(Token.IPOD) || f.has(Token.IPAD)) return "iOS";
+        if (f.has(Token.ANDROID)) return "Android";
+        if (f.has(Token.CROS)) return "ChromeOS";
+        if (f.has(Token.MAC_OS_X) || f.has(Token.MACINTOSH)) return "MacOS";
+        if (f.has(Token.LINUX)) return "Linux";
+        return "Other";
+    }
+
+    private static String osVersion(Found f) {
+        return switch (os(f)) {
+            case "Windows" -> windowsVersion(f.version(2, Token.WINDOWS_NT));
+            case "iOS" -> f.version(3, Token.IOS_VERSION);
+            case "Android" -> f.version(3, Token.ANDROID_VERSION);
+            case "MacOS" -> f.version(3, Token.MAC_OS_X);
+            default -> null;
+        };
+    }
+
+    private static String windowsVersion(String nt) {
+        if (nt == null) return null;
+        return switch (nt) {
+            case "10.0" -> "10";    // Windows 11 reports 10.0 as well
+            case "6.3" -> "8.1";
+            case "6.2" -> "8";
+            case "6.1" -> "7";
+            default -> nt;
+        };
+    }
+
+    private record Found(String ua, int[] ends) {
+
+        boolean has(Token token) {
+            return ends[token.ordinal()] >= 0;
+        }
+
+        /**
+         * Version right after the first token that occurred, e.g. "Chrome/120.0.6099" -> "120.0".
+         * Underscores (iOS/macOS "17_1") count as dots.
+         */
+        String version(int maxComponents, Token... tokens) {
+            for (Token token : tokens) {
+                int start = ends[token.ordinal()];
+                if (start >= 0) {
+                    return readVersion(ua, start, maxComponents);
+                }
+            }
+            return null;
+        }
+
+        private static String readVersion(String ua, int start, int maxComponents) {
+            StringBuilder version = new StringBuilder(12);
+            int components = 1;
+            for (int i = start; i < ua.length(); i++) {
+                char c = ua.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    version.append(c);
+                } else if ((c == '.' || c == '_') && version.length() > 0 && components < maxComponents) {
+                    version.append('.');
+                    components++;
+                } else {
+                    break;
+                }
+            }
+            int length = version.length();
+            if (length > 0 && version.charAt(length - 1) == '.') {
+                version.setLength(length - 1);
+            }
+            return version.length() > 0 ? version.toString() : null;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.petruth.urlshortener.service;
 
+import com.petruth.urlshortener.config.ReadRouting;
 import com.petruth.urlshortener.entity.User;
 import com.petruth.urlshortener.entity.UserOAuthProvider;
 import com.petruth.urlshortener.repository.UserOAuthProviderRepository;
 import com.petruth.urlshortener.repository.UserRepository;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -19,18 +22,50 @@ public class UserServiceImpl implements UserService {
         this.userOAuthProviderRepository = userOAuthProviderRepository;
     }
 
+    // Identity and premium status must never lag behind a login or a Stripe webhook,
+    // so user lookups stay on the primary; they are single-row index reads.
     @Override
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return ReadRouting.onPrimary(() -> userRepository.findByEmail(email));
     }
 
     @Override
     public Optional<UserOAuthProvider> findByOauthProviderAndOauthId(String provider, String oauthId) {
-        return userOAuthProviderRepository.findByOauthProviderAndOauthId(provider, oauthId);
+        return ReadRouting.onPrimary(() -> userOAuthProviderRepository.findByOauthProviderAndOauthId(provider, oauthId));
     }
 
     public Optional<UserOAuthProvider> findByOAuth(String provider, String oauthId) {
-        return userOAuthProviderRepository.findByOauthProviderAndOauthId(provider,oauthId);
+        return ReadRouting.onPrimary(() -> userOAuthProviderRepository.findByOauthProviderAndOauthId(provider, oauthId));
+    }
+
+    /**
+     * Resolves the logged-in user from the OAuth principal.
+     * Google/Microsoft identify users by "sub" (Microsoft prefers "oid"), GitHub by numeric "id".
+     */
+    public Optional<User> findByPrincipal(OAuth2User principal, OAuth2AuthenticationToken authToken) {
+        if (principal == null || authToken == null) {
+            return Optional.empty();
+        }
+
+        String provider = authToken.getAuthorizedClientRegistrationId();
+        Object idObj;
+        if ("github".equals(provider)) {
+            idObj = principal.getAttribute("id");
+        } else if ("microsoft".equals(provider)) {
+            idObj = principal.getAttribute("oid");
+            if (idObj == null) {
+                idObj = principal.getAttribute("sub");
+            }
+        } else {
+            idObj = principal.getAttribute("sub");
+        }
+
+        if (idObj == null) {
+            return Optional.empty();
+        }
+
+        return findByOAuth(provider, idObj.toString())
+                .map(UserOAuthProvider::getUser);
     }
 
     @Override
@@ -40,6 +75,6 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return ReadRouting.onPrimary(() -> userRepository.findById(id));
     }
 }
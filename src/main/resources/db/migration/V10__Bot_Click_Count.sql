@@ -0,0 +1,4 @@
+-- V10__Bot_Click_Count.sql
+-- Redirects served to link-preview bots, monitors and browser prefetches. They are only counted here,
+-- in batches, and never reach click_analytics; click_count keeps counting people.
+ALTER TABLE shortened_url ADD COLUMN IF NOT EXISTS bot_click_count BIGINT NOT NULL DEFAULT 0;
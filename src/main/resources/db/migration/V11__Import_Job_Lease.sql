@@ -0,0 +1,6 @@
+-- V11__Import_Job_Lease.sql
+-- An import job runs on one node at a time. The node that claims it records itself as owner and keeps
+-- lease_until in the future (every chunk checkpoint and a heartbeat extend it); other nodes only resume
+-- a queued or running job once its lease has run out. NULL (jobs from before this migration) counts as expired.
+ALTER TABLE import_job ADD COLUMN IF NOT EXISTS owner VARCHAR(255);
+ALTER TABLE import_job ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
@@ -0,0 +1,26 @@
+-- V2__Import_Jobs.sql
+-- Background bulk imports (CSV / NDJSON uploads)
+CREATE TABLE IF NOT EXISTS import_job (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    original_filename VARCHAR(255),
+    source_path VARCHAR(1024) NOT NULL,
+    result_path VARCHAR(1024) NOT NULL,
+    base_url VARCHAR(255) NOT NULL,
+    source_bytes BIGINT NOT NULL DEFAULT 0,
+    bytes_processed BIGINT NOT NULL DEFAULT 0,
+    lines_processed BIGINT NOT NULL DEFAULT 0,
+    result_bytes BIGINT NOT NULL DEFAULT 0,
+    successful BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    CONSTRAINT fk_import_job_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_job_user ON import_job(user_id);
+CREATE INDEX IF NOT EXISTS idx_import_job_status ON import_job(status);
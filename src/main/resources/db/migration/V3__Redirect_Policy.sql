@@ -0,0 +1,10 @@
+-- V3__Redirect_Policy.sql
+-- Per-link redirect status and HTTP cacheability.
+-- Defaults keep the old behaviour: 302 and no caching, so every click reaches us.
+ALTER TABLE shortened_url
+    ADD COLUMN IF NOT EXISTS redirect_status SMALLINT NOT NULL DEFAULT 302,
+    ADD COLUMN IF NOT EXISTS cache_max_age INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE shortened_url
+    ADD CONSTRAINT chk_redirect_status CHECK (redirect_status IN (301, 302, 307, 308)),
+    ADD CONSTRAINT chk_cache_max_age CHECK (cache_max_age >= 0);
@@ -0,0 +1,5 @@
+-- V4__Click_Versions.sql
+-- Browser / OS versions from the single-pass user-agent parser
+ALTER TABLE click_analytics
+    ADD COLUMN IF NOT EXISTS browser_version VARCHAR(50),
+    ADD COLUMN IF NOT EXISTS os_version VARCHAR(50);
@@ -0,0 +1,101 @@
+-- V5__Click_Dimensions.sql
+-- Dictionary-encode click_analytics:
+--   user_agent / referer text -> ids into user_agents / referer_hosts
+--   country text              -> SMALLINT id into countries
+--   device_type, browser, os  -> SMALLINT codes (order must match ClickCodes.java)
+--   ip_address VARCHAR(45)    -> inet
+-- browser_version / os_version (V4) move to user_agents, they're a function of the UA string.
+
+CREATE TABLE IF NOT EXISTS user_agents (
+    id SERIAL PRIMARY KEY,
+    user_agent VARCHAR(500) NOT NULL UNIQUE,
+    browser_version VARCHAR(50),
+    os_version VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS referer_hosts (
+    id SERIAL PRIMARY KEY,
+    host VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS countries (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+-- Fill the dictionaries from existing rows
+INSERT INTO user_agents (user_agent, browser_version, os_version)
+SELECT user_agent, max(browser_version), max(os_version)
+FROM click_analytics
+WHERE user_agent IS NOT NULL AND user_agent <> ''
+GROUP BY user_agent
+ON CONFLICT (user_agent) DO NOTHING;
+
+-- Same rule as ClickDimensionDictionary.refererHost: lower-cased authority of scheme://host
+CREATE FUNCTION pg_temp.referer_host(referer TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE AS
+$$ SELECT nullif(left(lower(substring(referer FROM '^[^:/?#]+://([^/?#:]*)')), 255), '') $$;
+
+INSERT INTO referer_hosts (host)
+SELECT DISTINCT pg_temp.referer_host(referer)
+FROM click_analytics
+WHERE pg_temp.referer_host(referer) IS NOT NULL
+ON CONFLICT (host) DO NOTHING;
+
+INSERT INTO countries (name)
+SELECT DISTINCT country
+FROM click_analytics
+WHERE country IS NOT NULL AND country <> ''
+ON CONFLICT (name) DO NOTHING;
+
+-- Lookups usable in ALTER ... USING (subqueries aren't allowed there, functions are)
+CREATE FUNCTION pg_temp.user_agent_id(value TEXT) RETURNS INTEGER
+    LANGUAGE sql STABLE AS $$ SELECT id FROM user_agents WHERE user_agent = value $$;
+CREATE FUNCTION pg_temp.referer_host_id(value TEXT) RETURNS INTEGER
+    LANGUAGE sql STABLE AS $$ SELECT id FROM referer_hosts WHERE host = pg_temp.referer_host(value) $$;
+CREATE FUNCTION pg_temp.country_id(value TEXT) RETURNS SMALLINT
+    LANGUAGE sql STABLE AS $$ SELECT id FROM countries WHERE name = value $$;
+
+-- Invalid strings become NULL instead of failing the cast
+CREATE FUNCTION pg_temp.to_inet(value TEXT) RETURNS INET
+    LANGUAGE plpgsql IMMUTABLE AS
+$$
+BEGIN
+    RETURN value::inet;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END
+$$;
+
+-- Unknown labels map to code 0 ("Desktop" / "Other"), as in ClickCodes.CodeConverter
+CREATE FUNCTION pg_temp.code(value TEXT, labels TEXT[]) RETURNS SMALLINT
+    LANGUAGE sql IMMUTABLE AS
+$$ SELECT CASE WHEN value IS NULL THEN NULL ELSE coalesce(array_position(labels, value) - 1, 0)::smallint END $$;
+
+-- One ALTER TABLE = one table rewrite; an UPDATE per column would leave a dead copy of every row
+ALTER TABLE click_analytics
+    ALTER COLUMN ip_address TYPE INET USING pg_temp.to_inet(ip_address),
+    ALTER COLUMN user_agent TYPE INTEGER USING pg_temp.user_agent_id(user_agent),
+    ALTER COLUMN referer TYPE INTEGER USING pg_temp.referer_host_id(referer),
+    ALTER COLUMN country TYPE SMALLINT USING pg_temp.country_id(country),
+    ALTER COLUMN device_type TYPE SMALLINT
+        USING pg_temp.code(device_type, ARRAY['Desktop', 'Mobile', 'Tablet']),
+    ALTER COLUMN browser TYPE SMALLINT
+        USING pg_temp.code(browser, ARRAY['Other', 'Chrome', 'Safari', 'Firefox', 'Edge', 'Opera',
+                                          'Samsung Internet', 'Internet Explorer']),
+    ALTER COLUMN os TYPE SMALLINT
+        USING pg_temp.code(os, ARRAY['Other', 'Windows', 'MacOS', 'Linux', 'Android', 'iOS',
+                                     'ChromeOS', 'Windows Phone']),
+    DROP COLUMN IF EXISTS browser_version,
+    DROP COLUMN IF EXISTS os_version;
+
+ALTER TABLE click_analytics RENAME COLUMN user_agent TO user_agent_id;
+ALTER TABLE click_analytics RENAME COLUMN referer TO referer_host_id;
+ALTER TABLE click_analytics RENAME COLUMN country TO country_id;
+
+ALTER TABLE click_analytics
+    ADD CONSTRAINT fk_analytics_user_agent FOREIGN KEY (user_agent_id) REFERENCES user_agents(id),
+    ADD CONSTRAINT fk_analytics_referer_host FOREIGN KEY (referer_host_id) REFERENCES referer_hosts(id),
+    ADD CONSTRAINT fk_analytics_country FOREIGN KEY (country_id) REFERENCES countries(id);
+
+ANALYZE click_analytics;
@@ -0,0 +1,10 @@
+-- V6__Link_Daily_Uniques.sql
+-- One HyperLogLog sketch (IP + User-Agent) per link per day, see HyperLogLog.java.
+-- Sparse sketches are a few bytes; a full one is 4 KB. Nodes merge into the row, never overwrite it.
+CREATE TABLE IF NOT EXISTS link_daily_uniques (
+    shortened_url_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    sketch BYTEA NOT NULL,
+    PRIMARY KEY (shortened_url_id, day),
+    CONSTRAINT fk_daily_uniques_url FOREIGN KEY (shortened_url_id) REFERENCES shortened_url(id) ON DELETE CASCADE
+);
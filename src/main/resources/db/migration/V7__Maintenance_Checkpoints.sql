@@ -0,0 +1,13 @@
+-- V7__Maintenance_Checkpoints.sql
+-- Progress of long-running maintenance jobs (e.g. the expired-link reaper), so a restart resumes
+-- where the last batch committed. locked_until is a lease: one node runs a job at a time.
+CREATE TABLE IF NOT EXISTS maintenance_checkpoint (
+    job VARCHAR(64) PRIMARY KEY,
+    cutoff TIMESTAMP,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    locked_until TIMESTAMP NOT NULL DEFAULT '-infinity',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The reaper walks expired links in id order
+CREATE INDEX IF NOT EXISTS idx_shortened_url_expires_id ON shortened_url(expires_at, id);
@@ -0,0 +1,11 @@
+-- V8__Click_Inbox.sql
+-- Raw clicks from the standalone redirect server (redirect-server/), drained by the main app into
+-- click_analytics. Rows live for about a second, so no foreign key: a link deleted meanwhile is skipped.
+CREATE TABLE IF NOT EXISTS click_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    shortened_url_id BIGINT NOT NULL,
+    clicked_at TIMESTAMP NOT NULL,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(1024),
+    referer VARCHAR(1024)
+);
@@ -0,0 +1,27 @@
+-- V9__Stripe_Webhook_Inbox.sql
+-- Verified Stripe webhook events, written by /payment/webhook and applied by a scheduled processor.
+-- The primary key on event_id makes Stripe's retries no-ops. Events are applied one at a time per
+-- lane (the Stripe customer) in created order; processed rows are kept a while so late retries
+-- still hit the key.
+CREATE TABLE IF NOT EXISTS stripe_event (
+    event_id VARCHAR(255) PRIMARY KEY,
+    event_type VARCHAR(100) NOT NULL,
+    lane VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    last_error VARCHAR(1024)
+);
+
+-- Head of each lane among pending events
+CREATE INDEX IF NOT EXISTS idx_stripe_event_pending
+    ON stripe_event(lane, created_at, received_at, event_id) WHERE processed_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_stripe_event_processed ON stripe_event(processed_at);
+
+-- Subscription events only carry the customer, so checkout records it against the user
+ALTER TABLE users ADD COLUMN IF NOT EXISTS stripe_customer_id VARCHAR(255);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_stripe_customer_id ON users(stripe_customer_id);
@@ -0,0 +1,114 @@
+package com.petruth.urlshortener.redirect;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Decides on the redirect thread whether a hit is a person following a link. Shared by the
+ * main app and the standalone redirect server, so both count the same hits.
+ *
+ * <p>Browser prefetches announce themselves with {@code Sec-Purpose}/{@code Purpose: prefetch}
+ * (plus the older {@code X-Moz} and Safari's {@code X-Purpose: preview}). Bots are recognised by
+ * their User-Agent against the maintained list in bot-user-agents.txt, compiled once into a
+ * {@link MultiPatternMatcher}, so the whole list costs one pass over the header.
+ */
+public final class ClickClassifier {
+
+    public enum Kind { HUMAN, BOT, PREFETCH }
+
+    /**
+     * Classpath location of the bundled pattern list.
+     */
+    public static final String DEFAULT_PATTERNS = "bot-user-agents.txt";
+
+    private static final String[] PURPOSE_HEADERS = {"Sec-Purpose", "Purpose", "X-Purpose", "X-Moz"};
+
+    private final MultiPatternMatcher bots;
+    private final MultiPatternMatcher exceptions;
+
+    /**
+     * @param in      pattern list in the bot-user-agents.txt format; closed when read
+     * @param source  where the list came from, for error messages
+     */
+    public ClickClassifier(InputStream in, String source) {
+        List<String> botPatterns = new ArrayList<>();
+        List<String> exceptionPatterns = new ArrayList<>();
+        for (String line : readLines(in, source)) {
+            if (line.startsWith("!")) {
+                exceptionPatterns.add(line.substring(1));
+            } else {
+                botPatterns.add(line);
+            }
+        }
+        this.bots = new MultiPatternMatcher(botPatterns);
+        this.exceptions = new MultiPatternMatcher(exceptionPatterns);
+    }
+
+    public static ClickClassifier withDefaultPatterns() {
+        InputStream in = ClickClassifier.class.getClassLoader().getResourceAsStream(DEFAULT_PATTERNS);
+        if (in == null) {
+            throw new IllegalStateException(DEFAULT_PATTERNS + " is not on the classpath");
+        }
+        return new ClickClassifier(in, "classpath:" + DEFAULT_PATTERNS);
+    }
+
+    /**
+     * @param header request header by name, null when absent (e.g. {@code request::getHeader})
+     */
+    public Kind classify(Function<String, String> header) {
+        String[] purposes = new String[PURPOSE_HEADERS.length];
+        for (int i = 0; i < purposes.length; i++) {
+            purposes[i] = header.apply(PURPOSE_HEADERS[i]);
+        }
+        return classifyHeaders(header.apply("User-Agent"), purposes);
+    }
+
+    public Kind classifyHeaders(String userAgent, String... purposes) {
+        for (String purpose : purposes) {
+            if (isPrefetch(purpose)) {
+                return Kind.PREFETCH;
+            }
+        }
+        if (userAgent == null || userAgent.isBlank()) {
+            return Kind.BOT;
+        }
+        if (bots.firstMatch(userAgent) >= 0 && exceptions.firstMatch(userAgent) < 0) {
+            return Kind.BOT;
+        }
+        return Kind.HUMAN;
+    }
+
+    // "prefetch", "prefetch;prerender", "prefetch;anonymous-client-ip", Safari's "preview"
+    private static boolean isPrefetch(String purpose) {
+        if (purpose == null) {
+            return false;
+        }
+        String value = purpose.trim().toLowerCase(Locale.ROOT);
+        return value.startsWith("prefetch") || value.equals("preview");
+    }
+
+    private static List<String> readLines(InputStream in, String source) {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Patterns may contain spaces ("quora link preview") but never start or end with one
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read bot patterns from " + source, e);
+        }
+        return lines;
+    }
+}
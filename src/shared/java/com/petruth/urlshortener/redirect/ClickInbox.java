@@ -0,0 +1,76 @@
+package com.petruth.urlshortener.redirect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * click_inbox: raw clicks written by the standalone redirect server and drained by the
+ * main app, which runs them through the usual analytics enrichment (user agent, GeoIP,
+ * dimension dictionaries, unique visitors).
+ */
+public final class ClickInbox {
+
+    public record RawClick(long urlId, LocalDateTime clickedAt, String ipAddress, String userAgent, String referer) {}
+
+    // Headers are attacker-controlled; the analytics pipeline never keeps more than this anyway
+    private static final int MAX_HEADER_LENGTH = 1024;
+
+    private final DataSource dataSource;
+
+    public ClickInbox(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void enqueue(List<RawClick> clicks) throws SQLException {
+        if (clicks.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO click_inbox (shortened_url_id, clicked_at, ip_address, user_agent, referer) " +
+                     "VALUES (?, ?, ?, ?, ?)")) {
+            for (RawClick click : clicks) {
+                statement.setLong(1, click.urlId());
+                statement.setTimestamp(2, Timestamp.valueOf(click.clickedAt()));
+                statement.setString(3, click.ipAddress());
+                statement.setString(4, truncate(click.userAgent()));
+                statement.setString(5, truncate(click.referer()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Removes and returns up to {@code limit} of the oldest clicks. SKIP LOCKED lets several
+     * app nodes drain concurrently without handing out the same click twice.
+     */
+    public List<RawClick> drain(int limit) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM click_inbox WHERE id IN (" +
+                     "SELECT id FROM click_inbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                     "RETURNING shortened_url_id, clicked_at, ip_address, user_agent, referer")) {
+            statement.setInt(1, limit);
+            List<RawClick> clicks = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    clicks.add(new RawClick(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                            rs.getString(3), rs.getString(4), rs.getString(5)));
+                }
+            }
+            return clicks;
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_HEADER_LENGTH ? value.substring(0, MAX_HEADER_LENGTH) : value;
+    }
+}
@@ -0,0 +1,137 @@
+package com.petruth.urlshortener.redirect;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over ASCII, case-insensitive. Finds every pattern in
+ * a single left-to-right pass with one table lookup per character, no matter
+ * how many patterns there are. Immutable and thread-safe once built.
+ *
+ * <p>Characters outside ASCII never match and reset the automaton.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final int[][] outputs;
+    private final int patternCount;
+
+    public MultiPatternMatcher(List<String> patterns) {
+        this.patternCount = patterns.size();
+
+        List<int[]> next = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        next.add(newRow());
+        out.add(new ArrayList<>());
+
+        // Trie
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id).toLowerCase(Locale.ROOT);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern at index " + id);
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Non-ASCII pattern: " + patterns.get(id));
+                }
+                if (next.get(state)[c] < 0) {
+                    next.get(state)[c] = next.size();
+                    next.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                state = next.get(state)[c];
+            }
+            out.get(state).add(id);
+        }
+
+        // Failure links, folded into a complete transition table (breadth first)
+        int[] fail = new int[next.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = next.get(0)[c];
+            if (child < 0) {
+                next.get(0)[c] = 0;
+            } else {
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out.get(state).addAll(out.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = next.get(state)[c];
+                if (child < 0) {
+                    next.get(state)[c] = next.get(fail[state])[c];
+                } else {
+                    fail[child] = next.get(fail[state])[c];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.transitions = next.toArray(new int[0][]);
+        this.outputs = new int[out.size()][];
+        for (int i = 0; i < out.size(); i++) {
+            this.outputs[i] = out.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @return for each pattern (by index), the end offset (exclusive) of its first
+     *         occurrence in {@code text}, or -1 if it does not occur
+     */
+    public int[] firstMatchEnds(CharSequence text) {
+        int[] ends = new int[patternCount];
+        Arrays.fill(ends, -1);
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            state = c < ALPHABET ? transitions[state][c] : 0;
+            for (int id : outputs[state]) {
+                if (ends[id] < 0) {
+                    ends[id] = i + 1;
+                }
+            }
+        }
+        return ends;
+    }
+
+    /**
+     * Stops at the first occurrence of any pattern, without allocating.
+     *
+     * @return index of a pattern that ends first in {@code text}, or -1 if none occurs
+     */
+    public int firstMatch(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            state = c < ALPHABET ? transitions[state][c] : 0;
+            if (outputs[state].length > 0) {
+                return outputs[state][0];
+            }
+        }
+        return -1;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,89 @@
+package com.petruth.urlshortener.redirect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plain-JDBC access to shortened_url for redirects: one indexed lookup by code and
+ * batched click and bot counter updates. No ORM, so it starts instantly.
+ */
+public final class RedirectLookup {
+
+    /**
+     * The columns a redirect needs, nothing else.
+     */
+    public record Target(long id, String longUrl, int redirectStatus, int cacheMaxAge, LocalDateTime expiresAt) {}
+
+    private final DataSource dataSource;
+
+    public RedirectLookup(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return null when no link has this code
+     */
+    public Target find(String code) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT id, long_url, redirect_status, cache_max_age, expires_at FROM shortened_url WHERE code = ?")) {
+            statement.setString(1, code);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Timestamp expiresAt = rs.getTimestamp(5);
+                return new Target(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4),
+                        expiresAt != null ? expiresAt.toLocalDateTime() : null);
+            }
+        }
+    }
+
+    /**
+     * Adds the buffered clicks per code in one batch, one UPDATE per code rather than per click.
+     */
+    public void incrementClicks(Map<String, Long> clicksByCode, LocalDateTime lastAccessed) throws SQLException {
+        if (clicksByCode.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE shortened_url SET click_count = click_count + ?, last_accessed = ? WHERE code = ?")) {
+            Timestamp accessed = Timestamp.valueOf(lastAccessed);
+            for (Map.Entry<String, Long> entry : clicksByCode.entrySet()) {
+                statement.setLong(1, entry.getValue());
+                statement.setTimestamp(2, accessed);
+                statement.setString(3, entry.getKey());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Adds bot and prefetch hits to bot_click_count, ids in ascending order like the main app's
+     * flush, so concurrent flushes lock rows in the same order. Deleted links are skipped.
+     */
+    public void incrementBotClicks(Map<Long, Long> hitsById) throws SQLException {
+        if (hitsById.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE shortened_url SET bot_click_count = bot_click_count + ? WHERE id = ?")) {
+            for (Map.Entry<Long, Long> entry : new TreeMap<>(hitsById).entrySet()) {
+                statement.setLong(1, entry.getValue());
+                statement.setLong(2, entry.getKey());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
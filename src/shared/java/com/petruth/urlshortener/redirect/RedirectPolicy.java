@@ -0,0 +1,35 @@
+package com.petruth.urlshortener.redirect;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Redirect rules shared by the main app and the standalone redirect server,
+ * so both answer the same code with the same status and headers.
+ */
+public final class RedirectPolicy {
+
+    public static final String GONE_BODY =
+            "<html><body><h1>410 - Link Expired</h1><p>This shortened link has expired and is no longer available.</p></body></html>";
+
+    private RedirectPolicy() {
+    }
+
+    public static boolean isExpired(LocalDateTime expiresAt, LocalDateTime now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+
+    /**
+     * Cacheable redirects skip the origin on repeat clicks (and skip analytics with them),
+     * so links default to no-store. A max-age never outlives the link's expiry.
+     *
+     * @return seconds for {@code Cache-Control: max-age}, or 0 for no-store
+     */
+    public static long cacheMaxAgeSeconds(Integer cacheMaxAge, LocalDateTime expiresAt, LocalDateTime now) {
+        long maxAge = cacheMaxAge != null ? cacheMaxAge : 0;
+        if (expiresAt != null) {
+            maxAge = Math.min(maxAge, Duration.between(now, expiresAt).getSeconds());
+        }
+        return Math.max(maxAge, 0);
+    }
+}
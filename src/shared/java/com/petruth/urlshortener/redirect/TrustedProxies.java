@@ -0,0 +1,128 @@
+package com.petruth.urlshortener.redirect;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the client address behind proxies we trust, like Tomcat's RemoteIpValve does for
+ * the main app. X-Forwarded-For is read from the right: each trusted proxy appends the
+ * address it received the request from, so the first entry that isn't a trusted proxy is
+ * the client. Entries further left were sent by the client itself and are never used.
+ * Immutable and thread-safe.
+ */
+public final class TrustedProxies {
+
+    /**
+     * Private and loopback ranges, the same default as server.tomcat.remoteip.internal-proxies.
+     */
+    public static final String DEFAULT_RANGES =
+            "192.168.0.0/16, 172.16.0.0/12, 169.254.0.0/16, fc00::/7, 10.0.0.0/8, 100.64.0.0/10, "
+                    + "127.0.0.0/8, fe80::/10, ::1/128";
+
+    // Only literals are parsed, so InetAddress never turns a header value into a DNS lookup
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<Range> ranges;
+
+    /**
+     * @param cidrs comma-separated CIDR ranges, e.g. {@link #DEFAULT_RANGES}
+     */
+    public TrustedProxies(String cidrs) {
+        List<Range> parsed = new ArrayList<>();
+        for (String cidr : cidrs.split(",")) {
+            cidr = cidr.trim();
+            if (!cidr.isEmpty()) {
+                parsed.add(Range.parse(cidr));
+            }
+        }
+        this.ranges = List.copyOf(parsed);
+    }
+
+    public boolean contains(String address) {
+        byte[] bytes = literal(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Range range : ranges) {
+            if (range.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param forwardedFor  X-Forwarded-For, or null
+     * @param remoteAddress the socket peer
+     * @return the nearest address that isn't a trusted proxy; the leftmost entry when every
+     *         hop is trusted, and the socket peer when it isn't a trusted proxy itself
+     */
+    public String clientIp(String forwardedFor, String remoteAddress) {
+        if (forwardedFor == null || !contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String client = remoteAddress;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            if (literal(hop) == null) {
+                // Not an address: whoever passed it on is as far as we can trust
+                return client;
+            }
+            client = hop;
+            if (!contains(hop)) {
+                return client;
+            }
+        }
+        return client;
+    }
+
+    private static byte[] literal(String address) {
+        if (address == null || !(IPV4.matcher(address).matches() || IPV6.matcher(address).matches())) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record Range(byte[] network, int prefix) {
+
+        static Range parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            String address = slash < 0 ? cidr : cidr.substring(0, slash);
+            byte[] network = literal(address);
+            if (network == null) {
+                throw new IllegalArgumentException("Not an IP range: " + cidr);
+            }
+            int prefix = slash < 0 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+            if (prefix < 0 || prefix > network.length * 8) {
+                throw new IllegalArgumentException("Bad prefix length: " + cidr);
+            }
+            return new Range(network, prefix);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int bits = prefix;
+            for (int i = 0; bits > 0; i++, bits -= 8) {
+                int mask = bits >= 8 ? 0xFF : 0xFF << (8 - bits);
+                if ((address[i] & mask) != (network[i] & mask)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.redirect.ClickClassifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickClassifierTest {
+
+    private static final String CHROME =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    private ClickClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = ClickClassifier.withDefaultPatterns();
+    }
+
+    @Test
+    void classifyHeaders_ShouldTreatBrowsersAsHuman() {
+        assertEquals(ClickClassifier.Kind.HUMAN, classifier.classifyHeaders(CHROME));
+        assertEquals(ClickClassifier.Kind.HUMAN, classifier.classifyHeaders(
+                "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1"));
+    }
+
+    @Test
+    void classifyHeaders_ShouldDetectLinkPreviewBots() {
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(
+                "Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)"));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders("Twitterbot/1.0"));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(
+                "facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)"));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(
+                "Mozilla/5.0 (compatible; Discordbot/2.0; +https://discordapp.com)"));
+    }
+
+    @Test
+    void classifyHeaders_ShouldDetectMonitorsAndLibraries() {
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(
+                "Mozilla/5.0+(compatible; UptimeRobot/2.0; http://www.uptimerobot.com/)"));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders("curl/8.4.0"));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders("python-requests/2.31.0"));
+    }
+
+    @Test
+    void classifyHeaders_ShouldTreatMissingUserAgentAsBot() {
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(null));
+        assertEquals(ClickClassifier.Kind.BOT, classifier.classifyHeaders(" "));
+    }
+
+    @Test
+    void classifyHeaders_ShouldNotMistakeCubotPhonesForBots() {
+        assertEquals(ClickClassifier.Kind.HUMAN, classifier.classifyHeaders(
+                "Mozilla/5.0 (Linux; Android 11; CUBOT_X30) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36"));
+    }
+
+    @Test
+    void classifyHeaders_ShouldDetectPrefetchHeaders() {
+        assertEquals(ClickClassifier.Kind.PREFETCH, classifier.classifyHeaders(CHROME, "prefetch;prerender"));
+        assertEquals(ClickClassifier.Kind.PREFETCH, classifier.classifyHeaders(CHROME, null, "Prefetch"));
+        assertEquals(ClickClassifier.Kind.PREFETCH, classifier.classifyHeaders(CHROME, null, null, "preview"));
+        assertEquals(ClickClassifier.Kind.HUMAN, classifier.classifyHeaders(CHROME, null, null, null, null));
+    }
+}
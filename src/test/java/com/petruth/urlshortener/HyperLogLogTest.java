@@ -0,0 +1,75 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.service.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldBeExact_ForEmptySketch() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void estimate_ShouldIgnoreRepeatVisitors() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(HyperLogLog.visitorHash("203.0.113.7", "Mozilla/5.0"));
+        }
+
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void estimate_ShouldStayWithinFivePercent_ForSmallAndLargeCounts() {
+        for (int distinct : new int[]{100, 10_000, 500_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add(HyperLogLog.visitorHash("10." + (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF),
+                        "agent-" + (i % 7)));
+            }
+
+            assertEquals(distinct, sketch.estimate(), distinct * 0.05, "distinct=" + distinct);
+        }
+    }
+
+    @Test
+    void merge_ShouldCountTheUnion_AndBeIdempotent() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            monday.add(HyperLogLog.visitorHash("ip-" + i, "ua"));
+            tuesday.add(HyperLogLog.visitorHash("ip-" + (i + 10_000), "ua"));
+        }
+
+        HyperLogLog week = new HyperLogLog();
+        week.merge(monday);
+        week.merge(tuesday);
+        long union = week.estimate();
+        week.merge(tuesday);
+
+        assertEquals(30_000, union, 30_000 * 0.05);
+        assertEquals(union, week.estimate());
+    }
+
+    @Test
+    void toBytes_ShouldRoundTrip_InSparseAndDenseForm() {
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            if (i < 50) {
+                small.add(HyperLogLog.visitorHash("ip-" + i, "ua"));
+            }
+            large.add(HyperLogLog.visitorHash("ip-" + i, "ua"));
+        }
+
+        byte[] smallBytes = small.toBytes();
+        byte[] largeBytes = large.toBytes();
+
+        assertTrue(smallBytes.length < 200, "sparse sketch should be small");
+        assertEquals(small.estimate(), HyperLogLog.fromBytes(smallBytes).estimate());
+        assertEquals(large.estimate(), HyperLogLog.fromBytes(largeBytes).estimate());
+    }
+}
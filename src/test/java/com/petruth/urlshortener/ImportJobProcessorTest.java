@@ -0,0 +1,172 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.dto.BulkUrlResponse;
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.ImportJobRepository;
+import com.petruth.urlshortener.repository.UserRepository;
+import com.petruth.urlshortener.service.BulkShortenService;
+import com.petruth.urlshortener.service.ImportJobLeases;
+import com.petruth.urlshortener.service.ImportJobProcessor;
+import com.petruth.urlshortener.service.UrlRequestLineParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobProcessorTest {
+
+    private static final String OWNER = "node-a";
+    private static final String BASE_URL = "https://quick.link";
+    private static final String HEAD = "url\nhttps://a.example\nhttps://b.example\n";
+    private static final String TAIL = "https://c.example\nhttps://d.example\n";
+    private static final String COMMITTED_RESULTS =
+            "{\"line\":2,\"success\":true}\n{\"line\":3,\"success\":true}\n";
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private ImportJobLeases leases;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BulkShortenService bulkShortenService;
+
+    @TempDir
+    Path storage;
+
+    private ImportJobProcessor processor;
+    private ImportJob job;
+    private User user;
+    private Path source;
+    private Path results;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder().build();
+        processor = new ImportJobProcessor(importJobRepository, leases, userRepository, bulkShortenService,
+                new UrlRequestLineParser(objectMapper), objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(processor, "chunkSize", 2);
+
+        user = new User();
+        user.setId(1L);
+
+        // Checkpointed after the header and two links; the results file also holds part of an
+        // uncommitted chunk that must be dropped on resume
+        source = Files.writeString(storage.resolve("job.src"), HEAD + TAIL);
+        results = Files.writeString(storage.resolve("job.results.ndjson"), COMMITTED_RESULTS + "{\"partial\":tr");
+
+        job = new ImportJob();
+        job.setId(7L);
+        job.setUser(user);
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setFormat(ImportJob.Format.CSV);
+        job.setSourcePath(source.toString());
+        job.setResultPath(results.toString());
+        job.setBaseUrl(BASE_URL);
+        job.setSourceBytes(Files.size(source));
+        job.setBytesProcessed(HEAD.length());
+        job.setLinesProcessed(3);
+        job.setResultBytes(COMMITTED_RESULTS.length());
+    }
+
+    private void claimable() {
+        when(leases.owner()).thenReturn(OWNER);
+        when(leases.expiry()).thenReturn(LocalDateTime.now().plusMinutes(2));
+        when(importJobRepository.claim(eq(7L), eq(OWNER), any(), any(),
+                eq(ImportJob.Status.QUEUED), eq(ImportJob.Status.RUNNING))).thenReturn(1);
+        when(importJobRepository.findById(7L)).thenReturn(Optional.of(job));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bulkShortenService.shortenChunk(eq(user), anyList(), eq(BASE_URL))).thenAnswer(invocation -> {
+            List<UrlRequest> requests = invocation.getArgument(1);
+            return requests.stream()
+                    .map(r -> new BulkUrlResponse.UrlResult(r.url(), BASE_URL + "/api/x", "x", true, null))
+                    .toList();
+        });
+    }
+
+    @Test
+    void process_ShouldResumeFromCheckpoint_AndDropUncommittedResults() throws IOException {
+        claimable();
+        when(importJobRepository.recordProgress(eq(7L), eq(OWNER), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), any(), any(), eq(ImportJob.Status.RUNNING))).thenReturn(1);
+        when(importJobRepository.finish(eq(7L), eq(OWNER), eq(ImportJob.Status.COMPLETED), isNull(), any(),
+                eq(ImportJob.Status.RUNNING))).thenReturn(1);
+
+        processor.process(7L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UrlRequest>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(bulkShortenService).shortenChunk(eq(user), chunk.capture(), eq(BASE_URL));
+        assertEquals(List.of("https://c.example", "https://d.example"),
+                chunk.getValue().stream().map(UrlRequest::url).toList());
+
+        String written = Files.readString(results, StandardCharsets.UTF_8);
+        assertTrue(written.startsWith(COMMITTED_RESULTS), written);
+        assertFalse(written.contains("partial"), written);
+        List<String> lines = written.lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(2).startsWith("{\"line\":4,"), lines.get(2));
+        assertTrue(lines.get(3).startsWith("{\"line\":5,"), lines.get(3));
+
+        verify(importJobRepository).recordProgress(eq(7L), eq(OWNER), eq((long) (HEAD + TAIL).length()), eq(5L),
+                eq(Files.size(results)), eq(2L), eq(0L), any(), any(), eq(ImportJob.Status.RUNNING));
+        assertFalse(Files.exists(source));
+        verify(leases).release(7L);
+    }
+
+    @Test
+    void process_ShouldStopWithoutFailingTheJob_WhenItsLeaseWasTakenOver() {
+        claimable();
+        when(importJobRepository.recordProgress(eq(7L), eq(OWNER), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), any(), any(), eq(ImportJob.Status.RUNNING))).thenReturn(0);
+
+        processor.process(7L);
+
+        // Not retried row by row, and neither completed nor failed: the new owner carries on
+        verify(bulkShortenService, times(1)).shortenChunk(any(), anyList(), any());
+        verify(importJobRepository, never()).finish(any(), any(), any(), any(), any(), any());
+        assertTrue(Files.exists(source));
+        verify(leases).release(7L);
+    }
+
+    @Test
+    void process_ShouldLeaveJobsHeldByAnotherNodeAlone() {
+        when(leases.owner()).thenReturn(OWNER);
+        when(leases.expiry()).thenReturn(LocalDateTime.now().plusMinutes(2));
+        when(importJobRepository.claim(eq(7L), eq(OWNER), any(), any(),
+                eq(ImportJob.Status.QUEUED), eq(ImportJob.Status.RUNNING))).thenReturn(0);
+
+        processor.process(7L);
+
+        verify(importJobRepository, never()).findById(any());
+        verifyNoInteractions(bulkShortenService);
+        verify(leases).release(7L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.repository.ImportJobRepository;
+import com.petruth.urlshortener.service.ImportJobLeases;
+import com.petruth.urlshortener.service.ImportJobProcessor;
+import com.petruth.urlshortener.service.ImportJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private ImportJobProcessor importJobProcessor;
+
+    @TempDir
+    Path storage;
+
+    private ImportJobLeases leases;
+    private ImportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        leases = new ImportJobLeases(importJobRepository, mock(PlatformTransactionManager.class), 120);
+        service = new ImportJobService(importJobRepository, importJobProcessor, leases,
+                JsonMapper.builder().build(), storage.toString());
+    }
+
+    private static ImportJob job(long id) {
+        ImportJob job = new ImportJob();
+        job.setId(id);
+        job.setStatus(ImportJob.Status.RUNNING);
+        return job;
+    }
+
+    @Test
+    void resumePendingJobs_ShouldHoldJobsWhileTheyWaitInTheQueue() {
+        when(importJobRepository.findUnleased(anyCollection(), any())).thenReturn(List.of(job(1), job(2)));
+
+        service.resumePendingJobs();
+        // Still queued behind busy workers: the next run must not submit them again
+        service.resumePendingJobs();
+
+        verify(importJobProcessor, times(1)).process(1L);
+        verify(importJobProcessor, times(1)).process(2L);
+        assertTrue(leases.isHeld(1L));
+        assertTrue(leases.isHeld(2L));
+    }
+
+    @Test
+    void resumePendingJobs_ShouldReleaseAndStop_WhenTheQueueIsFull() {
+        when(importJobRepository.findUnleased(anyCollection(), any())).thenReturn(List.of(job(1), job(2)));
+        doThrow(new TaskRejectedException("full")).when(importJobProcessor).process(1L);
+
+        service.resumePendingJobs();
+
+        assertFalse(leases.isHeld(1L));
+        verify(importJobProcessor, never()).process(2L);
+        assertFalse(leases.isHeld(2L));
+    }
+}
@@ -0,0 +1,71 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.service.LineReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineReaderTest {
+
+    private static LineReader reader(String content, long startPosition) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new LineReader(new ByteArrayInputStream(bytes, (int) startPosition, bytes.length), startPosition);
+    }
+
+    @Test
+    void readLine_ShouldTrackByteOffsets_ForMultiByteCharsAndCrlf() throws IOException {
+        // U+00E9 is two bytes in UTF-8, U+20AC three
+        LineReader reader = reader("\u00e9\r\n\u20acx\nlast", 0);
+
+        assertEquals("\u00e9", reader.readLine());
+        assertEquals(4, reader.getPosition());
+        assertEquals("\u20acx", reader.readLine());
+        assertEquals(9, reader.getPosition());
+        assertEquals("last", reader.readLine());
+        assertEquals(13, reader.getPosition());
+        assertNull(reader.readLine());
+        assertEquals(13, reader.getPosition());
+    }
+
+    @Test
+    void readLine_ShouldResumeAtACheckpointedOffset() throws IOException {
+        String content = "https://a.example\nhttps://b.example\nhttps://c.example\n";
+        LineReader first = reader(content, 0);
+        first.readLine();
+        long checkpoint = first.getPosition();
+
+        LineReader resumed = reader(content, checkpoint);
+
+        assertEquals("https://b.example", resumed.readLine());
+        assertEquals("https://c.example", resumed.readLine());
+        assertEquals(content.length(), resumed.getPosition());
+    }
+
+    @Test
+    void readLine_ShouldStripBom_OnlyAtTheStartOfTheFile() throws IOException {
+        LineReader reader = reader("\uFEFFurl\n\uFEFFnot-a-bom\n", 0);
+
+        assertEquals("url", reader.readLine());
+        assertEquals(7, reader.getPosition()); // BOM bytes still count
+        assertEquals("\uFEFFnot-a-bom", reader.readLine());
+
+        // Resuming mid-file never strips, even if the line happens to start with U+FEFF
+        assertEquals("\uFEFFnot-a-bom", reader("\uFEFFurl\n\uFEFFnot-a-bom\n", 7).readLine());
+    }
+
+    @Test
+    void readLine_ShouldTruncateLongLines_ButConsumeThemWhole() throws IOException {
+        char[] longLine = new char[20_000];
+        Arrays.fill(longLine, 'a');
+        LineReader reader = reader(new String(longLine) + "\nnext\n", 0);
+
+        assertEquals(16 * 1024, reader.readLine().length());
+        assertEquals(20_001, reader.getPosition());
+        assertEquals("next", reader.readLine());
+    }
+}
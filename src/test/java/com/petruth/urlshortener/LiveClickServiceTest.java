@@ -0,0 +1,76 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.dto.ClickRecorded;
+import com.petruth.urlshortener.service.LiveClickService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveClickServiceTest {
+
+    @Test
+    void subscribe_ShouldRejectStreams_BeyondMaxSubscribers() throws IOException {
+        LiveClickService service = new LiveClickService(100, 60_000, 2, Runnable::run);
+
+        assertTrue(service.subscribe("a").isPresent());
+        assertTrue(service.subscribe("b").isPresent());
+        assertEquals(Optional.empty(), service.subscribe("a"));
+        assertEquals(2, service.getSubscriberCount());
+    }
+
+    @Test
+    void pushUpdates_ShouldHandSendsToTheExecutor_AndSkipLinksWithoutClicks() throws IOException {
+        List<Runnable> tasks = new ArrayList<>();
+        LiveClickService service = new LiveClickService(100, 60_000, 10, tasks::add);
+        service.subscribe("a");
+        service.subscribe("b");
+
+        service.onClick(new ClickRecorded("a", System.currentTimeMillis(), "desktop", "Firefox", "RO"));
+        service.pushUpdates();
+
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void pushUpdates_ShouldSkipALink_WhileItsPreviousUpdateIsStillBeingSent() throws IOException {
+        List<Runnable> tasks = new ArrayList<>();
+        LiveClickService service = new LiveClickService(100, 60_000, 10, tasks::add);
+        service.subscribe("a");
+
+        service.onClick(new ClickRecorded("a", System.currentTimeMillis(), "desktop", "Firefox", "RO"));
+        service.pushUpdates();
+        service.onClick(new ClickRecorded("a", System.currentTimeMillis(), "mobile", "Safari", "RO"));
+        service.pushUpdates();
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        service.pushUpdates();
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    void onClick_ShouldNotEvictAWatchedLink_WhenOtherLinksFillTheCache() throws IOException {
+        List<Runnable> tasks = new ArrayList<>();
+        LiveClickService service = new LiveClickService(2, 60_000, 10, tasks::add);
+        service.subscribe("watched");
+
+        for (int i = 0; i < 50; i++) {
+            service.onClick(new ClickRecorded("other" + i, System.currentTimeMillis(), "desktop", "Firefox", "RO"));
+        }
+        // Caffeine evicts on its maintenance thread
+        ForkJoinPool.commonPool().awaitQuiescence(5, TimeUnit.SECONDS);
+
+        // The click lands in the feed the stream is attached to, so an update goes out
+        service.onClick(new ClickRecorded("watched", System.currentTimeMillis(), "desktop", "Firefox", "RO"));
+        service.pushUpdates();
+        assertEquals(1, tasks.size());
+        assertEquals(1, service.getSubscriberCount());
+    }
+}
@@ -0,0 +1,353 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.service.MaxMindDbReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reader against small .mmdb files written by {@link MmdbWriter} below, following
+ * https://maxmind.github.io/MaxMind-DB/ independently of the reader's own code.
+ */
+class MaxMindDbReaderTest {
+
+    // Pushes the data records past 2^24, so 28- and 32-bit records need their high bits
+    // and pointers to them need the 3-byte form
+    private static final int LARGE_PADDING = 1 << 24;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lookup_ShouldFindIpv4InsideAnIpv6Tree_With24BitRecords() throws IOException {
+        MaxMindDbReader reader = open(fixture(24, 0));
+
+        assertCity(reader.lookup(InetAddress.getByName("1.2.3.4")));
+        assertEquals("GeoLite2-City-Test", reader.getDatabaseType());
+        assertEquals(1_700_000_000L, reader.getBuildEpoch());
+    }
+
+    @Test
+    void lookup_ShouldReadHighBitsOf28BitRecords_InLeftAndRightPosition() throws IOException {
+        MaxMindDbReader reader = open(fixture(28, LARGE_PADDING));
+
+        // 1.2.3.0/24 ends in a 1 bit (right record), 2001:db8::/32 in a 0 bit (left record)
+        assertCity(reader.lookup(InetAddress.getByName("1.2.3.200")));
+        assertIpv6Network(reader.lookup(InetAddress.getByName("2001:db8::1")));
+    }
+
+    @Test
+    void lookup_ShouldRead32BitRecords() throws IOException {
+        MaxMindDbReader reader = open(fixture(32, LARGE_PADDING));
+
+        assertCity(reader.lookup(InetAddress.getByName("1.2.3.4")));
+        assertIpv6Network(reader.lookup(InetAddress.getByName("2001:db8:ffff::")));
+    }
+
+    @Test
+    void lookup_ShouldFollowShortAndTwoBytePointers() throws IOException {
+        MaxMindDbReader reader = open(fixture(24, 0));
+
+        // country is a pointer to offset 0, region one past the 2048-byte boundary
+        assertIpv6Network(reader.lookup(InetAddress.getByName("2001:db8::1")));
+    }
+
+    @Test
+    void lookup_ShouldReturnNull_WhenTheTreeHasNoDataForTheAddress() throws IOException {
+        MaxMindDbReader reader = open(fixture(24, 0));
+
+        assertNull(reader.lookup(InetAddress.getByName("1.2.4.1")));
+        assertNull(reader.lookup(InetAddress.getByName("5.6.7.8")));
+        assertNull(reader.lookup(InetAddress.getByName("2001:db9::1")));
+    }
+
+    @Test
+    void lookup_ShouldReturnNullForIpv6_InAnIpv4OnlyDatabase() throws IOException {
+        MmdbWriter writer = new MmdbWriter(24, 4, 0);
+        int city = writer.data(cityRecord(writer, writer.data(country())));
+        writer.insert(new byte[]{1, 2, 3, 0}, 24, city);
+        MaxMindDbReader reader = open(writer.toBytes());
+
+        assertCity(reader.lookup(InetAddress.getByName("1.2.3.4")));
+        assertNull(reader.lookup(InetAddress.getByName("2001:db8::1")));
+    }
+
+    @Test
+    void open_ShouldRejectFilesWithoutMetadata() throws IOException {
+        Path file = Files.write(dir.resolve("broken.mmdb"), new byte[1024]);
+
+        assertThrows(IllegalStateException.class, () -> MaxMindDbReader.open(file));
+    }
+
+    private MaxMindDbReader open(byte[] bytes) throws IOException {
+        return MaxMindDbReader.open(Files.write(dir.resolve("test.mmdb"), bytes));
+    }
+
+    /**
+     * IPv6 tree with 1.2.3.0/24 (under ::/96) and 2001:db8::/32. Both records share the country
+     * map through pointers; the IPv6 one also points at a region placed after 2 KB of data.
+     */
+    private static byte[] fixture(int recordSize, int padding) throws IOException {
+        MmdbWriter writer = new MmdbWriter(recordSize, 6, padding);
+        int country = writer.data(country());
+        int city = writer.data(cityRecord(writer, country));
+        int region = writer.data(map(str("names"), map(str("en"), str("Ilfov"))));
+        assertTrue(region - padding > 2048, "region must need a two-byte pointer");
+        int network = writer.data(map(
+                str("country"), writer.pointer(country),
+                str("region"), writer.pointer(region),
+                str("ipv6"), bool(true)));
+
+        byte[] ipv4 = new byte[16];
+        ipv4[12] = 1;
+        ipv4[13] = 2;
+        ipv4[14] = 3;
+        writer.insert(ipv4, 96 + 24, city);
+        writer.insert(InetAddress.getByName("2001:db8::").getAddress(), 32, network);
+        return writer.toBytes();
+    }
+
+    private static byte[] country() {
+        return map(str("iso_code"), str("RO"), str("names"), map(str("en"), str("Romania")));
+    }
+
+    private static byte[] cityRecord(MmdbWriter writer, int countryOffset) {
+        char[] note = new char[2100];
+        Arrays.fill(note, 'x');
+        return map(
+                str("city"), map(str("geoname_id"), uint(6, 4, 683506), str("names"), map(str("en"), str("Bucharest"))),
+                str("country"), writer.pointer(countryOffset),
+                str("location"), map(str("latitude"), dbl(44.4268), str("accuracy_radius"), uint(5, 2, 50)),
+                str("population"), uint(9, 8, 1L << 40),
+                str("offset"), int32(-5),
+                str("tags"), array(str("capital"), bool(false)),
+                str("note"), str(new String(note)));
+    }
+
+    private static void assertCity(Object record) {
+        Map<?, ?> map = assertInstanceOf(Map.class, record);
+        Map<?, ?> city = assertInstanceOf(Map.class, map.get("city"));
+        assertEquals(683506L, city.get("geoname_id"));
+        assertEquals(Map.of("en", "Bucharest"), city.get("names"));
+        assertEquals(Map.of("iso_code", "RO", "names", Map.of("en", "Romania")), map.get("country"));
+        assertEquals(Map.of("latitude", 44.4268, "accuracy_radius", 50), map.get("location"));
+        assertEquals(BigInteger.ONE.shiftLeft(40), map.get("population"));
+        assertEquals(-5, map.get("offset"));
+        assertEquals(List.of("capital", false), map.get("tags"));
+        assertEquals(2100, ((String) map.get("note")).length());
+    }
+
+    private static void assertIpv6Network(Object record) {
+        Map<?, ?> map = assertInstanceOf(Map.class, record);
+        assertEquals(Map.of("iso_code", "RO", "names", Map.of("en", "Romania")), map.get("country"));
+        assertEquals(Map.of("names", Map.of("en", "Ilfov")), map.get("region"));
+        assertEquals(true, map.get("ipv6"));
+    }
+
+    // --- Data section encoding (types and control bytes as in the spec) ---
+
+    private static byte[] control(int type, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int sizeBits;
+        byte[] extra;
+        if (size < 29) {
+            sizeBits = size;
+            extra = new byte[0];
+        } else if (size < 285) {
+            sizeBits = 29;
+            extra = new byte[]{(byte) (size - 29)};
+        } else if (size < 65_821) {
+            sizeBits = 30;
+            extra = new byte[]{(byte) ((size - 285) >> 8), (byte) (size - 285)};
+        } else {
+            int value = size - 65_821;
+            sizeBits = 31;
+            extra = new byte[]{(byte) (value >> 16), (byte) (value >> 8), (byte) value};
+        }
+        if (type <= 7) {
+            out.write((type << 5) | sizeBits);
+        } else {
+            out.write(sizeBits);
+            out.write(type - 7);
+        }
+        out.writeBytes(extra);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] str(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return concat(control(2, bytes.length), bytes);
+    }
+
+    private static byte[] dbl(double value) {
+        return concat(control(3, 8), ByteBuffer.allocate(8).putDouble(value).array());
+    }
+
+    private static byte[] uint(int type, int size, long value) {
+        byte[] bytes = new byte[size];
+        for (int i = size - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return concat(control(type, size), bytes);
+    }
+
+    private static byte[] int32(int value) {
+        return concat(control(8, 4), ByteBuffer.allocate(4).putInt(value).array());
+    }
+
+    private static byte[] bool(boolean value) {
+        return control(14, value ? 1 : 0);
+    }
+
+    private static byte[] map(byte[]... keysAndValues) {
+        return concat(control(7, keysAndValues.length / 2), concat(keysAndValues));
+    }
+
+    private static byte[] array(byte[]... values) {
+        return concat(control(11, values.length), concat(values));
+    }
+
+    /**
+     * Builds the search tree bit by bit, then lays out tree, separator, data section and metadata.
+     */
+    private static final class MmdbWriter {
+
+        private static final class Node {
+            final Object[] children = new Object[2]; // Node, Integer (data offset) or null
+        }
+
+        private final int recordSize;
+        private final int ipVersion;
+        private final Node root = new Node();
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        MmdbWriter(int recordSize, int ipVersion, int padding) {
+            this.recordSize = recordSize;
+            this.ipVersion = ipVersion;
+            data.writeBytes(new byte[padding]);
+        }
+
+        /**
+         * @return offset of the value in the data section
+         */
+        int data(byte[] value) {
+            int offset = data.size();
+            data.writeBytes(value);
+            return offset;
+        }
+
+        byte[] pointer(int offset) {
+            if (offset < 2048) {
+                return new byte[]{(byte) (0x20 | (offset >> 8)), (byte) offset};
+            }
+            if (offset < 526_336) {
+                int value = offset - 2048;
+                return new byte[]{(byte) (0x28 | (value >> 16)), (byte) (value >> 8), (byte) value};
+            }
+            int value = offset - 526_336;
+            if (value >= 1 << 27) {
+                throw new IllegalArgumentException("Fixture too large for a 3-byte pointer");
+            }
+            return new byte[]{(byte) (0x30 | (value >> 24)), (byte) (value >> 16), (byte) (value >> 8), (byte) value};
+        }
+
+        void insert(byte[] network, int prefixLength, int dataOffset) {
+            Node node = root;
+            for (int i = 0; i < prefixLength; i++) {
+                int bit = 1 & (network[i >> 3] >> (7 - (i & 7)));
+                if (i == prefixLength - 1) {
+                    node.children[bit] = dataOffset;
+                } else {
+                    if (node.children[bit] == null) {
+                        node.children[bit] = new Node();
+                    }
+                    node = (Node) node.children[bit];
+                }
+            }
+        }
+
+        byte[] toBytes() {
+            List<Node> nodes = new ArrayList<>();
+            number(root, nodes);
+            int nodeCount = nodes.size();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Node node : nodes) {
+                long left = record(node.children[0], nodes, nodeCount);
+                long right = record(node.children[1], nodes, nodeCount);
+                switch (recordSize) {
+                    case 24 -> out.writeBytes(concat(bytes(left, 3), bytes(right, 3)));
+                    case 28 -> {
+                        out.writeBytes(bytes(left & 0xFFFFFF, 3));
+                        out.write((int) (((left >> 24) & 0x0F) << 4 | ((right >> 24) & 0x0F)));
+                        out.writeBytes(bytes(right & 0xFFFFFF, 3));
+                    }
+                    default -> out.writeBytes(concat(bytes(left, 4), bytes(right, 4)));
+                }
+            }
+            out.writeBytes(new byte[16]);
+            out.writeBytes(data.toByteArray());
+            out.writeBytes(new byte[]{(byte) 0xAB, (byte) 0xCD, (byte) 0xEF});
+            out.writeBytes("MaxMind.com".getBytes(StandardCharsets.US_ASCII));
+            out.writeBytes(map(
+                    str("node_count"), uint(6, 4, nodeCount),
+                    str("record_size"), uint(5, 2, recordSize),
+                    str("ip_version"), uint(5, 2, ipVersion),
+                    str("database_type"), str("GeoLite2-City-Test"),
+                    str("build_epoch"), uint(9, 8, 1_700_000_000L),
+                    str("binary_format_major_version"), uint(5, 2, 2)));
+            return out.toByteArray();
+        }
+
+        private static void number(Node node, List<Node> nodes) {
+            nodes.add(node);
+            for (Object child : node.children) {
+                if (child instanceof Node next) {
+                    number(next, nodes);
+                }
+            }
+        }
+
+        private static long record(Object child, List<Node> nodes, int nodeCount) {
+            if (child == null) {
+                return nodeCount; // No data
+            }
+            if (child instanceof Node node) {
+                return nodes.indexOf(node);
+            }
+            return nodeCount + 16L + (Integer) child;
+        }
+
+        private static byte[] bytes(long value, int size) {
+            byte[] bytes = new byte[size];
+            for (int i = size - 1; i >= 0; i--) {
+                bytes[i] = (byte) value;
+                value >>>= 8;
+            }
+            return bytes;
+        }
+    }
+}
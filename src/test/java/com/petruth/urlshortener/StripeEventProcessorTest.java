@@ -0,0 +1,186 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.dto.PremiumStatusChanged;
+import com.petruth.urlshortener.entity.User;
+import com.petruth.urlshortener.repository.StripeEventRepository;
+import com.petruth.urlshortener.repository.UserRepository;
+import com.petruth.urlshortener.service.StripeEventProcessor;
+import com.stripe.Stripe;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiResource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeEventProcessorTest {
+
+    private static final String LANE = "cus_1";
+
+    @Mock
+    private StripeEventRepository eventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StripeEventProcessor processor;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new StripeEventProcessor(eventRepository, userRepository, eventPublisher,
+                mock(PlatformTransactionManager.class), meterRegistry, 100, 20, 10, 30);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setStripeCustomerId(LANE);
+    }
+
+    private static String subscriptionEvent(String id, String type, String status) {
+        return event(id, type, "{\"id\":\"sub_1\",\"object\":\"subscription\",\"customer\":\"" + LANE
+                + "\",\"status\":\"" + status + "\"}");
+    }
+
+    private static String event(String id, String type, String dataObject) {
+        return "{\"id\":\"" + id + "\",\"object\":\"event\",\"type\":\"" + type + "\",\"created\":1700000000,"
+                + "\"api_version\":\"" + Stripe.API_VERSION + "\",\"data\":{\"object\":" + dataObject + "}}";
+    }
+
+    private static Event parse(String payload) {
+        return StripeObject.deserializeStripeObject(payload, Event.class, ApiResource.getGlobalResponseGetter());
+    }
+
+    private void laneWith(StripeEventRepository.PendingEvent... events) {
+        when(eventRepository.findDueLanes(100)).thenReturn(List.of(LANE));
+        when(eventRepository.tryLockLane(LANE)).thenReturn(true);
+        var heads = when(eventRepository.findHead(LANE));
+        for (StripeEventRepository.PendingEvent event : events) {
+            heads = heads.thenReturn(Optional.of(event));
+        }
+        heads.thenReturn(Optional.empty());
+    }
+
+    @Test
+    void enqueue_ShouldRecordOnce_AndAcknowledgeRedeliveries() {
+        String payload = subscriptionEvent("evt_1", "customer.subscription.updated", "active");
+        when(eventRepository.insert(eq("evt_1"), eq("customer.subscription.updated"), eq(LANE), any(), eq(payload)))
+                .thenReturn(true, false);
+
+        assertTrue(processor.enqueue(parse(payload), payload));
+        assertFalse(processor.enqueue(parse(payload), payload));
+
+        assertEquals(1.0, meterRegistry.get("quicklink.stripe.events").tag("result", "duplicate").counter().count());
+    }
+
+    @Test
+    void enqueue_ShouldIgnoreUnhandledTypes() {
+        String payload = event("evt_1", "invoice.paid", "{\"id\":\"in_1\",\"object\":\"invoice\"}");
+
+        assertTrue(processor.enqueue(parse(payload), payload));
+
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void enqueue_ShouldFallBackToTheEventIdAsLane_WhenTheDataObjectIsUnreadable() {
+        String payload = event("evt_1", "customer.subscription.updated",
+                "{\"id\":\"sub_1\",\"object\":\"subscription\",\"customer\":\"cus_1\",\"items\":\"oops\"}");
+        when(eventRepository.insert(eq("evt_1"), any(), eq("evt_1"), any(), eq(payload))).thenReturn(true);
+
+        assertTrue(processor.enqueue(parse(payload), payload));
+    }
+
+    @Test
+    void processPending_ShouldApplyALanesEventsInOrder() {
+        laneWith(
+                new StripeEventRepository.PendingEvent("evt_1", "customer.subscription.created",
+                        subscriptionEvent("evt_1", "customer.subscription.created", "active"), 0),
+                new StripeEventRepository.PendingEvent("evt_2", "customer.subscription.deleted",
+                        subscriptionEvent("evt_2", "customer.subscription.deleted", "canceled"), 0));
+        when(userRepository.findByStripeCustomerId(LANE)).thenReturn(Optional.of(user));
+
+        processor.processPending();
+
+        InOrder order = inOrder(eventPublisher, eventRepository);
+        order.verify(eventPublisher).publishEvent(new PremiumStatusChanged(1L, "user@example.com", true));
+        order.verify(eventRepository).markProcessed("evt_1");
+        order.verify(eventPublisher).publishEvent(new PremiumStatusChanged(1L, "user@example.com", false));
+        order.verify(eventRepository).markProcessed("evt_2");
+        assertFalse(user.isPremium());
+    }
+
+    @Test
+    void processPending_ShouldBackOffAndHoldTheLane_WhenAnEventFails() {
+        String unreadable = event("evt_1", "customer.subscription.updated",
+                "{\"id\":\"sub_1\",\"object\":\"subscription\",\"customer\":\"cus_1\",\"items\":\"oops\"}");
+        laneWith(new StripeEventRepository.PendingEvent("evt_1", "customer.subscription.updated", unreadable, 3),
+                new StripeEventRepository.PendingEvent("evt_2", "customer.subscription.updated",
+                        subscriptionEvent("evt_2", "customer.subscription.updated", "active"), 0));
+
+        processor.processPending();
+
+        // Fourth attempt: 2^4 seconds, and the later event waits behind it
+        verify(eventRepository).markFailed(eq("evt_1"), anyString(), eq(16L), eq(false));
+        verify(eventRepository, times(1)).findHead(LANE);
+        verify(eventRepository, never()).markProcessed(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void processPending_ShouldGiveUp_AfterMaxAttempts() {
+        laneWith(new StripeEventRepository.PendingEvent("evt_1", "customer.subscription.updated",
+                subscriptionEvent("evt_1", "customer.subscription.updated", "active"), 9));
+        when(userRepository.findByStripeCustomerId(LANE)).thenThrow(new IllegalStateException("db down"));
+
+        processor.processPending();
+
+        verify(eventRepository).markFailed(eq("evt_1"), contains("db down"), eq(1024L), eq(true));
+        assertEquals(1.0, meterRegistry.get("quicklink.stripe.events.processed")
+                .tag("result", "abandoned").counter().count());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "customer.subscription.updated, active, true",
+            "customer.subscription.updated, trialing, true",
+            "customer.subscription.updated, past_due, true",
+            "customer.subscription.updated, unpaid, false",
+            "customer.subscription.updated, canceled, false",
+            "customer.subscription.updated, incomplete, false",
+            "customer.subscription.deleted, active, false"
+    })
+    void processPending_ShouldSetPremiumFromSubscriptionStatus(String type, String status, boolean premium) {
+        user.setPremium(!premium);
+        laneWith(new StripeEventRepository.PendingEvent("evt_1", type, subscriptionEvent("evt_1", type, status), 0));
+        when(userRepository.findByStripeCustomerId(LANE)).thenReturn(Optional.of(user));
+
+        processor.processPending();
+
+        assertEquals(premium, user.isPremium());
+        verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new PremiumStatusChanged(1L, "user@example.com", premium));
+        verify(eventRepository).markProcessed("evt_1");
+    }
+}
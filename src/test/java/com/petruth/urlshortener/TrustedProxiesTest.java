@@ -0,0 +1,70 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.redirect.TrustedProxies;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrustedProxiesTest {
+
+    private final TrustedProxies proxies = new TrustedProxies(TrustedProxies.DEFAULT_RANGES);
+
+    @ParameterizedTest
+    @CsvSource({
+            "10.1.2.3, true",
+            "172.31.255.255, true",
+            "172.32.0.1, false",
+            "192.168.0.7, true",
+            "127.0.0.1, true",
+            "100.64.0.1, true",
+            "100.128.0.1, false",
+            "8.8.8.8, false",
+            "::1, true",
+            "fd00::1, true",
+            "fe80::1, true",
+            "2001:db8::1, false",
+            "::ffff:10.0.0.1, true",
+            "localhost, false",
+            "example.com, false"
+    })
+    void contains_ShouldMatchTheDefaultRanges(String address, boolean trusted) {
+        assertEquals(trusted, proxies.contains(address));
+    }
+
+    @Test
+    void clientIp_ShouldTakeTheFirstUntrustedHopFromTheRight() {
+        // The client claimed 1.1.1.1; our load balancer appended the address it really saw
+        assertEquals("203.0.113.9", proxies.clientIp("1.1.1.1, 203.0.113.9, 10.0.0.5", "10.0.0.2"));
+    }
+
+    @Test
+    void clientIp_ShouldIgnoreTheHeader_WhenThePeerIsNotAProxy() {
+        assertEquals("203.0.113.9", proxies.clientIp("1.1.1.1", "203.0.113.9"));
+        assertEquals("10.0.0.2", proxies.clientIp(null, "10.0.0.2"));
+    }
+
+    @Test
+    void clientIp_ShouldFallBackToTheLeftmostHop_WhenEveryHopIsTrusted() {
+        assertEquals("10.0.0.7", proxies.clientIp("10.0.0.7,  , 10.0.0.5", "127.0.0.1"));
+    }
+
+    @Test
+    void clientIp_ShouldStopAtTheProxy_ThatPassedOnSomethingElse() {
+        assertEquals("10.0.0.5", proxies.clientIp("1.1.1.1, unknown, 10.0.0.5", "10.0.0.2"));
+        assertEquals("10.0.0.2", proxies.clientIp("<script>", "10.0.0.2"));
+    }
+
+    @Test
+    void constructor_ShouldUseCustomRanges() {
+        TrustedProxies custom = new TrustedProxies("203.0.113.0/24, 2001:db8::/32");
+
+        assertTrue(custom.contains("203.0.113.200"));
+        assertTrue(custom.contains("2001:db8:ffff::1"));
+        assertFalse(custom.contains("10.0.0.1"));
+        assertEquals("198.51.100.4", custom.clientIp("198.51.100.4, 203.0.113.8", "203.0.113.1"));
+        assertThrows(IllegalArgumentException.class, () -> new TrustedProxies("10.0.0.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> new TrustedProxies("proxy.internal"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.dto.UrlRequest;
+import com.petruth.urlshortener.entity.ImportJob;
+import com.petruth.urlshortener.service.UrlRequestLineParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlRequestLineParserTest {
+
+    private UrlRequestLineParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new UrlRequestLineParser(JsonMapper.builder().build());
+    }
+
+    @Test
+    void parse_ShouldReadAllCsvColumns() {
+        UrlRequest request = parser.parse("https://example.com, promo ,30,301,3600", ImportJob.Format.CSV);
+
+        assertEquals(new UrlRequest("https://example.com", 30, "promo", 301, 3600), request);
+    }
+
+    @Test
+    void parse_ShouldTreatMissingAndEmptyCsvColumnsAsUnset() {
+        assertEquals(new UrlRequest("https://example.com", null, null, null, null),
+                parser.parse("https://example.com", ImportJob.Format.CSV));
+        assertEquals(new UrlRequest("https://example.com", 7, null, null, null),
+                parser.parse("https://example.com,,7,", ImportJob.Format.CSV));
+    }
+
+    @Test
+    void parse_ShouldHonourQuotedCsvFields() {
+        UrlRequest request = parser.parse("\"https://example.com/?a=1,b=2\",\"my\"\"code\",\"5\"", ImportJob.Format.CSV);
+
+        assertEquals("https://example.com/?a=1,b=2", request.url());
+        assertEquals("my\"code", request.customCode());
+        assertEquals(5, request.expirationDays());
+    }
+
+    @Test
+    void parse_ShouldRejectNonNumericCsvColumns() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("https://example.com,,soon", ImportJob.Format.CSV));
+
+        assertEquals("Invalid expirationDays: soon", e.getMessage());
+    }
+
+    @Test
+    void isHeader_ShouldOnlyMatchCsvHeaderRows() {
+        assertTrue(parser.isHeader("URL,customCode,expirationDays", ImportJob.Format.CSV));
+        assertTrue(parser.isHeader("\"url\"", ImportJob.Format.CSV));
+        assertFalse(parser.isHeader("https://example.com", ImportJob.Format.CSV));
+        assertFalse(parser.isHeader("url", ImportJob.Format.NDJSON));
+    }
+
+    @Test
+    void parse_ShouldReadNdjsonObjects() {
+        UrlRequest request = parser.parse(
+                "{\"url\":\"https://example.com\",\"customCode\":\"abc\",\"redirectStatus\":308}", ImportJob.Format.NDJSON);
+
+        assertEquals(new UrlRequest("https://example.com", null, "abc", 308, null), request);
+    }
+
+    @Test
+    void parse_ShouldRejectMalformedNdjson() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("{\"url\": ", ImportJob.Format.NDJSON));
+
+        assertTrue(e.getMessage().startsWith("Invalid JSON: "), e.getMessage());
+    }
+}
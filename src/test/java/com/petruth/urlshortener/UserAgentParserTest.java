@@ -0,0 +1,98 @@
+package com.petruth.urlshortener;
+
+import com.petruth.urlshortener.dto.UserAgentInfo;
+import com.petruth.urlshortener.redirect.MultiPatternMatcher;
+import com.petruth.urlshortener.service.UserAgentParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserAgentParserTest {
+
+    private UserAgentParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new UserAgentParser(100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void matcher_ShouldReportFirstMatchEnd_CaseInsensitively() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("he", "she", "hers", "xyz"));
+
+        int[] ends = matcher.firstMatchEnds("uSHErs");
+
+        assertArrayEquals(new int[]{4, 4, 6, -1}, ends);
+    }
+
+    @Test
+    void parse_ShouldDetectChromeOnWindows() {
+        UserAgentInfo info = parser.parse(
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.71 Safari/537.36");
+
+        assertEquals(new UserAgentInfo("Desktop", "Chrome", "120.0", "Windows", "10"), info);
+    }
+
+    @Test
+    void parse_ShouldPreferEdgeOverChrome() {
+        UserAgentInfo info = parser.parse(
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.61");
+
+        assertEquals("Edge", info.browser());
+        assertEquals("120.0", info.browserVersion());
+    }
+
+    @Test
+    void parse_ShouldDetectIPhoneAsMobileIos_NotMacOs() {
+        UserAgentInfo info = parser.parse(
+                "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1");
+
+        assertEquals(new UserAgentInfo("Mobile", "Safari", "17.1", "iOS", "17.1"), info);
+    }
+
+    @Test
+    void parse_ShouldDetectIPadAsTablet() {
+        UserAgentInfo info = parser.parse(
+                "Mozilla/5.0 (iPad; CPU OS 16_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/119.0.6045.169 Mobile/15E148 Safari/604.1");
+
+        assertEquals(new UserAgentInfo("Tablet", "Chrome", "119.0", "iOS", "16.6"), info);
+    }
+
+    @Test
+    void parse_ShouldDetectAndroidPhoneAndTablet_NotLinux() {
+        UserAgentInfo phone = parser.parse(
+                "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36");
+        UserAgentInfo tablet = parser.parse(
+                "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/23.0 Chrome/115.0.0.0 Safari/537.36");
+
+        assertEquals(new UserAgentInfo("Mobile", "Chrome", "120.0", "Android", "14"), phone);
+        assertEquals(new UserAgentInfo("Tablet", "Samsung Internet", "23.0", "Android", "13"), tablet);
+    }
+
+    @Test
+    void parse_ShouldDetectFirefoxOnMac() {
+        UserAgentInfo info = parser.parse(
+                "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7; rv:121.0) Gecko/20100101 Firefox/121.0");
+
+        assertEquals(new UserAgentInfo("Desktop", "Firefox", "121.0", "MacOS", "10.15.7"), info);
+    }
+
+    @Test
+    void parse_ShouldFallBackToOther_ForUnknownAgents() {
+        UserAgentInfo info = parser.parse("curl/8.4.0");
+
+        assertEquals(new UserAgentInfo("Desktop", "Other", null, "Other", null), info);
+    }
+
+    @Test
+    void parse_ShouldReturnSameResult_FromCache() {
+        String ua = "Mozilla/5.0 (X11; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0";
+
+        assertSame(parser.parse(ua), parser.parse(ua));
+        assertEquals("Linux", parser.parse(ua).os());
+    }
+}
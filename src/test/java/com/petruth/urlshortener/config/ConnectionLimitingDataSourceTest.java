@@ -0,0 +1,106 @@
+package com.petruth.urlshortener.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionLimitingDataSource(target, "test", 2, 50, meterRegistry);
+    }
+
+    @Test
+    void getConnection_ShouldTimeOut_WhenAllPermitsAreHeld() throws SQLException {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        SQLTransientConnectionException e =
+                assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertTrue(e.getMessage().startsWith("test - no connection permit"), e.getMessage());
+        assertEquals(1.0, meterRegistry.get("quicklink.db.limiter.timeouts").counter().count());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReleaseThePermitOnce_EvenWhenCalledTwice() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        // Two permits, not three: the double close gave back only one
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void getConnection_ShouldReturnThePermit_WhenThePoolFails() throws SQLException {
+        when(target.getConnection())
+                .thenThrow(new SQLException("pool exhausted"))
+                .thenAnswer(invocation -> mock(Connection.class));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+    }
+
+    @Test
+    void connections_ShouldUseIdentityEquality() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // Both wrap the same pooled connection, yet each wrapper is only equal to itself
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertNotEquals(first, pooled);
+        Set<Connection> set = new HashSet<>(Set.of(first));
+        assertTrue(set.contains(first));
+        assertFalse(set.contains(second));
+        verify(pooled, never()).close();
+    }
+
+    @Test
+    void connections_ShouldDelegateOtherCalls() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        when(pooled.getAutoCommit()).thenReturn(false);
+
+        Connection connection = dataSource.getConnection();
+
+        assertFalse(connection.getAutoCommit());
+        connection.close();
+        verify(pooled).close();
+    }
+}
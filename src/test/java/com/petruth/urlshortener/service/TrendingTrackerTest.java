@@ -0,0 +1,206 @@
+package com.petruth.urlshortener.service;
+
+import com.petruth.urlshortener.dto.TrendingLink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingTrackerTest {
+
+    // A bucket boundary, so whole-bucket steps land where the test expects
+    private static final long START = 1_700_000_000_000L;
+    private static final long BUCKET_MS = TrendingTracker.BUCKET_SECONDS * 1000L;
+
+    private final AtomicLong now = new AtomicLong(START);
+
+    private TrendingTracker tracker(int capacity, int stripes) {
+        return new TrendingTracker(capacity, stripes, 2, 3, now::get);
+    }
+
+    private static void record(TrendingTracker tracker, String code, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(code);
+        }
+    }
+
+    private static Map<String, TrendingLink> byCode(List<TrendingLink> links) {
+        Map<String, TrendingLink> result = new HashMap<>();
+        links.forEach(link -> result.put(link.code(), link));
+        return result;
+    }
+
+    @Test
+    void top_ShouldCountExactly_WhileEveryCodeHasACounter() {
+        TrendingTracker tracker = tracker(3, 1);
+        record(tracker, "a", 5);
+        record(tracker, "b", 3);
+
+        assertEquals(List.of(new TrendingLink("a", 5, 5), new TrendingLink("b", 3, 3)),
+                tracker.top(TrendingTracker.Window.ONE_MINUTE, 10));
+    }
+
+    @Test
+    void record_ShouldReplaceTheSmallestCounter_WhenFull() {
+        TrendingTracker tracker = tracker(2, 1);
+        record(tracker, "a", 3);
+        record(tracker, "b", 1);
+        record(tracker, "c", 1);
+
+        // c inherits b's count as its error: estimated 2, at least 1
+        assertEquals(List.of(new TrendingLink("a", 3, 3), new TrendingLink("c", 2, 1)),
+                tracker.top(TrendingTracker.Window.ONE_MINUTE, 10));
+
+        // b is back, replacing c: the one click it really had here is all that's guaranteed
+        record(tracker, "b", 1);
+        assertEquals(List.of(new TrendingLink("a", 3, 3), new TrendingLink("b", 3, 1)),
+                tracker.top(TrendingTracker.Window.ONE_MINUTE, 10));
+    }
+
+    @Test
+    void top_ShouldStayWithinTheSpaceSavingErrorBound() {
+        int capacity = 20;
+        TrendingTracker tracker = tracker(capacity, 1);
+        Map<String, Long> actual = new HashMap<>();
+        long total = 0;
+        // Ten heavy hitters among a long tail of codes clicked once or twice
+        for (int round = 0; round < 50; round++) {
+            for (int hot = 0; hot < 10; hot++) {
+                tracker.record("hot" + hot);
+                actual.merge("hot" + hot, 1L, Long::sum);
+                total++;
+            }
+            for (int tail = 0; tail < 30; tail++) {
+                String code = "tail" + (round * 30 + tail) / 2;
+                tracker.record(code);
+                actual.merge(code, 1L, Long::sum);
+                total++;
+            }
+        }
+
+        Map<String, TrendingLink> top = byCode(tracker.top(TrendingTracker.Window.ONE_MINUTE, capacity));
+        long bound = total / capacity;
+        for (TrendingLink link : top.values()) {
+            long count = actual.get(link.code());
+            assertTrue(link.clicks() >= count, link + " under " + count);
+            assertTrue(link.minClicks() <= count, link + " over " + count);
+            assertTrue(link.clicks() - link.minClicks() <= bound, link + " error over " + bound);
+        }
+        actual.forEach((code, count) -> {
+            if (count > bound) {
+                assertTrue(top.containsKey(code), code + " clicked " + count + " times is missing");
+            }
+        });
+    }
+
+    @Test
+    void top_ShouldMergeEveryStripe() {
+        TrendingTracker tracker = tracker(10, 4);
+        record(tracker, "a", 100);
+        record(tracker, "b", 40);
+
+        assertEquals(List.of(new TrendingLink("a", 100, 100), new TrendingLink("b", 40, 40)),
+                tracker.top(TrendingTracker.Window.ONE_MINUTE, 10));
+    }
+
+    @Test
+    void record_ShouldNotLoseClicks_UnderConcurrentRedirects() throws Exception {
+        TrendingTracker tracker = tracker(10, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> record(tracker, "a", 10_000)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(List.of(new TrendingLink("a", 80_000, 80_000)),
+                tracker.top(TrendingTracker.Window.ONE_MINUTE, 10));
+    }
+
+    @Test
+    void top_ShouldMergeTheBucketsOfEachWindow() {
+        TrendingTracker tracker = tracker(10, 2);
+        record(tracker, "hour", 1);
+        now.set(START + 50 * 60_000L);
+        record(tracker, "tenMinutes", 2);
+        now.set(START + 57 * 60_000L);
+        record(tracker, "threeMinutes", 3);
+        now.set(START + 58 * 60_000L);
+        record(tracker, "threeMinutes", 1);
+        now.set(START + 59 * 60_000L + 30_000L);
+        record(tracker, "now", 4);
+
+        assertEquals(Set.of("now"), byCode(tracker.top(TrendingTracker.Window.ONE_MINUTE, 10)).keySet());
+        Map<String, TrendingLink> five = byCode(tracker.top(TrendingTracker.Window.FIVE_MINUTES, 10));
+        assertEquals(Set.of("now", "threeMinutes"), five.keySet());
+        assertEquals(4, five.get("threeMinutes").clicks());
+        assertEquals(Set.of("now", "threeMinutes", "tenMinutes", "hour"),
+                byCode(tracker.top(TrendingTracker.Window.ONE_HOUR, 10)).keySet());
+    }
+
+    @Test
+    void record_ShouldStartAfresh_WhenTheRingWrapsAround() {
+        TrendingTracker tracker = tracker(10, 1);
+        record(tracker, "old", 5);
+        now.addAndGet(BUCKET_MS);
+        record(tracker, "next", 1);
+        assertEquals(Set.of("old", "next"), byCode(tracker.top(TrendingTracker.Window.ONE_MINUTE, 10)).keySet());
+
+        // Back in the first bucket's slot, an hour and a bucket later
+        now.set(START + (TrendingTracker.Window.ONE_HOUR.buckets + 1) * BUCKET_MS);
+        record(tracker, "new", 2);
+
+        assertEquals(List.of(new TrendingLink("new", 2, 2)), tracker.top(TrendingTracker.Window.ONE_HOUR, 10));
+    }
+
+    @Test
+    void refreshPinned_ShouldNotifyOnlyTheCodesWhosePinChanged() {
+        TrendingTracker tracker = tracker(10, 1);
+        List<Set<String>> changes = new ArrayList<>();
+        tracker.setPinListener(changes::add);
+
+        record(tracker, "a", 5);
+        record(tracker, "b", 4);
+        record(tracker, "c", 3);
+        record(tracker, "d", 2);
+        tracker.refreshPinned();
+
+        // Top two with at least three clicks
+        assertEquals(Set.of("a", "b"), tracker.getPinned());
+        assertTrue(tracker.isPinned("a"));
+        assertFalse(tracker.isPinned("c"));
+        assertEquals(List.of(Set.of("a", "b")), changes);
+
+        tracker.refreshPinned();
+        assertEquals(1, changes.size());
+
+        now.addAndGet(BUCKET_MS);
+        record(tracker, "c", 3);
+        tracker.refreshPinned();
+
+        assertEquals(Set.of("a", "c"), tracker.getPinned());
+        assertEquals(Set.of("b", "c"), changes.get(1));
+
+        // A minute later nothing is hot enough
+        now.addAndGet(7 * BUCKET_MS);
+        tracker.refreshPinned();
+
+        assertEquals(Set.of(), tracker.getPinned());
+        assertEquals(Set.of("a", "c"), changes.get(2));
+    }
+}